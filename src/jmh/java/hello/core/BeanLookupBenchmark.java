@@ -0,0 +1,54 @@
+package hello.core;
+
+import hello.core.member.MemberService;
+import hello.core.order.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+// 스프링 컨테이너에서 싱글톤 빈을 조회하는 비용 (이름+타입 / 타입)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BeanLookupBenchmark {
+
+    AnnotationConfigApplicationContext ac;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ac = new AnnotationConfigApplicationContext(AppConfig.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ac.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public MemberService getBeanByName() {
+        return ac.getBean("memberService", MemberService.class);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public OrderService getBeanByType() {
+        return ac.getBean(OrderService.class);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public OrderService getBeanByType_8threads() {
+        return ac.getBean(OrderService.class);
+    }
+}
@@ -0,0 +1,34 @@
+package hello.core;
+
+import hello.core.order.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+// 같은 빈 구성을 @Configuration(AppConfig, CGLIB) 과 함수형 등록(FunctionalAppConfig)으로 만들었을 때 컨테이너 생성~종료 시간
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ContextRefreshBenchmark {
+
+    @Benchmark
+    public OrderService appConfig() {
+        try (AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext(AppConfig.class)) {
+            return ac.getBean("orderService", OrderService.class);
+        }
+    }
+
+    @Benchmark
+    public OrderService functionalAppConfig() {
+        try (GenericApplicationContext ac = FunctionalAppConfig.createContext()) {
+            return ac.getBean("orderService", OrderService.class);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package hello.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+* AutoAppConfig 컨테이너 생성(컴포넌트 스캔 → 빈 생성)부터 종료까지의 시간. 클래스패스 스캔 vs 컴포넌트 인덱스
+*  - scan  : -Dspring.index.ignore=true 로 인덱스를 무시하고 .class 파일을 모두 읽는다.
+*  - index : META-INF/spring.components 의 목록만 읽는다.
+* 인덱스 사용 여부는 JVM 시작 시 한 번만 읽으므로 fork 를 나누어 비교한다.
+* 첫 iteration 이 콜드 스타트에 가깝고, 이후 iteration 은 클래스 로딩이 끝난 상태에서 스캔 비용 차이만 남는다.
+* */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StartupBenchmark {
+
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Dspring.index.ignore=true")
+    public int scan() {
+        return refresh();
+    }
+
+    @Benchmark
+    @Fork(jvmArgsAppend = "-Dspring.index.ignore=false")
+    public int index() {
+        return refresh();
+    }
+
+    private int refresh() {
+        try (AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext(AutoAppConfig.class)) {
+            return ac.getBeanDefinitionCount();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package hello.core.discount;
+
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// 할인 정책 단건 계산과 가격 배열 일괄 계산 비용
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DiscountPolicyBenchmark {
+
+    @Param({"fix", "rate"})
+    String policy;
+
+    @Param({"VIP", "BASIC"})
+    Grade grade;
+
+    DiscountPolicy discountPolicy;
+    Member member;
+    long[] prices;
+    int cursor;
+
+    @Setup
+    public void setUp() {
+        discountPolicy = "fix".equals(policy) ? new FixDiscountPolicy() : new RateDiscountPolicy();
+        member = new Member(1L, "member", grade);
+        SplittableRandom random = new SplittableRandom(42);
+        prices = new long[1024];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = 1000 + random.nextInt(100_000);
+        }
+    }
+
+    @Benchmark
+    public long discount() {
+        return discountPolicy.discount(member, prices[cursor++ & (prices.length - 1)]);
+    }
+
+    // 1024 건을 한 번에 계산한다. (결과는 1024 건 전체 시간)
+    @Benchmark
+    public long[] discountBulk() {
+        return discountPolicy.discount(member, prices);
+    }
+}
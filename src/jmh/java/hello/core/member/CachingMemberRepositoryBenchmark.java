@@ -0,0 +1,83 @@
+package hello.core.member;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+* 느린 저장소(SlowMemberRepository) 를 바로 조회할 때와 CachingMemberRepository 를 거칠 때의 findById 처리량.
+* 조회하는 회원의 90% 는 hotSetSize 명 안에서, 나머지는 전체 회원 중에서 고른다. (자주 주문하는 회원이 몰려 있는 상황)
+* 캐시 크기(cacheSize)가 hot set 보다 작으면 LRU 제거가 늘고 적중률이 떨어진다.
+* */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CachingMemberRepositoryBenchmark {
+
+    static final int MEMBER_COUNT = 100_000;
+
+    @Param({"100", "1000"})
+    long latencyMicros;
+
+    @Param({"1000", "10000"})
+    int cacheSize;
+
+    @Param({"5000"})
+    int hotSetSize;
+
+    MemberRepository slow;
+    CachingMemberRepository cached;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MemberRepository store = new ConcurrentMemberRepository(MEMBER_COUNT);
+        for (long id = 1; id <= MEMBER_COUNT; id++) {
+            store.save(new Member(id, "member" + id, id % 2 == 0 ? Grade.VIP : Grade.BASIC));
+        }
+        slow = new SlowMemberRepository(store, latencyMicros);
+        cached = new CachingMemberRepository(slow, cacheSize, 60_000, 5_000);
+    }
+
+    @State(Scope.Thread)
+    public static class Ids {
+        long[] ids;
+        int cursor;
+
+        @Setup(Level.Trial)
+        public void setUp(CachingMemberRepositoryBenchmark benchmark) {
+            SplittableRandom random = new SplittableRandom();
+            ids = new long[1 << 16];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = random.nextInt(10) < 9
+                        ? random.nextInt(benchmark.hotSetSize) + 1
+                        : random.nextInt(MEMBER_COUNT) + 1;
+            }
+        }
+
+        long next() {
+            return ids[cursor++ & (ids.length - 1)];
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Member slow(Ids ids) {
+        return slow.findById(ids.next());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Member cached(Ids ids) {
+        return cached.findById(ids.next());
+    }
+}
@@ -0,0 +1,65 @@
+package hello.core.member;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+* 내장 H2 파일 DB 에 회원을 저장하는 처리량.
+*  - writeBehind: save 만 한다. 대기열에 모였다가 batchSize 건씩 한 트랜잭션으로 쓰인다.
+*  - flushEach  : save 할 때마다 flush 해서 커밋될 때까지 기다린다. 대략 회원 1명당 DB 왕복 + 커밋 1번 (write-behind 가 없을 때와 비슷하다)
+* */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JdbcMemberRepositoryBenchmark {
+
+    @Param({"100", "1000"})
+    int batchSize;
+
+    HikariDataSource dataSource;
+    JdbcMemberRepository repository;
+    final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:file:./build/jmh-members-" + UUID.randomUUID());
+        dataSource.setMaximumPoolSize(8);
+        repository = new JdbcMemberRepository(dataSource, 50, batchSize, batchSize * 20);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        repository.close();
+        dataSource.close();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void writeBehind() {
+        long id = sequence.incrementAndGet();
+        repository.save(new Member(id, "member" + id, Grade.BASIC));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void flushEach() {
+        long id = sequence.incrementAndGet();
+        repository.save(new Member(id, "member" + id, Grade.BASIC));
+        repository.flush();
+    }
+}
@@ -0,0 +1,86 @@
+package hello.core.member;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+* 회원 저장소 findById 처리량.
+* 회원 수(memberCount) 와 저장소 구현체(repository) 조합별로, 1 스레드와 여러 스레드(경합) 상황을 각각 측정한다.
+* */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MemberRepositoryBenchmark {
+
+    @Param({"10000", "1000000"})
+    int memberCount;
+
+    @Param({"memory", "concurrent", "primitive"})
+    String repository;
+
+    MemberRepository memberRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        memberRepository = create(repository, memberCount);
+        for (long id = 1; id <= memberCount; id++) {
+            memberRepository.save(new Member(id, "member" + id, id % 2 == 0 ? Grade.VIP : Grade.BASIC));
+        }
+    }
+
+    // 스레드마다 조회할 id 를 미리 섞어 둔다. (난수 생성 비용이 측정에 섞이지 않도록)
+    @State(Scope.Thread)
+    public static class Ids {
+        long[] ids;
+        int cursor;
+
+        @Setup(Level.Trial)
+        public void setUp(MemberRepositoryBenchmark benchmark) {
+            SplittableRandom random = new SplittableRandom();
+            ids = new long[1 << 16];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = random.nextLong(benchmark.memberCount) + 1;
+            }
+        }
+
+        long next() {
+            return ids[cursor++ & (ids.length - 1)];
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Member findById(Ids ids) {
+        return memberRepository.findById(ids.next());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Member findById_8threads(Ids ids) {
+        return memberRepository.findById(ids.next());
+    }
+
+    static MemberRepository create(String repository, int memberCount) {
+        switch (repository) {
+            case "memory":
+                return new MemoryMemberRepository();
+            case "concurrent":
+                return new ConcurrentMemberRepository(memberCount);
+            case "primitive":
+                return new PrimitiveMemberRepository(memberCount);
+            default:
+                throw new IllegalArgumentException("알 수 없는 저장소입니다. repository = " + repository);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package hello.core.order;
+
+import hello.core.discount.DiscountPolicy;
+import hello.core.discount.RateDiscountPolicy;
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// 정산: 주문마다 Order 객체를 만들어 calculate() 하는 방식 vs long 배열 일괄 계산 (결과는 lineCount 건 전체 시간)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OrderPricingBenchmark {
+
+    @Param({"1000", "100000"})
+    int lineCount;
+
+    DiscountPolicy discountPolicy = new RateDiscountPolicy();
+    Member member = new Member(1L, "member", Grade.VIP);
+    long[] prices;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        prices = new long[lineCount];
+        for (int i = 0; i < lineCount; i++) {
+            prices[i] = 1000 + random.nextLong(10_000_000_000L);
+        }
+    }
+
+    @Benchmark
+    public long perOrder() {
+        long total = 0;
+        for (long price : prices) {
+            Order order = new Order(member.getId(), "itemA", price, discountPolicy.discount(member, price));
+            total += order.calculate();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long bulk() {
+        return OrderPricing.settle(discountPolicy, member, prices).getTotalPayment();
+    }
+}
@@ -0,0 +1,91 @@
+package hello.core.order;
+
+import hello.core.discount.RateDiscountPolicy;
+import hello.core.member.ConcurrentMemberRepository;
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.member.MemberRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+* 주문 생성 전체 경로(회원 조회 → 할인 계산 → Order 생성) 처리량.
+* 여러 스레드가 동시에 주문하는 상황을 위해 ConcurrentMemberRepository 를 사용한다.
+* */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OrderServiceBenchmark {
+
+    static final int BATCH_SIZE = 1000;
+
+    @Param({"1000", "100000"})
+    int memberCount;
+
+    OrderService orderService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MemberRepository memberRepository = new ConcurrentMemberRepository(memberCount);
+        for (long id = 1; id <= memberCount; id++) {
+            memberRepository.save(new Member(id, "member" + id, id % 2 == 0 ? Grade.VIP : Grade.BASIC));
+        }
+        orderService = new OrderServiceImpl(memberRepository, new RateDiscountPolicy());
+    }
+
+    @State(Scope.Thread)
+    public static class Requests {
+        long[] memberIds;
+        List<OrderRequest> batch;
+        int cursor;
+
+        @Setup(Level.Trial)
+        public void setUp(OrderServiceBenchmark benchmark) {
+            SplittableRandom random = new SplittableRandom();
+            memberIds = new long[1 << 16];
+            for (int i = 0; i < memberIds.length; i++) {
+                memberIds[i] = random.nextLong(benchmark.memberCount) + 1;
+            }
+            batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                batch.add(new OrderRequest(memberIds[i], "itemA", 10000 + i));
+            }
+        }
+
+        long nextMemberId() {
+            return memberIds[cursor++ & (memberIds.length - 1)];
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Order createOrder(Requests requests) {
+        return orderService.createOrder(requests.nextMemberId(), "itemA", 10000);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Order createOrder_8threads(Requests requests) {
+        return orderService.createOrder(requests.nextMemberId(), "itemA", 10000);
+    }
+
+    // BATCH_SIZE 건 단위 처리량 (주문 1건당 비용은 결과를 BATCH_SIZE 로 나눈다)
+    @Benchmark
+    @Threads(1)
+    public List<Order> createOrders(Requests requests) {
+        return orderService.createOrders(requests.batch);
+    }
+}
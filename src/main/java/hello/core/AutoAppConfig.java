@@ -100,6 +100,21 @@ import org.springframework.context.annotation.FilterType;
 *
 * */
 
+// 컴포넌트 인덱스
+/*
+* 컴포넌트 스캔은 시작할 때마다 basePackages 아래의 모든 .class 파일을 읽어서(ASM) 애노테이션을 확인한다.
+* 여기에 @SpringBootApplication(CoreApplication) 의 스캔까지 더해지면 같은 클래스패스를 두 번 훑게 되고, 클래스가 늘수록 시작 시간이 길어진다.
+*
+* build.gradle 에 spring-context-indexer 를 annotationProcessor 로 추가해서, 컴파일할 때
+* @Component(@Indexed 가 붙은 스테레오타입) 클래스 목록을 META-INF/spring.components 에 미리 만들어 둔다.
+* 컨테이너는 이 파일이 있으면 클래스패스를 훑지 않고 목록에서 패키지가 맞는 클래스만 읽는다.
+* 코드는 바꿀 필요가 없다. 이 설정과 CoreApplication 모두 같은 인덱스를 사용한다. (excludeFilters 도 그대로 적용된다)
+*
+*  - includeFilters 에 인덱스에 없는 애노테이션(예: 테스트의 @MyIncludeComponent)을 쓰면 그 스캔만 예전처럼 클래스패스를 훑는다.
+*  - 인덱스를 무시하고 스캔하려면 -Dspring.index.ignore=true 로 실행한다. (StartupBenchmark 에서 두 방식을 비교한다)
+*  - 주의: 인덱스가 하나라도 있으면 인덱스만 믿으므로, 인덱스 없이 빌드된 jar 의 @Component 는 찾지 못한다.
+* */
+
 @Configuration
 @ComponentScan( // excludeFilters를 통해 component scan에서 제외시킬 항목을 추가한다. 이전에 설정해놓은 Configuration들은 제외하겠다는 의미임.
         excludeFilters = @Filter(type = FilterType.ANNOTATION, classes = Configuration.class)
@@ -2,6 +2,7 @@ package hello.core;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
 
 /*
 * 참고: spring-boot-starter-web 라이브러리를 추가하면 스프링 부트는 내장 톰켓 서버를 활용해서 웹 서버와 스프링을 함께 실행시킨다.
@@ -12,8 +13,10 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 * 만약, 포트를 변경하려면 설정파일을 수정해주면 된다.
 * "application.properties"
 * server.port=9090
+*
+* DataSource 자동 설정은 제외한다. 회원 저장소가 jdbc 일 때만 JdbcMemberDataSourceConfig 가 DataSource 를 등록한다.
 * */
-@SpringBootApplication
+@SpringBootApplication(exclude = DataSourceAutoConfiguration.class)
 public class CoreApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,50 @@
+package hello.core;
+
+import hello.core.discount.DiscountPolicy;
+import hello.core.discount.FixDiscountPolicy;
+import hello.core.member.MemberRepository;
+import hello.core.member.MemberService;
+import hello.core.member.MemberServiceImpl;
+import hello.core.member.MemoryMemberRepository;
+import hello.core.order.OrderService;
+import hello.core.order.OrderServiceImpl;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.support.GenericApplicationContext;
+
+/*
+* [ 함수형 빈 등록 ]
+* AppConfig 와 같은 빈(memberService, memberRepository, orderService, discountPolicy)을 @Configuration 없이 등록한다.
+*
+* AppConfig 는 memberService() 와 orderService() 가 memberRepository() 를 각각 호출해도 같은 객체를 받도록
+* 스프링이 CGLIB 으로 AppConfig 를 상속한 클래스를 만들어서 @Bean 메서드 호출을 가로챈다. (ConfigurationSingletonTest 참고)
+* 그 과정에서 설정 클래스 파싱(애노테이션 읽기), 바이트코드 생성, 리플렉션으로 @Bean 메서드 호출이 일어나고, 만들어진 클래스는 메타스페이스에 남는다.
+*
+* 여기서는 GenericApplicationContext.registerBean 에 빈 이름과 생성 함수(Supplier)만 넘긴다.
+* 의존관계는 생성 함수 안에서 context.getBean 으로 컨테이너에서 꺼내므로, 메서드를 직접 호출하지 않아도 싱글톤이 유지된다.
+*  - 설정 클래스 파싱, CGLIB 프록시, 리플렉션 생성자 호출이 모두 없다.
+*  - 애노테이션 후처리기(@Autowired, @PostConstruct 처리)도 등록하지 않는다. 의존관계는 생성 함수에서 모두 직접 넣는다.
+*
+* 사용법
+*  - GenericApplicationContext ac = FunctionalAppConfig.createContext();
+*  - 스프링 부트: SpringApplication.addInitializers(new FunctionalAppConfig()) 로 등록할 수도 있다.
+* */
+public class FunctionalAppConfig implements ApplicationContextInitializer<GenericApplicationContext> {
+
+    public static GenericApplicationContext createContext() {
+        GenericApplicationContext context = new GenericApplicationContext();
+        new FunctionalAppConfig().initialize(context);
+        context.refresh();
+        return context;
+    }
+
+    @Override
+    public void initialize(GenericApplicationContext context) {
+        context.registerBean("memberRepository", MemoryMemberRepository.class, MemoryMemberRepository::new);
+        context.registerBean("discountPolicy", DiscountPolicy.class, FixDiscountPolicy::new);
+        context.registerBean("memberService", MemberService.class,
+                () -> new MemberServiceImpl(context.getBean("memberRepository", MemberRepository.class)));
+        context.registerBean("orderService", OrderService.class,
+                () -> new OrderServiceImpl(context.getBean("memberRepository", MemberRepository.class),
+                        context.getBean("discountPolicy", DiscountPolicy.class)));
+    }
+}
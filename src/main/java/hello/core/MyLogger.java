@@ -1,12 +1,13 @@
 package hello.core;
 
+import hello.core.logging.AsyncLogWriter;
+import hello.core.logging.RequestIdGenerator;
 import org.springframework.context.annotation.Scope;
 import org.springframework.context.annotation.ScopedProxyMode;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
-import java.util.UUID;
 
 
 /*
@@ -64,25 +65,38 @@ import java.util.UUID;
 @Component
 @Scope(value = "request", proxyMode = ScopedProxyMode.TARGET_CLASS)
 public class MyLogger {
+    private final AsyncLogWriter logWriter;
+    private final RequestIdGenerator requestIdGenerator;
     private String uuid;
     private String requestURL;
+    // "[uuid][requestURL]" 는 요청 동안 바뀌지 않으므로 미리 만들어 두고 log() 마다 재사용한다.
+    private String prefix;
+
+    public MyLogger(AsyncLogWriter logWriter, RequestIdGenerator requestIdGenerator) {
+        this.logWriter = logWriter;
+        this.requestIdGenerator = requestIdGenerator;
+    }
 
     public void setRequestURL(String requestURL) {
         this.requestURL = requestURL;
+        this.prefix = "[" + uuid + "]" + "[" + requestURL + "]";
     }
 
+    // 출력은 AsyncLogWriter 의 백그라운드 스레드가 한다. 요청 스레드는 버퍼에 넣고 바로 돌아간다.
     public void log(String message){
-        System.out.println("[" + uuid + "]" + "[" + requestURL + "]" + message);
+        logWriter.write(prefix, message);
     }
 
     @PostConstruct
     public void init(){
-        uuid = UUID.randomUUID().toString();
-        System.out.println("[" + uuid + "] request scope bean create: " + this);
+        // 요청 구분 id 는 RequestIdGenerator 가 만든다. (기본값은 UUID 보다 가벼운 CompactRequestIdGenerator)
+        uuid = requestIdGenerator.nextId();
+        prefix = "[" + uuid + "]" + "[" + requestURL + "]";
+        logWriter.write("[" + uuid + "]", " request scope bean create: ", this);
     }
 
     @PreDestroy
     public void close(){
-        System.out.println("[" + uuid + "] request scope bean close: " + this);
+        logWriter.write("[" + uuid + "]", " request scope bean close: ", this);
     }
 }
@@ -0,0 +1,202 @@
+package hello.core.discount;
+
+import hello.core.member.Grade;
+import hello.core.member.Member;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/*
+* [ 할인 결과 캐시 ]
+* 다른 DiscountPolicy 를 감싸서 (등급, 상품명, 가격) 별 할인 결과를 기억해 둔다. 같은 조건의 주문이 반복되는 경우
+* (타임 세일 등) 규칙 계산 대신 캐시 조회만 한다.
+*
+* [ 무효화 ]
+*  - 회원 등급 변경(Member.setGrade): 등급이 키에 포함되므로 등급이 바뀐 회원의 다음 주문은 새 등급의 키로 조회된다.
+*    회원별로 결과를 저장하지 않으므로 따로 지울 것이 없다.
+*  - 규칙 변경(ReloadableDiscountPolicy 등): versionSupplier 가 돌려주는 규칙 버전도 키에 넣는다. 버전이 바뀌면
+*    이전 버전의 결과는 더 이상 조회되지 않고 LRU 로 밀려난다.
+* 감싸는 정책은 회원의 등급만 보고 할인을 정해야 한다. (이 저장소의 모든 DiscountPolicy 가 그렇다)
+*
+* [ 구조 ]
+* 키 해시로 나눈 segment 마다 접근 순서 LinkedHashMap(LRU)을 두고 segment 단위로만 잠근다. 전체 크기는 maximumSize 를 넘지 않는다.
+* 적중/실패/제거 횟수는 LongAdder 로 센다.
+* */
+public class CachingDiscountPolicy implements DiscountPolicy {
+
+    private static final int DEFAULT_SEGMENTS = 16;
+
+    private final DiscountPolicy delegate;
+    private final LongSupplier versionSupplier;
+    private final Segment[] segments;
+    private final int segmentMask;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    public CachingDiscountPolicy(DiscountPolicy delegate, int maximumSize) {
+        this(delegate, maximumSize, () -> 0L);
+    }
+
+    public CachingDiscountPolicy(DiscountPolicy delegate, int maximumSize, LongSupplier versionSupplier) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("캐시 크기는 0보다 커야 합니다. maximumSize = " + maximumSize);
+        }
+        this.delegate = delegate;
+        this.versionSupplier = versionSupplier;
+        // segment 수는 2의 거듭제곱, segment 하나에 최소 1개는 들어가야 한다.
+        int segmentCount = Integer.highestOneBit(Math.min(DEFAULT_SEGMENTS, maximumSize));
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(maximumSize / segmentCount);
+        }
+        this.segmentMask = segmentCount - 1;
+    }
+
+    @Override
+    public long discount(Member member, long price) {
+        return discount(member, null, price);
+    }
+
+    @Override
+    public long discount(Member member, String itemName, long price) {
+        Key key = new Key(versionSupplier.getAsLong(), member.getGrade(), itemName, price);
+        Segment segment = segments[spread(key.hash) & segmentMask];
+        Long cached = segment.get(key);
+        if (cached != null) {
+            hitCount.increment();
+            return cached;
+        }
+        missCount.increment();
+        long discount = itemName == null ? delegate.discount(member, price) : delegate.discount(member, itemName, price);
+        segment.put(key, discount);
+        return discount;
+    }
+
+    @Override
+    public long[] discount(Member member, long[] prices) {
+        long[] discounts = new long[prices.length];
+        for (int i = 0; i < prices.length; i++) {
+            discounts[i] = discount(member, null, prices[i]);
+        }
+        return discounts;
+    }
+
+    @Override
+    public long[] discount(Member member, String[] itemNames, long[] prices) {
+        long[] discounts = new long[prices.length];
+        for (int i = 0; i < prices.length; i++) {
+            discounts[i] = discount(member, itemNames[i], prices[i]);
+        }
+        return discounts;
+    }
+
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public DiscountPolicy getDelegate() {
+        return delegate;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    public double getHitRate() {
+        long hits = hitCount.sum();
+        long total = hits + missCount.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private final class Segment {
+        private final LinkedHashMap<Key, Long> map;
+
+        Segment(int capacity) {
+            // accessOrder = true: 조회할 때마다 맨 뒤로 옮겨서, 가장 오래 쓰이지 않은 항목이 맨 앞에 온다.
+            this.map = new LinkedHashMap<Key, Long>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, Long> eldest) {
+                    if (size() > capacity) {
+                        evictionCount.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        synchronized Long get(Key key) {
+            return map.get(key);
+        }
+
+        synchronized void put(Key key, long discount) {
+            map.put(key, discount);
+        }
+
+        synchronized void clear() {
+            map.clear();
+        }
+
+        synchronized int size() {
+            return map.size();
+        }
+    }
+
+    private static final class Key {
+        private final long version;
+        private final Grade grade;
+        private final String itemName;
+        private final long price;
+        private final int hash;
+
+        Key(long version, Grade grade, String itemName, long price) {
+            this.version = version;
+            this.grade = grade;
+            this.itemName = itemName;
+            this.price = price;
+            this.hash = Objects.hash(version, grade, itemName, price);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return version == other.version && grade == other.grade && price == other.price
+                    && Objects.equals(itemName, other.itemName);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package hello.core.discount;
+
+/*
+* [ 오버플로 없는 정률 계산 ]
+* amount * percent / 100 은 곱셈 결과가 long 범위를 넘으면 조용히 틀린 값이 나온다.
+* amount = 100q + r 로 나누면 amount * percent / 100 = q * percent + r * percent / 100 이므로 (amount >= 0 일 때 버림까지 같다)
+* 곱하기 전에 먼저 나누어서 중간값이 결과보다 커지지 않게 한다.
+* */
+public final class DiscountMath {
+
+    private DiscountMath() {
+    }
+
+    // amount 의 percent% (소수점 이하 버림). amount 는 0 이상, percent 는 0 ~ 100
+    public static long percentOf(long amount, long percent) {
+        return amount / 100 * percent + amount % 100 * percent / 100;
+    }
+
+    // 가격 배열 전체의 percent% 를 out 에 채운다. 분기 없는 단순 반복이라 JIT 가 펼치기(unroll) 쉽다.
+    public static void percentOf(long[] amounts, long percent, long[] out) {
+        for (int i = 0; i < amounts.length; i++) {
+            long amount = amounts[i];
+            out[i] = amount / 100 * percent + amount % 100 * percent / 100;
+        }
+    }
+}
@@ -2,6 +2,31 @@ package hello.core.discount;
 
 import hello.core.member.Member;
 
+/*
+* 금액은 모두 long 최소 화폐 단위(원, 센트 등)로 다룬다. int 로는 약 21억을 넘는 금액(대량 B2B 주문 등)을 표현할 수 없고,
+* 정률 계산(price * rate)은 그보다 훨씬 작은 금액에서 오버플로가 난다. 정률 계산은 DiscountMath.percentOf 를 사용하자.
+* */
 public interface DiscountPolicy {
-    int discount(Member member, int price);
+    long discount(Member member, long price);
+
+    // 상품명에 따라 할인이 달라지는 정책(RuleDiscountPolicy 등)은 재정의한다. 기본 구현은 상품명을 보지 않는다.
+    default long discount(Member member, String itemName, long price) {
+        return discount(member, price);
+    }
+
+    // 같은 회원의 여러 가격을 한 번에 계산한다. (일괄 주문용)
+    // 기본 구현은 discount(member, price) 를 반복 호출하고, 구현체는 회원 조건을 한 번만 확인하도록 재정의할 수 있다.
+    default long[] discount(Member member, long[] prices) {
+        long[] discounts = new long[prices.length];
+        for (int i = 0; i < prices.length; i++) {
+            discounts[i] = discount(member, prices[i]);
+        }
+        return discounts;
+    }
+
+    // 상품명이 함께 주어지는 일괄 계산. 기본 구현은 상품명을 보지 않는 정책 기준으로 discount(member, prices) 를 호출한다.
+    // discount(member, itemName, price) 를 재정의한 정책은 이 메서드도 함께 재정의해야 한다.
+    default long[] discount(Member member, String[] itemNames, long[] prices) {
+        return discount(member, prices);
+    }
 }
@@ -0,0 +1,39 @@
+package hello.core.discount;
+
+import hello.core.annotation.MainDiscountPolicy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/*
+* discount.cache.enabled=true 이면 @MainDiscountPolicy 가 붙은 할인 정책 빈을 CachingDiscountPolicy 로 감싸서 등록한다.
+*  - discount.cache.maximum-size : 캐시 최대 항목 수 (기본 10000)
+* 감싸는 대상이 ReloadableDiscountPolicy 이면 규칙 버전을 캐시 키에 넣어서, 규칙이 바뀌면 이전 결과를 사용하지 않는다.
+*
+* OrderServiceImpl 같은 주입 받는 쪽 코드는 바뀌지 않는다. 빈 후처리기로 원본 대신 감싼 객체를 등록하는 것이 핵심이다.
+* */
+@Component
+@ConditionalOnProperty(name = "discount.cache.enabled", havingValue = "true")
+public class DiscountPolicyCachingPostProcessor implements BeanPostProcessor {
+
+    private final int maximumSize;
+
+    @Autowired
+    public DiscountPolicyCachingPostProcessor(@Value("${discount.cache.maximum-size:10000}") int maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DiscountPolicy) || !bean.getClass().isAnnotationPresent(MainDiscountPolicy.class)) {
+            return bean;
+        }
+        if (bean instanceof ReloadableDiscountPolicy) {
+            ReloadableDiscountPolicy reloadable = (ReloadableDiscountPolicy) bean;
+            return new CachingDiscountPolicy(reloadable, maximumSize, reloadable::getVersion);
+        }
+        return new CachingDiscountPolicy((DiscountPolicy) bean, maximumSize);
+    }
+}
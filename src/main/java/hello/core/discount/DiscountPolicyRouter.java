@@ -0,0 +1,76 @@
+package hello.core.discount;
+
+import hello.core.member.Member;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+* [ 할인 정책 라우터 ]
+* AllBeanTest 의 DiscountService 처럼 Map<String, DiscountPolicy> 를 주입받아 빈 이름으로 정책을 고르는 방식을 실제 컴포넌트로 만든 것.
+* 다만 주문마다 문자열 해시로 Map 을 찾지 않도록, 시작 시점에 빈 이름(정책 코드)을 0부터 시작하는 정수 id 로 바꿔 둔다.
+*  - 시작할 때 한 번: codeOf("fixDiscountPolicy") → 정수 코드
+*  - 주문마다: policies[code] 배열 조회 한 번
+* 코드는 빈 이름 순서로 정해지므로 같은 빈 구성이면 항상 같은 값이다. 그래도 코드 값을 저장하거나 외부로 보내지 말고
+* 실행 중에 codeOf 로 얻어서 사용하자.
+* */
+@Component
+public class DiscountPolicyRouter {
+
+    private final String[] names;
+    private final DiscountPolicy[] policies;
+    private final Map<String, Integer> codeByName;
+
+    public DiscountPolicyRouter(Map<String, DiscountPolicy> policyMap) {
+        List<String> sortedNames = new ArrayList<>(policyMap.keySet());
+        Collections.sort(sortedNames);
+        this.names = sortedNames.toArray(new String[0]);
+        this.policies = new DiscountPolicy[names.length];
+        Map<String, Integer> codes = new HashMap<>();
+        for (int code = 0; code < names.length; code++) {
+            policies[code] = policyMap.get(names[code]);
+            codes.put(names[code], code);
+        }
+        this.codeByName = Collections.unmodifiableMap(codes);
+    }
+
+    // 정책 이름(빈 이름)을 코드로 바꾼다. 주문 처리 전에 한 번만 호출하자.
+    public int codeOf(String name) {
+        Integer code = codeByName.get(name);
+        if (code == null) {
+            throw new IllegalArgumentException("등록되지 않은 할인 정책입니다. name = " + name + ", policies = " + codeByName.keySet());
+        }
+        return code;
+    }
+
+    public String nameOf(int code) {
+        return names[checkCode(code)];
+    }
+
+    public DiscountPolicy policy(int code) {
+        return policies[checkCode(code)];
+    }
+
+    public long discount(int code, Member member, long price) {
+        return policy(code).discount(member, price);
+    }
+
+    public long discount(int code, Member member, String itemName, long price) {
+        return policy(code).discount(member, itemName, price);
+    }
+
+    public int size() {
+        return policies.length;
+    }
+
+    private int checkCode(int code) {
+        if (code < 0 || code >= policies.length) {
+            throw new IllegalArgumentException("잘못된 할인 정책 코드입니다. code = " + code);
+        }
+        return code;
+    }
+}
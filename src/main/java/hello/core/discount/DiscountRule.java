@@ -0,0 +1,106 @@
+package hello.core.discount;
+
+import hello.core.member.Grade;
+
+/*
+* [ 할인 규칙 ]
+* "grade 회원이 itemName 상품을 [minPrice, maxPrice) 가격으로 살 때 value 만큼(정액/정률) 할인한다" 를 표현하는 불변 객체.
+*  - grade    : null 이면 모든 등급에 적용
+*  - itemName : null 이면 모든 상품에 적용
+*  - maxPrice : Long.MAX_VALUE(NO_UPPER_BOUND) 이면 상한 없음
+*
+* 여러 규칙이 겹치면 priority 가 큰 규칙이 이긴다. priority 가 같으면 상품/등급을 지정한 규칙이 이기고,
+* 그래도 같으면 먼저 정의된 규칙이 이긴다. (DiscountRuleTable 참고)
+* */
+public final class DiscountRule {
+
+    public static final long NO_UPPER_BOUND = Long.MAX_VALUE;
+
+    private final Grade grade;
+    private final String itemName;
+    private final long minPrice;
+    private final long maxPrice;
+    private final DiscountType type;
+    private final long value;
+    private final int priority;
+
+    public DiscountRule(Grade grade, String itemName, long minPrice, long maxPrice, DiscountType type, long value, int priority) {
+        if (minPrice < 0 || maxPrice <= minPrice) {
+            throw new IllegalArgumentException("가격 구간이 올바르지 않습니다. [" + minPrice + ", " + maxPrice + ")");
+        }
+        if (type == null) {
+            throw new IllegalArgumentException("할인 종류가 없습니다.");
+        }
+        if (value < 0 || (type == DiscountType.RATE && value > 100)) {
+            throw new IllegalArgumentException("할인 값이 올바르지 않습니다. type = " + type + ", value = " + value);
+        }
+        this.grade = grade;
+        this.itemName = itemName;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.type = type;
+        this.value = value;
+        this.priority = priority;
+    }
+
+    // 모든 가격, 모든 상품에 적용되는 규칙
+    public static DiscountRule fixed(Grade grade, long amount) {
+        return new DiscountRule(grade, null, 0, NO_UPPER_BOUND, DiscountType.FIXED, amount, 0);
+    }
+
+    public static DiscountRule rate(Grade grade, int percent) {
+        return new DiscountRule(grade, null, 0, NO_UPPER_BOUND, DiscountType.RATE, percent, 0);
+    }
+
+    // 정액 할인은 상품 가격을 넘지 않는다.
+    public long discount(long price) {
+        if (type == DiscountType.RATE) {
+            return DiscountMath.percentOf(price, value);
+        }
+        return Math.min(value, price);
+    }
+
+    public boolean covers(long price) {
+        return minPrice <= price && price < maxPrice;
+    }
+
+    public Grade getGrade() {
+        return grade;
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+
+    public long getMinPrice() {
+        return minPrice;
+    }
+
+    public long getMaxPrice() {
+        return maxPrice;
+    }
+
+    public DiscountType getType() {
+        return type;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    @Override
+    public String toString() {
+        return "DiscountRule{" +
+                "grade=" + grade +
+                ", itemName='" + itemName + '\'' +
+                ", price=[" + minPrice + ", " + (maxPrice == NO_UPPER_BOUND ? "" : maxPrice) + ")" +
+                ", type=" + type +
+                ", value=" + value +
+                ", priority=" + priority +
+                '}';
+    }
+}
@@ -0,0 +1,75 @@
+package hello.core.discount;
+
+import hello.core.member.Grade;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/*
+* [ 할인 규칙 파일 형식 ]
+* 한 줄에 규칙 하나, 쉼표로 구분한다. # 으로 시작하는 줄과 빈 줄은 무시한다.
+*
+*   # grade, itemName, minPrice, maxPrice, type, value[, priority]
+*   VIP,   *,     0,     *,     RATE,  10
+*   *,     itemA, 10000, 50000, FIXED, 1000, 1
+*
+*  - grade, itemName 의 * 는 "모두", maxPrice 의 * 는 "상한 없음" 을 뜻한다.
+*  - type 은 FIXED(정액, 원) 또는 RATE(정률, %) 이고, priority 는 생략하면 0 이다.
+*
+* 형식이 잘못된 줄이 하나라도 있으면 몇 번째 줄인지 담아 IllegalArgumentException 을 던진다. (일부만 적용되는 일은 없다)
+* */
+public final class DiscountRuleParser {
+
+    private static final String ANY = "*";
+
+    private DiscountRuleParser() {
+    }
+
+    public static List<DiscountRule> parse(Path file) {
+        try {
+            return parse(Files.readAllLines(file, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("할인 규칙 파일을 읽을 수 없습니다. file = " + file, e);
+        }
+    }
+
+    public static List<DiscountRule> parse(List<String> lines) {
+        List<DiscountRule> rules = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            try {
+                rules.add(parseRule(line));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("할인 규칙 " + (i + 1) + "번째 줄이 올바르지 않습니다. [" + line + "] " + e.getMessage(), e);
+            }
+        }
+        return rules;
+    }
+
+    private static DiscountRule parseRule(String line) {
+        String[] columns = line.split(",", -1);
+        if (columns.length != 6 && columns.length != 7) {
+            throw new IllegalArgumentException("항목 수는 6개 또는 7개여야 합니다.");
+        }
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = columns[i].trim();
+        }
+        Grade grade = ANY.equals(columns[0]) ? null : Grade.valueOf(columns[0].toUpperCase(Locale.ROOT));
+        String itemName = ANY.equals(columns[1]) ? null : columns[1];
+        long minPrice = Long.parseLong(columns[2]);
+        long maxPrice = ANY.equals(columns[3]) ? DiscountRule.NO_UPPER_BOUND : Long.parseLong(columns[3]);
+        DiscountType type = DiscountType.valueOf(columns[4].toUpperCase(Locale.ROOT));
+        long value = Long.parseLong(columns[5]);
+        int priority = columns.length == 7 ? Integer.parseInt(columns[6]) : 0;
+        return new DiscountRule(grade, itemName, minPrice, maxPrice, type, value, priority);
+    }
+}
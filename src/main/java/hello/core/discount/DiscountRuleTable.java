@@ -0,0 +1,214 @@
+package hello.core.discount;
+
+import hello.core.member.Grade;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/*
+* [ 컴파일된 할인 규칙표 ]
+* 규칙을 List 로 들고 주문마다 앞에서부터 검사하면 규칙 수에 비례해서 느려진다.
+* 여기서는 생성 시점에 규칙을 한 번만 "컴파일" 해서 조회 구조를 만든다.
+*  1. 등급(Grade)별, 상품별로 적용될 수 있는 규칙만 모은다.
+*  2. 규칙들의 가격 경계값(minPrice, maxPrice)으로 가격축을 겹치지 않는 구간(band)으로 나눈다.
+*  3. 구간마다 이기는 규칙(우선순위가 가장 높은 규칙)을 미리 정해 둔다. 이웃 구간의 규칙이 같으면 합친다.
+*
+* 조회: 등급 배열 인덱스(ordinal) → (상품 전용 규칙이 있으면 HashMap) → 구간 경계 배열 이진 탐색.
+* 조회 비용은 규칙 수가 아니라 해당 등급/상품의 가격 구간 수의 log 에만 비례하고, 객체 생성이나 락이 없다.
+*
+* 한 번 만들어지면 바뀌지 않으므로(불변) 여러 스레드가 동시에 조회해도 안전하다.
+* */
+public final class DiscountRuleTable {
+
+    // 우선순위 → 상품 지정 → 등급 지정 → 정의 순서
+    private static final Comparator<DiscountRule> PRECEDENCE = Comparator
+            .comparingInt(DiscountRule::getPriority).reversed()
+            .thenComparing(rule -> rule.getItemName() == null)
+            .thenComparing(rule -> rule.getGrade() == null);
+
+    private static final Grade[] GRADES = Grade.values();
+
+    private final List<DiscountRule> rules;
+    // 인덱스: Grade.ordinal(), 마지막 칸은 등급이 없는(null) 회원용
+    private final PriceBands[] bandsByGrade;
+    private final Map<String, PriceBands[]> bandsByItem;
+
+    private DiscountRuleTable(List<DiscountRule> rules, PriceBands[] bandsByGrade, Map<String, PriceBands[]> bandsByItem) {
+        this.rules = rules;
+        this.bandsByGrade = bandsByGrade;
+        this.bandsByItem = bandsByItem;
+    }
+
+    public static DiscountRuleTable compile(List<DiscountRule> rules) {
+        // List.sort 는 안정 정렬이므로 같은 우선순위끼리는 정의 순서가 유지된다.
+        List<DiscountRule> ordered = new ArrayList<>(rules);
+        ordered.sort(PRECEDENCE);
+
+        List<DiscountRule> commonRules = new ArrayList<>();
+        Set<String> itemNames = new LinkedHashSet<>();
+        for (DiscountRule rule : ordered) {
+            if (rule.getItemName() == null) {
+                commonRules.add(rule);
+            } else {
+                itemNames.add(rule.getItemName());
+            }
+        }
+
+        PriceBands[] bandsByGrade = compileByGrade(commonRules);
+        Map<String, PriceBands[]> bandsByItem = new HashMap<>();
+        for (String itemName : itemNames) {
+            // 상품 전용 규칙과 공통 규칙을 함께 컴파일한다. (우선순위는 ordered 순서를 그대로 따른다)
+            List<DiscountRule> itemRules = new ArrayList<>();
+            for (DiscountRule rule : ordered) {
+                if (rule.getItemName() == null || rule.getItemName().equals(itemName)) {
+                    itemRules.add(rule);
+                }
+            }
+            bandsByItem.put(itemName, compileByGrade(itemRules));
+        }
+        return new DiscountRuleTable(Collections.unmodifiableList(new ArrayList<>(rules)), bandsByGrade, bandsByItem);
+    }
+
+    public static DiscountRuleTable empty() {
+        return compile(Collections.emptyList());
+    }
+
+    // 적용되는 규칙이 없으면 null
+    public DiscountRule find(Grade grade, String itemName, long price) {
+        return bandsFor(grade, itemName).find(price);
+    }
+
+    public long discount(Grade grade, String itemName, long price) {
+        DiscountRule rule = find(grade, itemName, price);
+        return rule == null ? 0 : rule.discount(price);
+    }
+
+    // 같은 등급/상품의 여러 가격을 한 번에 계산한다. 등급/상품 조회는 한 번만 한다.
+    public long[] discount(Grade grade, String itemName, long[] prices) {
+        PriceBands bands = bandsFor(grade, itemName);
+        long[] discounts = new long[prices.length];
+        for (int i = 0; i < prices.length; i++) {
+            DiscountRule rule = bands.find(prices[i]);
+            discounts[i] = rule == null ? 0 : rule.discount(prices[i]);
+        }
+        return discounts;
+    }
+
+    public List<DiscountRule> getRules() {
+        return rules;
+    }
+
+    public int ruleCount() {
+        return rules.size();
+    }
+
+    // 컴파일된 가격 구간의 총 개수 (조회 구조 크기 확인용)
+    public int bandCount() {
+        int count = 0;
+        for (PriceBands bands : bandsByGrade) {
+            count += bands.size();
+        }
+        for (PriceBands[] itemBands : bandsByItem.values()) {
+            for (PriceBands bands : itemBands) {
+                count += bands.size();
+            }
+        }
+        return count;
+    }
+
+    private PriceBands bandsFor(Grade grade, String itemName) {
+        PriceBands[] byGrade = bandsByGrade;
+        if (itemName != null) {
+            PriceBands[] byItem = bandsByItem.get(itemName);
+            if (byItem != null) {
+                byGrade = byItem;
+            }
+        }
+        return byGrade[grade == null ? GRADES.length : grade.ordinal()];
+    }
+
+    private static PriceBands[] compileByGrade(List<DiscountRule> orderedRules) {
+        PriceBands[] bands = new PriceBands[GRADES.length + 1];
+        for (int i = 0; i <= GRADES.length; i++) {
+            Grade grade = i < GRADES.length ? GRADES[i] : null;
+            List<DiscountRule> gradeRules = new ArrayList<>();
+            for (DiscountRule rule : orderedRules) {
+                if (rule.getGrade() == null || rule.getGrade() == grade) {
+                    gradeRules.add(rule);
+                }
+            }
+            bands[i] = PriceBands.compile(gradeRules);
+        }
+        return bands;
+    }
+
+    /*
+    * 가격축을 나눈 구간표. lowerBounds[i] 이상 lowerBounds[i + 1] 미만의 가격에는 rules[i] 가 적용된다. (null 이면 할인 없음)
+    * */
+    static final class PriceBands {
+        private final long[] lowerBounds;
+        private final DiscountRule[] rules;
+
+        private PriceBands(long[] lowerBounds, DiscountRule[] rules) {
+            this.lowerBounds = lowerBounds;
+            this.rules = rules;
+        }
+
+        // orderedRules 는 우선순위 순서로 정렬되어 있어야 한다.
+        static PriceBands compile(List<DiscountRule> orderedRules) {
+            TreeSet<Long> boundaries = new TreeSet<>();
+            boundaries.add(0L);
+            for (DiscountRule rule : orderedRules) {
+                boundaries.add(rule.getMinPrice());
+                if (rule.getMaxPrice() != DiscountRule.NO_UPPER_BOUND) {
+                    boundaries.add(rule.getMaxPrice());
+                }
+            }
+
+            long[] lowerBounds = new long[boundaries.size()];
+            DiscountRule[] winners = new DiscountRule[boundaries.size()];
+            int size = 0;
+            for (long lowerBound : boundaries) {
+                DiscountRule winner = null;
+                for (DiscountRule rule : orderedRules) {
+                    if (rule.covers(lowerBound)) {
+                        winner = rule;
+                        break;
+                    }
+                }
+                // 이웃 구간과 규칙이 같으면 합친다.
+                if (size > 0 && winners[size - 1] == winner) {
+                    continue;
+                }
+                lowerBounds[size] = lowerBound;
+                winners[size] = winner;
+                size++;
+            }
+            return new PriceBands(Arrays.copyOf(lowerBounds, size), Arrays.copyOf(winners, size));
+        }
+
+        DiscountRule find(long price) {
+            if (price < 0) {
+                return null;
+            }
+            int index = Arrays.binarySearch(lowerBounds, price);
+            if (index < 0) {
+                // 삽입 위치 - 1 = price 보다 작은 가장 큰 경계값의 위치
+                index = -index - 2;
+            }
+            return rules[index];
+        }
+
+        int size() {
+            return lowerBounds.length;
+        }
+    }
+}
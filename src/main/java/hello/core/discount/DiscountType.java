@@ -0,0 +1,6 @@
+package hello.core.discount;
+
+public enum DiscountType {
+    FIXED, // 정액 할인 (value 원)
+    RATE   // 정률 할인 (value %)
+}
@@ -4,13 +4,15 @@ import hello.core.member.Grade;
 import hello.core.member.Member;
 import org.springframework.stereotype.Component;
 
+import java.util.Arrays;
+
 @Component
 public class FixDiscountPolicy implements DiscountPolicy{
 
-    private int discountAmt = 1000;
+    private long discountAmt = 1000;
 
     @Override
-    public int discount(Member member, int price) {
+    public long discount(Member member, long price) {
 
         if(member.getGrade() == Grade.VIP){
             return discountAmt;
@@ -18,4 +20,13 @@ public class FixDiscountPolicy implements DiscountPolicy{
             return 0;
         }
     }
+
+    @Override
+    public long[] discount(Member member, long[] prices) {
+        long[] discounts = new long[prices.length];
+        if(member.getGrade() == Grade.VIP){
+            Arrays.fill(discounts, discountAmt);
+        }
+        return discounts;
+    }
 }
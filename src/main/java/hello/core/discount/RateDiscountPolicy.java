@@ -14,14 +14,24 @@ public class RateDiscountPolicy implements DiscountPolicy{
 
     private int discountRate = 10;
 
+    // price * discountRate 는 큰 금액에서 오버플로가 나므로 DiscountMath 로 계산한다.
     @Override
-    public int discount(Member member, int price) {
+    public long discount(Member member, long price) {
         if(member.getGrade() == Grade.VIP){
-            return price * discountRate / 100 ;
+            return DiscountMath.percentOf(price, discountRate);
         }else{
             return 0;
         }
     }
+
+    @Override
+    public long[] discount(Member member, long[] prices) {
+        long[] discounts = new long[prices.length];
+        if(member.getGrade() == Grade.VIP){
+            DiscountMath.percentOf(prices, discountRate, discounts);
+        }
+        return discounts;
+    }
 }
 
 /*
@@ -0,0 +1,234 @@
+package hello.core.discount;
+
+import hello.core.annotation.MainDiscountPolicy;
+import hello.core.member.Member;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+* [ 재시작 없이 바뀌는 할인 정책 ]
+* 할인 규칙을 파일(DiscountRuleParser 형식)에서 읽고, 파일이 바뀌면 컨테이너 재시작 없이 새 규칙으로 교체한다.
+*  - discount.rules.file             : 규칙 파일 경로. 이 속성이 있을 때만 빈으로 등록된다.
+*  - discount.rules.poll-interval-ms : 파일 변경 확인 주기 (기본 1000ms)
+*
+* [ copy-on-write 교체 ]
+* 새 규칙은 별도 스레드에서 파일 읽기 → 파싱 → DiscountRuleTable 컴파일까지 모두 끝낸 뒤, AtomicReference 를 한 번에 바꿔서 적용한다.
+* discount() 는 호출 시작 시 참조를 한 번만 읽고 그 규칙표로만 계산하므로, 진행 중인 주문이 반쯤 바뀐 규칙을 보는 일은 없다.
+* 파일 형식이 잘못되었으면 기존 규칙을 그대로 사용한다. 실패 횟수와 마지막 오류(getReloadFailureCount, getLastFailureMessage)를 남기고
+* 경고 로그(SLF4J)를 출력한다.
+*
+* 등록되면 @MainDiscountPolicy 로 주입받는 곳(OrderServiceImpl)에서 RateDiscountPolicy 대신 사용된다. (@Primary)
+* */
+@Component
+@Primary
+@MainDiscountPolicy
+@ConditionalOnProperty(name = "discount.rules.file")
+public class ReloadableDiscountPolicy implements DiscountPolicy, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReloadableDiscountPolicy.class);
+
+    private final Path file;
+    private final long pollIntervalMillis;
+    private final AtomicReference<LoadedRules> current = new AtomicReference<>();
+
+    private final LongAdder reloadCount = new LongAdder();
+    private final LongAdder reloadFailureCount = new LongAdder();
+    private volatile long lastReloadNanos;
+    private volatile long maxReloadNanos;
+    private volatile String lastFailureMessage;
+    // 마지막으로 읽기를 시도한 파일 상태. 잘못된 파일을 주기마다 다시 읽지 않도록 실패한 경우에도 기록한다.
+    private volatile FileStamp lastAttempted;
+
+    private ScheduledExecutorService watcher;
+
+    @Autowired
+    public ReloadableDiscountPolicy(@Value("${discount.rules.file}") String file,
+                                    @Value("${discount.rules.poll-interval-ms:1000}") long pollIntervalMillis) {
+        this(Paths.get(file), pollIntervalMillis);
+    }
+
+    public ReloadableDiscountPolicy(Path file, long pollIntervalMillis) {
+        this.file = file;
+        this.pollIntervalMillis = pollIntervalMillis;
+    }
+
+    // 처음 읽기에 실패하면 잘못된 설정이므로 컨테이너 생성을 실패시킨다.
+    @PostConstruct
+    public void start() {
+        if (!reload()) {
+            throw new IllegalStateException("할인 규칙 파일을 읽을 수 없습니다. file = " + file + ", cause = " + lastFailureMessage);
+        }
+        watcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "discount-rules-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watcher.scheduleWithFixedDelay(this::reloadIfChanged, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    @Override
+    public void close() {
+        if (watcher != null) {
+            watcher.shutdownNow();
+        }
+    }
+
+    @Override
+    public long discount(Member member, long price) {
+        return current.get().table.discount(member.getGrade(), null, price);
+    }
+
+    @Override
+    public long discount(Member member, String itemName, long price) {
+        return current.get().table.discount(member.getGrade(), itemName, price);
+    }
+
+    @Override
+    public long[] discount(Member member, long[] prices) {
+        return current.get().table.discount(member.getGrade(), null, prices);
+    }
+
+    @Override
+    public long[] discount(Member member, String[] itemNames, long[] prices) {
+        // 일괄 계산 도중에 규칙이 바뀌어도 같은 규칙표로 끝까지 계산한다.
+        DiscountRuleTable table = current.get().table;
+        long[] discounts = new long[prices.length];
+        for (int i = 0; i < prices.length; i++) {
+            discounts[i] = table.discount(member.getGrade(), itemNames[i], prices[i]);
+        }
+        return discounts;
+    }
+
+    /*
+    * 파일을 다시 읽어서 규칙을 교체한다. 성공하면 true.
+    * 주기 확인 스레드와 직접 호출이 겹쳐도 버전이 꼬이지 않도록 한 번에 하나만 실행한다.
+    * */
+    public synchronized boolean reload() {
+        long start = System.nanoTime();
+        try {
+            FileStamp stamp = FileStamp.of(file);
+            lastAttempted = stamp;
+            DiscountRuleTable table = DiscountRuleTable.compile(DiscountRuleParser.parse(file));
+            LoadedRules previous = current.get();
+            long version = previous == null ? 1 : previous.version + 1;
+            current.set(new LoadedRules(table, version));
+            reloadCount.increment();
+            lastFailureMessage = null;
+            return true;
+        } catch (RuntimeException | IOException e) {
+            reloadFailureCount.increment();
+            lastFailureMessage = e.getMessage();
+            log.warn("할인 규칙을 다시 읽지 못해서 기존 규칙을 계속 사용합니다. file = {}, cause = {}", file, e.getMessage());
+            return false;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            lastReloadNanos = elapsed;
+            if (elapsed > maxReloadNanos) {
+                maxReloadNanos = elapsed;
+            }
+        }
+    }
+
+    void reloadIfChanged() {
+        try {
+            if (!FileStamp.of(file).equals(lastAttempted)) {
+                reload();
+            }
+        } catch (IOException | RuntimeException e) {
+            // 파일을 교체하는 도중이면 잠시 없을 수 있다. 다음 주기에 다시 확인한다.
+            lastFailureMessage = e.getMessage();
+        }
+    }
+
+    // 현재 적용 중인 규칙표
+    public DiscountRuleTable getRuleTable() {
+        return current.get().table;
+    }
+
+    // 규칙이 교체될 때마다 1씩 증가한다. (처음 읽은 규칙이 1)
+    public long getVersion() {
+        return current.get().version;
+    }
+
+    public int getRuleCount() {
+        return current.get().table.ruleCount();
+    }
+
+    public long getReloadCount() {
+        return reloadCount.sum();
+    }
+
+    public long getReloadFailureCount() {
+        return reloadFailureCount.sum();
+    }
+
+    // 마지막 reload(읽기 + 파싱 + 컴파일)에 걸린 시간
+    public long getLastReloadNanos() {
+        return lastReloadNanos;
+    }
+
+    public long getMaxReloadNanos() {
+        return maxReloadNanos;
+    }
+
+    public String getLastFailureMessage() {
+        return lastFailureMessage;
+    }
+
+    private static final class LoadedRules {
+        private final DiscountRuleTable table;
+        private final long version;
+
+        private LoadedRules(DiscountRuleTable table, long version) {
+            this.table = table;
+            this.version = version;
+        }
+    }
+
+    // 파일 변경 확인용 (수정 시각 + 크기)
+    private static final class FileStamp {
+        private final long lastModifiedMillis;
+        private final long size;
+
+        private FileStamp(long lastModifiedMillis, long size) {
+            this.lastModifiedMillis = lastModifiedMillis;
+            this.size = size;
+        }
+
+        static FileStamp of(Path file) throws IOException {
+            return new FileStamp(Files.getLastModifiedTime(file).toMillis(), Files.size(file));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof FileStamp)) {
+                return false;
+            }
+            FileStamp other = (FileStamp) o;
+            return lastModifiedMillis == other.lastModifiedMillis && size == other.size;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(lastModifiedMillis) * 31 + Long.hashCode(size);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package hello.core.discount;
+
+import hello.core.member.Grade;
+import hello.core.member.Member;
+
+import java.util.List;
+
+/*
+* [ 규칙 기반 할인 정책 ]
+* FixDiscountPolicy / RateDiscountPolicy 처럼 조건과 금액을 코드에 박아두지 않고, DiscountRule 목록으로 할인을 정한다.
+* 규칙은 생성 시점에 DiscountRuleTable 로 한 번만 컴파일되므로, 규칙이 수백 개여도 discount() 는 규칙 수와 무관하게
+* 등급 배열 조회 + 가격 구간 이진 탐색만 한다.
+*
+* ex) 기존 RateDiscountPolicy 와 같은 정책
+*   new RuleDiscountPolicy(List.of(DiscountRule.rate(Grade.VIP, 10)))
+* */
+public class RuleDiscountPolicy implements DiscountPolicy {
+
+    private final DiscountRuleTable table;
+
+    public RuleDiscountPolicy(List<DiscountRule> rules) {
+        this(DiscountRuleTable.compile(rules));
+    }
+
+    public RuleDiscountPolicy(DiscountRuleTable table) {
+        this.table = table;
+    }
+
+    @Override
+    public long discount(Member member, long price) {
+        return table.discount(member.getGrade(), null, price);
+    }
+
+    @Override
+    public long discount(Member member, String itemName, long price) {
+        return table.discount(member.getGrade(), itemName, price);
+    }
+
+    @Override
+    public long[] discount(Member member, long[] prices) {
+        return table.discount(member.getGrade(), null, prices);
+    }
+
+    @Override
+    public long[] discount(Member member, String[] itemNames, long[] prices) {
+        Grade grade = member.getGrade();
+        long[] discounts = new long[prices.length];
+        for (int i = 0; i < prices.length; i++) {
+            discounts[i] = table.discount(grade, itemNames[i], prices[i]);
+        }
+        return discounts;
+    }
+
+    public DiscountRuleTable getTable() {
+        return table;
+    }
+}
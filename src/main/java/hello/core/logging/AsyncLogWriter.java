@@ -0,0 +1,179 @@
+package hello.core.logging;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+* [ 비동기 로그 writer ]
+* System.out.println 은 내부 락을 잡고 바로 출력하므로, 요청이 몰리면 모든 톰캣 워커 스레드가 stdout 락에서 줄을 선다.
+* 이 writer 는
+*  - 요청 스레드: 고정 크기 링 버퍼(ArrayBlockingQueue)에 로그 조각만 넣고 바로 돌아간다.
+*  - writer 스레드: 버퍼에 쌓인 로그를 한 번에 꺼내서(drainTo) 하나의 문자열로 만든 뒤 한 번만 출력/flush 한다.
+*
+* 버퍼가 가득 찼을 때는 logger.async.overflow-policy 로 처리 방식을 고른다. (DROP: 버림, BLOCK: 자리가 날 때까지 대기)
+*  - logger.async.capacity   : 버퍼 크기 (기본 8192)
+*  - logger.async.batch-size : 한 번에 꺼내서 출력하는 최대 로그 수 (기본 256)
+*
+* 컨테이너가 종료되면(@PreDestroy) 남은 로그를 모두 출력하고 writer 스레드를 멈춘다. 이후의 로그는 바로 출력한다.
+* 종료와 겹쳐서(또는 BLOCK 으로 기다리다가) close 가 버퍼를 비운 뒤에 들어간 로그는, 넣은 스레드가 직접 버퍼를 비워서 출력한다.
+* 출력 중 예외(RuntimeException)가 나면 그 묶음은 버린 것으로 세고 writer 스레드는 계속 돈다. (멈추면 BLOCK 생산자가 영원히 기다린다)
+* */
+@Component
+public class AsyncLogWriter {
+
+    private final ArrayBlockingQueue<LogRecord> buffer;
+    private final OverflowPolicy overflowPolicy;
+    private final int batchSize;
+    private final PrintStream out;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    @Autowired
+    public AsyncLogWriter(@Value("${logger.async.capacity:8192}") int capacity,
+                          @Value("${logger.async.overflow-policy:DROP}") OverflowPolicy overflowPolicy,
+                          @Value("${logger.async.batch-size:256}") int batchSize) {
+        this(capacity, overflowPolicy, batchSize, System.out);
+    }
+
+    public AsyncLogWriter(int capacity, OverflowPolicy overflowPolicy, int batchSize, PrintStream out) {
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.batchSize = batchSize;
+        this.out = out;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writerThread = new Thread(this::drainLoop, "async-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    public void write(String prefix, String message) {
+        write(prefix, message, null);
+    }
+
+    // argument 는 writer 스레드에서 toString() 된다.
+    public void write(String prefix, String message, Object argument) {
+        LogRecord record = new LogRecord(prefix, message, argument);
+        if (!running) {
+            writeNow(record);
+            return;
+        }
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            try {
+                buffer.put(record);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                dropped.increment();
+                return;
+            }
+        } else if (!buffer.offer(record)) {
+            dropped.increment();
+            return;
+        }
+        enqueued.increment();
+        // 넣는 사이에 close() 가 writer 를 멈추고 버퍼를 비웠을 수 있으므로 직접 출력한다.
+        if (!running) {
+            drainNow();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        running = false;
+        if (writerThread == null) {
+            return;
+        }
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 종료 직전에 들어온 로그가 남아 있으면 직접 출력한다.
+        drainNow();
+    }
+
+    // 버퍼에 들어간 누적 로그 수
+    public long getEnqueuedCount() {
+        return enqueued.sum();
+    }
+
+    // 버퍼가 가득 차서 버려진 누적 로그 수
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    // 출력까지 끝난 누적 로그 수
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    // 지금 버퍼에서 출력을 기다리는 로그 수
+    public int getQueuedCount() {
+        return buffer.size();
+    }
+
+    private void drainLoop() {
+        List<LogRecord> batch = new ArrayList<>(batchSize);
+        StringBuilder builder = new StringBuilder(1024);
+        while (running || !buffer.isEmpty()) {
+            try {
+                LogRecord first = buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, batchSize - 1);
+                for (LogRecord record : batch) {
+                    record.appendTo(builder);
+                }
+                out.print(builder);
+                out.flush();
+                written.add(batch.size());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // argument.toString() 이나 출력 스트림에서 난 예외. 이 묶음만 버리고 다음 로그를 계속 출력한다.
+                dropped.add(batch.size());
+            } finally {
+                batch.clear();
+                builder.setLength(0);
+            }
+        }
+    }
+
+    private void drainNow() {
+        LogRecord record;
+        while ((record = buffer.poll()) != null) {
+            writeNow(record);
+        }
+    }
+
+    private void writeNow(LogRecord record) {
+        StringBuilder builder = new StringBuilder();
+        record.appendTo(builder);
+        synchronized (out) {
+            out.print(builder);
+            out.flush();
+        }
+        written.increment();
+    }
+}
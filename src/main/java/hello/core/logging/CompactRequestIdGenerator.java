@@ -0,0 +1,54 @@
+package hello.core.logging;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+* [ 시간 + 카운터 기반 요청 id ]
+* 64bit 값 = (EPOCH 이후 경과 ms) << 22 | 같은 ms 안의 순번(22bit, ms 당 약 400만개)
+*  - SecureRandom 을 쓰지 않으므로 엔트로피를 기다리지 않고, CAS 한 번으로 만들어진다.
+*  - 값이 항상 증가(monotonic)하므로 한 프로세스 안에서는 중복이 없다. 같은 ms 에 순번을 다 쓰면 다음 ms 값으로 넘어간다.
+*  - 고정 길이 13자 base32 (0-9, a-v) 로 인코딩하므로 문자열 정렬 순서가 생성 순서와 같다.
+*
+* 여러 서버의 로그를 합쳐서 봐야 한다면 서버 구분값을 함께 남기거나 UuidRequestIdGenerator 를 사용하자.
+* */
+@Component
+@ConditionalOnProperty(name = "logger.request-id", havingValue = "compact", matchIfMissing = true)
+public class CompactRequestIdGenerator implements RequestIdGenerator {
+
+    // 2021-01-01T00:00:00Z, 41bit ms 로 약 69년(2090년까지) 표현 가능
+    static final long EPOCH = 1609459200000L;
+    static final int SEQUENCE_BITS = 22;
+    static final int ENCODED_LENGTH = 13;
+
+    private static final char[] DIGITS = "0123456789abcdefghijklmnopqrstuv".toCharArray();
+
+    private final AtomicLong last = new AtomicLong();
+
+    @Override
+    public String nextId() {
+        return encode(nextValue());
+    }
+
+    long nextValue() {
+        long timeBase = (System.currentTimeMillis() - EPOCH) << SEQUENCE_BITS;
+        while (true) {
+            long previous = last.get();
+            long next = Math.max(previous + 1, timeBase);
+            if (last.compareAndSet(previous, next)) {
+                return next;
+            }
+        }
+    }
+
+    static String encode(long value) {
+        char[] chars = new char[ENCODED_LENGTH];
+        for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+            chars[i] = DIGITS[(int) (value & 31)];
+            value >>>= 5;
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,27 @@
+package hello.core.logging;
+
+/*
+* 버퍼에 쌓이는 로그 한 건.
+* 요청 스레드에서는 문자열을 이어 붙이지 않고 조각(prefix, message, argument)만 담아두고,
+* 실제 문자열 조립은 백그라운드 writer 스레드가 한다.
+* */
+final class LogRecord {
+
+    final String prefix;
+    final String message;
+    final Object argument;
+
+    LogRecord(String prefix, String message, Object argument) {
+        this.prefix = prefix;
+        this.message = message;
+        this.argument = argument;
+    }
+
+    void appendTo(StringBuilder builder) {
+        builder.append(prefix).append(message);
+        if (argument != null) {
+            builder.append(argument);
+        }
+        builder.append(System.lineSeparator());
+    }
+}
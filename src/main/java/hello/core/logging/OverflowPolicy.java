@@ -0,0 +1,9 @@
+package hello.core.logging;
+
+// 로그 버퍼가 가득 찼을 때의 처리 방식
+public enum OverflowPolicy {
+    // 버리고 dropped 카운터만 올린다. 요청 스레드는 기다리지 않는다.
+    DROP,
+    // 버퍼에 자리가 날 때까지 요청 스레드가 기다린다. 로그는 유실되지 않는다.
+    BLOCK
+}
@@ -0,0 +1,11 @@
+package hello.core.logging;
+
+/*
+* MyLogger 가 HTTP 요청마다 붙이는 요청 구분 id 생성기.
+* logger.request-id 속성으로 구현체를 고른다.
+*  - compact (기본값) : CompactRequestIdGenerator, 시간 + 카운터 기반 64bit 값을 13자로 인코딩
+*  - uuid             : UuidRequestIdGenerator, 기존과 같은 UUID.randomUUID() 36자 형식
+* */
+public interface RequestIdGenerator {
+    String nextId();
+}
@@ -0,0 +1,17 @@
+package hello.core.logging;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+// UUID.randomUUID() 는 내부적으로 SecureRandom 을 사용하므로 요청이 많으면 비용이 크고, 컨테이너 환경에서는 엔트로피를 기다리며 멈출 수도 있다.
+@Component
+@ConditionalOnProperty(name = "logger.request-id", havingValue = "uuid")
+public class UuidRequestIdGenerator implements RequestIdGenerator {
+
+    @Override
+    public String nextId() {
+        return UUID.randomUUID().toString();
+    }
+}
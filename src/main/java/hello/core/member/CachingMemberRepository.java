@@ -0,0 +1,334 @@
+package hello.core.member;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/*
+* [ 회원 조회 캐시 (near cache) ]
+* 원격 저장소처럼 느린 MemberRepository 를 감싸서 findById 결과를 메모리에 기억해 둔다.
+* OrderServiceImpl.createOrder 는 주문마다 findById 를 부르므로, 같은 회원의 반복 주문은 저장소까지 가지 않는다.
+*
+*  - read-through : 캐시에 없으면 저장소에서 읽어서 캐시에 넣는다.
+*  - write-through: save 는 저장소에 먼저 쓰고 캐시도 새 값으로 바꾼다. 이 캐시를 거친 쓰기는 바로 보인다.
+*  - 크기 제한    : segment 마다 접근 순서 LinkedHashMap(LRU), 전체 maximumSize 를 넘으면 가장 오래 쓰지 않은 항목부터 뺀다.
+*  - 시간 제한    : 항목마다 만료 시각을 두고, 조회할 때 만료되었으면 버리고 다시 읽는다. (다른 서버가 바꾼 값도 ttl 안에 반영된다)
+*  - 없는 id      : 저장소에 없는 id 도 "없음" 으로 기억한다. (negative cache, 보통 ttl 보다 짧게) 없는 id 로 반복 조회해도 저장소까지 가지 않는다.
+* 적중/실패/크기 제한 제거/만료 횟수는 LongAdder 로 센다.
+*
+* [ 읽기/쓰기 경합 ]
+* 캐시에 없는 회원을 저장소에서 읽는 동안 다른 스레드가 같은 회원을 save 하면, 읽은 값은 이미 옛날 값이다.
+* 그래서 segment 는 id 별 쓰기 번호(write token)를 둔다. save/invalidate 는 번호를 올리고, read-through 는 저장소를 읽기 전에
+* 번호를 기억했다가 번호가 그대로일 때만 캐시에 넣는다. 그 사이 쓰기가 있었으면 읽은 값을 돌려주기만 하고 캐시에는 넣지 않는다.
+* (번호는 segment 안에서 id 해시로 나눈 칸마다 두므로, 같은 칸의 다른 id 쓰기도 채우기를 건너뛰게 할 수 있다. 정확성에는 영향이 없다)
+* 같은 id 가 동시에 캐시에 없으면 각 스레드가 저장소를 한 번씩 읽을 수 있다.
+* 이름/등급 조회는 캐시하지 않고 저장소에 그대로 넘긴다.
+* 빈으로 쓰려면 member.cache.enabled=true (MemberRepositoryCachingPostProcessor 참고)
+* */
+public class CachingMemberRepository implements MemberRepository {
+
+    private static final int DEFAULT_SEGMENTS = 16;
+    private static final int WRITE_TOKEN_STRIPES = 64;
+
+    private final MemberRepository delegate;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final LongSupplier nanoClock;
+    private final Segment[] segments;
+    private final int segmentMask;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder expirationCount = new LongAdder();
+
+    public CachingMemberRepository(MemberRepository delegate, int maximumSize, long ttlMillis, long negativeTtlMillis) {
+        this(delegate, maximumSize, ttlMillis, negativeTtlMillis, System::nanoTime);
+    }
+
+    // nanoClock: 현재 시각(ns), 테스트에서 시간을 직접 움직일 때 사용한다.
+    public CachingMemberRepository(MemberRepository delegate, int maximumSize, long ttlMillis, long negativeTtlMillis,
+                                   LongSupplier nanoClock) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("캐시 크기는 0보다 커야 합니다. maximumSize = " + maximumSize);
+        }
+        if (ttlMillis <= 0 || negativeTtlMillis < 0) {
+            throw new IllegalArgumentException("ttl 은 0보다 커야 하고 negative ttl 은 0 이상이어야 합니다. ttlMillis = "
+                    + ttlMillis + ", negativeTtlMillis = " + negativeTtlMillis);
+        }
+        this.delegate = delegate;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(negativeTtlMillis);
+        this.nanoClock = nanoClock;
+        int segmentCount = Integer.highestOneBit(Math.min(DEFAULT_SEGMENTS, maximumSize));
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(maximumSize / segmentCount);
+        }
+        this.segmentMask = segmentCount - 1;
+    }
+
+    @Override
+    public void save(Member member) {
+        delegate.save(member);
+        cacheWritten(member);
+    }
+
+    @Override
+    public void saveAll(Collection<Member> members) {
+        delegate.saveAll(members);
+        for (Member member : members) {
+            cacheWritten(member);
+        }
+    }
+
+    @Override
+    public Member findById(Long id) {
+        return id == null ? null : findById(id.longValue());
+    }
+
+    @Override
+    public Member findById(long id) {
+        CachedMember cached = lookup(id);
+        if (cached != null) {
+            return cached.member;
+        }
+        long token = segmentFor(id).writeToken(id);
+        Member member = delegate.findById(id);
+        cacheLoaded(id, member, token);
+        return member;
+    }
+
+    // 캐시에 없는 id 만 모아서 저장소의 일괄 조회를 한 번 부른다.
+    @Override
+    public Member[] findAllById(long[] ids) {
+        Member[] members = new Member[ids.length];
+        int[] missing = new int[ids.length];
+        int missingCount = 0;
+        for (int i = 0; i < ids.length; i++) {
+            CachedMember cached = lookup(ids[i]);
+            if (cached != null) {
+                members[i] = cached.member;
+            } else {
+                missing[missingCount++] = i;
+            }
+        }
+        if (missingCount == 0) {
+            return members;
+        }
+        long[] missingIds = new long[missingCount];
+        long[] tokens = new long[missingCount];
+        for (int i = 0; i < missingCount; i++) {
+            missingIds[i] = ids[missing[i]];
+            tokens[i] = segmentFor(missingIds[i]).writeToken(missingIds[i]);
+        }
+        Member[] loaded = delegate.findAllById(missingIds);
+        for (int i = 0; i < missingCount; i++) {
+            members[missing[i]] = loaded[i];
+            cacheLoaded(missingIds[i], loaded[i], tokens[i]);
+        }
+        return members;
+    }
+
+    @Override
+    public List<Member> findAllById(Collection<Long> ids) {
+        List<Member> members = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            members.add(findById(id));
+        }
+        return members;
+    }
+
+    // 목록 조회는 캐시를 거치지 않는다.
+    @Override
+    public List<Member> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<Member> findByName(String name, int offset, int limit) {
+        return delegate.findByName(name, offset, limit);
+    }
+
+    @Override
+    public List<Member> findByNamePrefix(String prefix, int offset, int limit) {
+        return delegate.findByNamePrefix(prefix, offset, limit);
+    }
+
+    @Override
+    public int countByGrade(Grade grade) {
+        return delegate.countByGrade(grade);
+    }
+
+    @Override
+    public Stream<Member> streamByGrade(Grade grade) {
+        return delegate.streamByGrade(grade);
+    }
+
+    // 저장소를 이 캐시를 거치지 않고 바꾼 경우 해당 id 를 비운다.
+    public void invalidate(long id) {
+        segmentFor(id).remove(id);
+    }
+
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public MemberRepository getDelegate() {
+        return delegate;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    // 크기 제한으로 밀려난 항목 수
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    // ttl 이 지나서 버린 항목 수
+    public long getExpirationCount() {
+        return expirationCount.sum();
+    }
+
+    public double getHitRate() {
+        long hits = hitCount.sum();
+        long total = hits + missCount.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    // 만료되지 않은 항목 (member 가 null 이면 "없음" 항목), 없으면 null
+    private CachedMember lookup(long id) {
+        Segment segment = segmentFor(id);
+        CachedMember cached = segment.get(id);
+        if (cached != null && cached.expiresAt - nanoClock.getAsLong() > 0) {
+            hitCount.increment();
+            return cached;
+        }
+        if (cached != null) {
+            segment.remove(id, cached);
+            expirationCount.increment();
+        }
+        missCount.increment();
+        return null;
+    }
+
+    // save 한 값은 항상 캐시에 넣고 쓰기 번호를 올린다.
+    private void cacheWritten(Member member) {
+        Long id = member.getId();
+        if (id == null) {
+            return;
+        }
+        segmentFor(id).putWritten(id, new CachedMember(member, nanoClock.getAsLong() + ttlNanos));
+    }
+
+    // 저장소에서 읽은 값은 읽기 전에 본 쓰기 번호(token)가 그대로일 때만 넣는다.
+    private void cacheLoaded(long id, Member member, long token) {
+        long ttl = member == null ? negativeTtlNanos : ttlNanos;
+        if (ttl == 0) {
+            return;
+        }
+        segmentFor(id).putLoaded(id, new CachedMember(member, nanoClock.getAsLong() + ttl), token);
+    }
+
+    private Segment segmentFor(long id) {
+        int hash = Long.hashCode(id);
+        return segments[(hash ^ (hash >>> 16)) & segmentMask];
+    }
+
+    private static final class CachedMember {
+        final Member member;
+        final long expiresAt;
+
+        CachedMember(Member member, long expiresAt) {
+            this.member = member;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final class Segment {
+        private final LinkedHashMap<Long, CachedMember> map;
+        // id 해시로 나눈 칸마다의 쓰기 번호. save/invalidate 마다 올라간다.
+        private final long[] writeTokens = new long[WRITE_TOKEN_STRIPES];
+
+        Segment(int capacity) {
+            // accessOrder = true: 조회할 때마다 맨 뒤로 옮겨서, 가장 오래 쓰이지 않은 항목이 맨 앞에 온다.
+            this.map = new LinkedHashMap<Long, CachedMember>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, CachedMember> eldest) {
+                    if (size() > capacity) {
+                        evictionCount.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        synchronized CachedMember get(long id) {
+            return map.get(id);
+        }
+
+        synchronized long writeToken(long id) {
+            return writeTokens[stripe(id)];
+        }
+
+        synchronized void putWritten(long id, CachedMember cached) {
+            writeTokens[stripe(id)]++;
+            map.put(id, cached);
+        }
+
+        synchronized void putLoaded(long id, CachedMember cached, long token) {
+            if (writeTokens[stripe(id)] == token) {
+                map.put(id, cached);
+            }
+        }
+
+        synchronized void remove(long id) {
+            writeTokens[stripe(id)]++;
+            map.remove(id);
+        }
+
+        // 그 사이 다른 스레드가 새 값을 넣었으면 지우지 않는다.
+        synchronized void remove(long id, CachedMember cached) {
+            map.remove(id, cached);
+        }
+
+        synchronized void clear() {
+            for (int i = 0; i < writeTokens.length; i++) {
+                writeTokens[i]++;
+            }
+            map.clear();
+        }
+
+        private int stripe(long id) {
+            // segment 를 고를 때 쓴 하위 비트와 겹치지 않도록 곱셈 해시의 상위 비트를 쓴다.
+            return (int) ((id * 0x9E3779B97F4A7C15L) >>> (Long.SIZE - Integer.numberOfTrailingZeros(WRITE_TOKEN_STRIPES)));
+        }
+
+        synchronized int size() {
+            return map.size();
+        }
+    }
+}
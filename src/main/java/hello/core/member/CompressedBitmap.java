@@ -0,0 +1,486 @@
+package hello.core.member;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/*
+* [ 압축 비트맵 (0 이상의 int 집합) ]
+* 값의 상위 16 bit 로 65536 개 단위 칸(container)을 나누고, 칸마다 값이 몇 개 들어 있는지에 따라 저장 방식을 고른다. (Roaring bitmap 방식)
+*  - ArrayContainer  : 값이 4096 개 이하이면 하위 16 bit 를 정렬된 char[] 로 저장한다. 값 1개당 2 byte.
+*  - BitmapContainer : 그보다 많으면 long[1024] (65536 bit, 8KB) 비트맵으로 저장한다. 값 1개당 1 bit.
+* 값이 드문 구간은 배열로, 빽빽한 구간은 비트맵으로 저장되므로 어느 경우든 int[] 나 boolean[] 보다 작다.
+* 4096 개가 기준인 이유: 배열이 4096 * 2 byte = 8KB 를 넘으면 비트맵보다 커진다.
+*
+* 칸은 상위 16 bit 값을 그대로 배열 index 로 쓴다. 회원 순번(ordinal)처럼 0부터 촘촘하게 매긴 값을 넣는 용도이기 때문이다.
+* and/or 는 칸끼리 연산해서 새 비트맵을 만든다. (비트맵 칸끼리는 long 단위로 한 번에 64개씩 계산한다)
+* iterator/stream 은 결과를 리스트로 만들지 않고 값을 하나씩 꺼낸다.
+*
+* 스레드 안전하지 않다. 여러 스레드가 함께 쓰려면 MemberGradeIndex 처럼 바깥에서 잠그고 copy 를 넘겨준다.
+* */
+public class CompressedBitmap {
+
+    static final int ARRAY_MAX = 4096;
+
+    private Container[] containers;
+    private int cardinality;
+
+    public CompressedBitmap() {
+        this.containers = new Container[1];
+    }
+
+    private CompressedBitmap(Container[] containers) {
+        this.containers = containers;
+        for (Container container : containers) {
+            if (container != null) {
+                cardinality += container.cardinality();
+            }
+        }
+    }
+
+    public static CompressedBitmap of(int... values) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    // 새로 추가되었으면 true
+    public boolean add(int value) {
+        checkValue(value);
+        int high = value >>> 16;
+        if (high >= containers.length) {
+            containers = Arrays.copyOf(containers, Math.max(high + 1, containers.length * 2));
+        }
+        Container container = containers[high];
+        char low = (char) value;
+        if (container == null) {
+            containers[high] = new ArrayContainer().add(low);
+        } else if (container.contains(low)) {
+            return false;
+        } else {
+            containers[high] = container.add(low);
+        }
+        cardinality++;
+        return true;
+    }
+
+    // 들어 있었으면 true
+    public boolean remove(int value) {
+        if (!contains(value)) {
+            return false;
+        }
+        int high = value >>> 16;
+        containers[high] = containers[high].remove((char) value);
+        cardinality--;
+        return true;
+    }
+
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int high = value >>> 16;
+        return high < containers.length && containers[high] != null && containers[high].contains((char) value);
+    }
+
+    public int cardinality() {
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    // 교집합 (새 비트맵)
+    public CompressedBitmap and(CompressedBitmap other) {
+        Container[] result = new Container[Math.min(containers.length, other.containers.length)];
+        for (int high = 0; high < result.length; high++) {
+            if (containers[high] != null && other.containers[high] != null) {
+                result[high] = containers[high].and(other.containers[high]);
+            }
+        }
+        return new CompressedBitmap(result);
+    }
+
+    // 합집합 (새 비트맵)
+    public CompressedBitmap or(CompressedBitmap other) {
+        Container[] result = new Container[Math.max(containers.length, other.containers.length)];
+        for (int high = 0; high < result.length; high++) {
+            Container left = high < containers.length ? containers[high] : null;
+            Container right = high < other.containers.length ? other.containers[high] : null;
+            if (left != null && right != null) {
+                result[high] = left.or(right);
+            } else if (left != null) {
+                result[high] = left.copy();
+            } else if (right != null) {
+                result[high] = right.copy();
+            }
+        }
+        return new CompressedBitmap(result);
+    }
+
+    public CompressedBitmap copy() {
+        Container[] copied = new Container[containers.length];
+        for (int high = 0; high < containers.length; high++) {
+            if (containers[high] != null) {
+                copied[high] = containers[high].copy();
+            }
+        }
+        return new CompressedBitmap(copied);
+    }
+
+    // 오름차순
+    public PrimitiveIterator.OfInt iterator() {
+        return new BitmapIterator();
+    }
+
+    public IntStream stream() {
+        Spliterator.OfInt spliterator = Spliterators.spliterator(iterator(), cardinality,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.SIZED);
+        return StreamSupport.intStream(spliterator, false);
+    }
+
+    // 칸들이 차지하는 대략적인 메모리 크기
+    public long sizeInBytes() {
+        long bytes = containers.length * 4L;
+        for (Container container : containers) {
+            if (container != null) {
+                bytes += container.sizeInBytes();
+            }
+        }
+        return bytes;
+    }
+
+    private static void checkValue(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("비트맵에는 0 이상의 값만 넣을 수 있습니다. value = " + value);
+        }
+    }
+
+    private final class BitmapIterator implements PrimitiveIterator.OfInt {
+        private int high = -1;
+        private PrimitiveIterator.OfInt current;
+
+        @Override
+        public boolean hasNext() {
+            while (current == null || !current.hasNext()) {
+                high++;
+                if (high >= containers.length) {
+                    return false;
+                }
+                current = containers[high] == null ? null : containers[high].iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return (high << 16) | current.nextInt();
+        }
+    }
+
+    private abstract static class Container {
+        abstract int cardinality();
+
+        abstract boolean contains(char value);
+
+        // 없는 값만 넣는다. 크기에 따라 다른 종류의 칸을 돌려줄 수 있다.
+        abstract Container add(char value);
+
+        // 있는 값만 뺀다. 비면 null 을 돌려준다.
+        abstract Container remove(char value);
+
+        // 결과가 비면 null
+        abstract Container and(Container other);
+
+        abstract Container or(Container other);
+
+        abstract Container copy();
+
+        abstract PrimitiveIterator.OfInt iterator();
+
+        abstract long sizeInBytes();
+    }
+
+    private static final class ArrayContainer extends Container {
+        private char[] values;
+        private int size;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        int cardinality() {
+            return size;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+
+        @Override
+        Container add(char value) {
+            if (size == ARRAY_MAX) {
+                return toBitmap().add(value);
+            }
+            int position = -Arrays.binarySearch(values, 0, size, value) - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, values.length * 2));
+            }
+            System.arraycopy(values, position, values, position + 1, size - position);
+            values[position] = value;
+            size++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int position = Arrays.binarySearch(values, 0, size, value);
+            System.arraycopy(values, position + 1, values, position, size - position - 1);
+            size--;
+            return size == 0 ? null : this;
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] result = new char[Math.min(size, other.cardinality())];
+            int count = 0;
+            if (other instanceof ArrayContainer) {
+                ArrayContainer array = (ArrayContainer) other;
+                int i = 0;
+                int j = 0;
+                while (i < size && j < array.size) {
+                    if (values[i] < array.values[j]) {
+                        i++;
+                    } else if (values[i] > array.values[j]) {
+                        j++;
+                    } else {
+                        result[count++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < size; i++) {
+                    if (other.contains(values[i])) {
+                        result[count++] = values[i];
+                    }
+                }
+            }
+            return count == 0 ? null : new ArrayContainer(result, count);
+        }
+
+        @Override
+        Container or(Container other) {
+            if (other instanceof BitmapContainer) {
+                return other.or(this);
+            }
+            ArrayContainer array = (ArrayContainer) other;
+            char[] merged = new char[size + array.size];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < size || j < array.size) {
+                if (j == array.size || (i < size && values[i] < array.values[j])) {
+                    merged[count++] = values[i++];
+                } else if (i == size || values[i] > array.values[j]) {
+                    merged[count++] = array.values[j++];
+                } else {
+                    merged[count++] = values[i];
+                    i++;
+                    j++;
+                }
+            }
+            ArrayContainer result = new ArrayContainer(merged, count);
+            return count > ARRAY_MAX ? result.toBitmap() : result;
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(size, 1)), size);
+        }
+
+        @Override
+        PrimitiveIterator.OfInt iterator() {
+            return new PrimitiveIterator.OfInt() {
+                private int index;
+
+                @Override
+                public boolean hasNext() {
+                    return index < size;
+                }
+
+                @Override
+                public int nextInt() {
+                    if (index >= size) {
+                        throw new NoSuchElementException();
+                    }
+                    return values[index++];
+                }
+            };
+        }
+
+        @Override
+        long sizeInBytes() {
+            return 16 + values.length * 2L;
+        }
+
+        BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < size; i++) {
+                bitmap.set(values[i]);
+            }
+            return bitmap;
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer() {
+            this(new long[1024], 0);
+        }
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        void set(char value) {
+            words[value >>> 6] |= 1L << value;
+            cardinality++;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        Container add(char value) {
+            set(value);
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            words[value >>> 6] &= ~(1L << value);
+            cardinality--;
+            return cardinality <= ARRAY_MAX ? toArray() : this;
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            long[] result = new long[words.length];
+            int count = 0;
+            for (int i = 0; i < words.length; i++) {
+                result[i] = words[i] & otherWords[i];
+                count += Long.bitCount(result[i]);
+            }
+            if (count == 0) {
+                return null;
+            }
+            BitmapContainer bitmap = new BitmapContainer(result, count);
+            return count <= ARRAY_MAX ? bitmap.toArray() : bitmap;
+        }
+
+        @Override
+        Container or(Container other) {
+            long[] result = words.clone();
+            if (other instanceof ArrayContainer) {
+                BitmapContainer bitmap = new BitmapContainer(result, cardinality);
+                PrimitiveIterator.OfInt values = other.iterator();
+                while (values.hasNext()) {
+                    char value = (char) values.nextInt();
+                    if (!bitmap.contains(value)) {
+                        bitmap.set(value);
+                    }
+                }
+                return bitmap;
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            int count = 0;
+            for (int i = 0; i < result.length; i++) {
+                result[i] |= otherWords[i];
+                count += Long.bitCount(result[i]);
+            }
+            return new BitmapContainer(result, count);
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        PrimitiveIterator.OfInt iterator() {
+            return new PrimitiveIterator.OfInt() {
+                private int index;
+                private long word = words[0];
+
+                @Override
+                public boolean hasNext() {
+                    while (word == 0) {
+                        if (++index >= words.length) {
+                            return false;
+                        }
+                        word = words[index];
+                    }
+                    return true;
+                }
+
+                @Override
+                public int nextInt() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    int value = (index << 6) + Long.numberOfTrailingZeros(word);
+                    // 가장 낮은 1 bit 를 지운다.
+                    word &= word - 1;
+                    return value;
+                }
+            };
+        }
+
+        @Override
+        long sizeInBytes() {
+            return 16 + words.length * 8L;
+        }
+
+        ArrayContainer toArray() {
+            char[] values = new char[Math.max(cardinality, 1)];
+            int size = 0;
+            PrimitiveIterator.OfInt iterator = iterator();
+            while (iterator.hasNext()) {
+                values[size++] = (char) iterator.nextInt();
+            }
+            return new ArrayContainer(values, size);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package hello.core.member;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+* [ 멀티스레드 환경용 회원 저장소 ]
+* 내장 톰캣은 기본 200개의 워커 스레드로 요청을 처리하므로 join/findMember 가 동시에 호출된다.
+* ConcurrentHashMap 은
+*  - 쓰기: 빈 버킷에는 CAS 로 락 없이 넣고, 충돌이 나면 해당 버킷(bin)만 잠근다. (버킷 단위 lock striping)
+*  - 읽기: volatile 읽기만 하므로 어떤 락도 잡지 않는다. 쓰기가 진행 중이어도 읽기는 기다리지 않는다.
+*  - resize 도 여러 스레드가 나누어 처리하므로 HashMap 처럼 조회가 꼬이는 일이 없다.
+*
+* MemoryMemberRepository 와 달리 저장소를 static 으로 두지 않는다. 스프링 컨테이너가 싱글톤으로 관리하므로 인스턴스 필드로 충분하다.
+*
+* 이름 조회를 위한 MemberNameIndex 는 읽기에 락을 잡지 않고, 쓰기도 회원(id)/이름 단위로만 잠그므로 동시 저장/조회 성능을 해치지 않는다.
+*
+* application.properties 에 member.repository=concurrent 를 지정하면 이 구현체가 빈으로 등록된다.
+* */
+@Component
+@ConditionalOnProperty(name = "member.repository", havingValue = "concurrent")
+public class ConcurrentMemberRepository implements MemberRepository {
+
+    private final ConcurrentHashMap<Long, Member> store;
+    private final MemberNameIndex nameIndex = new MemberNameIndex();
+
+    public ConcurrentMemberRepository() {
+        this(16);
+    }
+
+    // 예상 회원 수를 알면 미리 크기를 잡아 resize 비용을 줄일 수 있다.
+    public ConcurrentMemberRepository(int expectedSize) {
+        this.store = new ConcurrentHashMap<>(expectedSize);
+    }
+
+    @Override
+    public void save(Member member) {
+        store.put(member.getId(), member);
+        // 인덱스는 저장소 버킷을 잡지 않고 갱신한다. 같은 id 를 동시에 저장해도, 저장소에 마지막으로 남은 회원만 색인되도록
+        // 인덱스가 그 id 를 잠근 상태에서 저장소에 아직 이 객체가 있는지 확인한다.
+        nameIndex.put(member, saved -> store.get(saved.getId()) == saved);
+    }
+
+    @Override
+    public Member findById(Long id) {
+        // ConcurrentHashMap 은 null 키를 허용하지 않으므로 MemoryMemberRepository 와 같이 null 을 돌려준다.
+        return id == null ? null : store.get(id);
+    }
+
+    @Override
+    public List<Member> findAll() {
+        return new ArrayList<>(store.values());
+    }
+
+    @Override
+    public List<Member> findByName(String name, int offset, int limit) {
+        return Arrays.asList(findAllById(nameIndex.findIds(name, offset, limit)));
+    }
+
+    @Override
+    public List<Member> findByNamePrefix(String prefix, int offset, int limit) {
+        return Arrays.asList(findAllById(nameIndex.findIdsByPrefix(prefix, offset, limit)));
+    }
+
+    public int size() {
+        return store.size();
+    }
+}
@@ -0,0 +1,9 @@
+package hello.core.member;
+
+/*
+* Member.setGrade 로 등급이 바뀌면 호출된다. (저장소의 등급 인덱스 갱신용)
+* 저장소가 save 할 때 회원에 연결한다. 회원 하나에는 마지막으로 저장한 저장소의 리스너 하나만 연결된다.
+* */
+public interface GradeChangeListener {
+    void gradeChanged(Member member, Grade previous, Grade current);
+}
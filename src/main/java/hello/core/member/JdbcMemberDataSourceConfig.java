@@ -0,0 +1,32 @@
+package hello.core.member;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.stereotype.Component;
+
+/*
+* [ JdbcMemberRepository 용 DataSource ]
+* spring-boot-starter-jdbc 가 클래스패스에 있으면 스프링 부트는 DataSourceAutoConfiguration 으로 항상 커넥션 풀(HikariCP)과
+* 내장 H2 DB 를 띄운다. 회원 저장소가 memory 여도 마찬가지라서, CoreApplication 에서 이 자동 설정을 제외하고
+* member.repository=jdbc 일 때만 여기서 DataSource 를 등록한다.
+*
+*  - spring.datasource.* 설정(url, username, password, driver-class-name)은 자동 설정과 똑같이 읽는다. (DataSourceProperties)
+*    url 을 지정하지 않으면 내장 H2 메모리 DB 를 쓴다.
+*  - HikariDataSource 의 close() 가 컨테이너 종료 때 호출되어 커넥션 풀이 닫힌다.
+*
+* @Configuration 이 아니라 @Component 로 두어야 AutoAppConfig 의 컴포넌트 스캔(@Configuration 제외)에도 포함된다.
+* (@Component 안의 @Bean 메서드도 빈으로 등록된다. 다만 @Configuration 과 달리 @Bean 메서드끼리 호출해도 싱글톤이 보장되지 않는다)
+* */
+@Component
+@ConditionalOnProperty(name = "member.repository", havingValue = "jdbc")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class JdbcMemberDataSourceConfig {
+
+    @Bean
+    public HikariDataSource memberDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+}
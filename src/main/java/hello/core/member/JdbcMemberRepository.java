@@ -0,0 +1,452 @@
+package hello.core.member;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/*
+* [ JDBC 회원 저장소 (write-behind) ]
+* 회원을 DB(members 테이블)에 저장한다. 커넥션은 DataSource(스프링 부트 기본: HikariCP 커넥션 풀)에서 빌려 쓰고,
+* SQL 은 모두 PreparedStatement 로 실행한다.
+*
+* join 마다 INSERT 를 하면 회원 1명당 DB 왕복 + 커밋 1번이 든다. 이 저장소는 save 를 바로 쓰지 않고 대기열(pending)에 모았다가
+* flusher 스레드가 flush-interval 마다(또는 batch-size 만큼 모이면) 한 트랜잭션에서 MERGE 배치(addBatch/executeBatch)로 한 번에 쓴다.
+*  - 같은 회원을 여러 번 저장하면 대기열에서 마지막 값 하나로 합쳐진다.
+*  - 조회는 대기열을 먼저 보고, 없으면 DB 를 읽는다. 아직 DB 에 쓰이지 않은 저장도 바로 조회된다.
+*    대기열의 항목은 DB 커밋이 끝난 뒤에 지우므로, 어느 순간에도 대기열이나 DB 중 한 곳에는 최신 값이 있다.
+*  - 대기열이 max-pending 을 넘으면 save 한 스레드가 직접 flush 한다. (메모리가 끝없이 늘지 않게 하는 backpressure)
+*  - close() 한 뒤의 save 는 IllegalStateException 을 던진다. (close 와 겹친 save 는 저장한 스레드가 직접 flush 한다)
+*  - flush 가 실패하면 대기열을 그대로 두고 다음 주기에 다시 쓴다. 실패 횟수와 마지막 오류는 getFailureCount/getLastFailureMessage 로 확인한다.
+*    실패한 뒤에는 대기열이 batch-size 를 넘어도 flush-interval 을 다 기다린다. (DB 가 내려가 있을 때 쉬지 않고 재시도하지 않는다)
+*  - flush() 는 호출한 시점에 대기열에 있던 회원만 쓴다. 그동안 새로 저장된 회원은 다음 flush 가 쓰므로, 저장이 계속 들어와도 끝난다.
+* 저장 시점의 값을 복사해서 대기열에 넣고, 조회도 복사본을 돌려준다. 바꾼 내용을 반영하려면 다시 save 해야 한다.
+* 종료할 때(@PreDestroy) 남은 대기열을 모두 쓴다. 프로세스가 비정상 종료되면 마지막 flush 이후의 저장은 잃을 수 있다.
+*
+* MERGE ... KEY(id) 는 H2 문법이다. (다른 DB 는 해당 DB 의 upsert 문으로 바꾼다)
+*
+* application.properties 에 member.repository=jdbc 를 지정하면 이 구현체가 빈으로 등록된다. DataSource 빈이 필요하다.
+* (JdbcMemberDataSourceConfig 가 spring.datasource.* 설정으로 등록한다. 지정하지 않으면 내장 H2 메모리 DB)
+*  - member.jdbc.flush-interval-ms : flush 주기 (기본 50ms), 저장이 DB 에 쓰이기까지 걸리는 최대 시간
+*  - member.jdbc.batch-size        : 이만큼 모이면 주기를 기다리지 않고 flush (기본 500)
+*  - member.jdbc.max-pending       : 대기열 최대 크기 (기본 10000)
+* */
+@Component
+@ConditionalOnProperty(name = "member.repository", havingValue = "jdbc")
+public class JdbcMemberRepository implements MemberRepository, AutoCloseable {
+
+    private static final String CREATE_TABLE =
+            "CREATE TABLE IF NOT EXISTS members (id BIGINT PRIMARY KEY, name VARCHAR(255), grade VARCHAR(16))";
+    private static final String MERGE = "MERGE INTO members (id, name, grade) KEY (id) VALUES (?, ?, ?)";
+    private static final String CREATE_NAME_INDEX = "CREATE INDEX IF NOT EXISTS members_name ON members (name, id)";
+    private static final String CREATE_GRADE_INDEX = "CREATE INDEX IF NOT EXISTS members_grade ON members (grade, id)";
+    private static final String SELECT_BY_ID = "SELECT id, name, grade FROM members WHERE id = ?";
+    private static final String SELECT_ALL = "SELECT id, name, grade FROM members";
+    private static final String SELECT_BY_NAME = "SELECT id, name, grade FROM members WHERE name = ? ORDER BY name, id LIMIT ? OFFSET ?";
+    private static final String SELECT_BY_NAME_PREFIX =
+            "SELECT id, name, grade FROM members WHERE name LIKE ? ESCAPE '\\' ORDER BY name, id LIMIT ? OFFSET ?";
+    private static final String COUNT_BY_GRADE = "SELECT COUNT(*) FROM members WHERE grade = ?";
+    private static final String COUNT_BY_NULL_GRADE = "SELECT COUNT(*) FROM members WHERE grade IS NULL";
+    private static final String SELECT_BY_GRADE = "SELECT id, name, grade FROM members WHERE grade = ? ORDER BY id";
+    private static final String SELECT_BY_NULL_GRADE = "SELECT id, name, grade FROM members WHERE grade IS NULL ORDER BY id";
+    // 일괄 조회는 IN (?, ?, ...) 을 이 개수씩 나누어 실행한다.
+    private static final int SELECT_CHUNK = 256;
+
+    private final DataSource dataSource;
+    private final long flushIntervalMillis;
+    private final int batchSize;
+    private final int maxPending;
+
+    private final ConcurrentHashMap<Long, Member> pending = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+    private final Object signal = new Object();
+
+    private final LongAdder flushCount = new LongAdder();
+    private final LongAdder flushedRows = new LongAdder();
+    private final LongAdder failureCount = new LongAdder();
+    private volatile String lastFailureMessage;
+
+    private volatile boolean running = true;
+    private final Thread flusher;
+
+    @Autowired
+    public JdbcMemberRepository(DataSource dataSource,
+                                @Value("${member.jdbc.flush-interval-ms:50}") long flushIntervalMillis,
+                                @Value("${member.jdbc.batch-size:500}") int batchSize,
+                                @Value("${member.jdbc.max-pending:10000}") int maxPending) {
+        if (flushIntervalMillis <= 0 || batchSize <= 0 || maxPending < batchSize) {
+            throw new IllegalArgumentException("flush 설정이 올바르지 않습니다. flushIntervalMillis = " + flushIntervalMillis
+                    + ", batchSize = " + batchSize + ", maxPending = " + maxPending);
+        }
+        this.dataSource = dataSource;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+        createTable();
+        this.flusher = new Thread(this::flushLoop, "member-jdbc-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @Override
+    public void save(Member member) {
+        checkOpen();
+        enqueue(member);
+        afterEnqueue();
+    }
+
+    @Override
+    public void saveAll(Collection<Member> members) {
+        checkOpen();
+        for (Member member : members) {
+            enqueue(member);
+        }
+        afterEnqueue();
+    }
+
+    @Override
+    public Member findById(Long id) {
+        if (id == null) {
+            return null;
+        }
+        Member waiting = pending.get(id);
+        if (waiting != null) {
+            return copy(waiting);
+        }
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SELECT_BY_ID)) {
+            statement.setLong(1, id);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? toMember(resultSet) : null;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("회원을 조회할 수 없습니다. id = " + id, e);
+        }
+    }
+
+    // 대기열에 없는 id 만 모아서 IN 조회로 읽는다.
+    @Override
+    public Member[] findAllById(long[] ids) {
+        Member[] members = new Member[ids.length];
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            Member waiting = pending.get(ids[i]);
+            if (waiting != null) {
+                members[i] = copy(waiting);
+            } else {
+                missing.add(i);
+            }
+        }
+        if (missing.isEmpty()) {
+            return members;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            for (int from = 0; from < missing.size(); from += SELECT_CHUNK) {
+                List<Integer> chunk = missing.subList(from, Math.min(missing.size(), from + SELECT_CHUNK));
+                Map<Long, Member> found = selectIn(connection, ids, chunk);
+                for (int index : chunk) {
+                    members[index] = found.get(ids[index]);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("회원을 일괄 조회할 수 없습니다. count = " + missing.size(), e);
+        }
+        return members;
+    }
+
+    /*
+    * [ 목록/이름/등급 조회 ]
+    * 여러 회원을 조건으로 찾는 조회는 대기열과 DB 결과를 합치기 어려우므로 먼저 flush 해서 대기열을 DB 에 쓴 다음 SQL 로 찾는다.
+    * (members 테이블의 (name, id), (grade, id) 인덱스를 사용한다)
+    * */
+    @Override
+    public List<Member> findAll() {
+        flush();
+        return query(SELECT_ALL, statement -> {
+        });
+    }
+
+    @Override
+    public List<Member> findByName(String name, int offset, int limit) {
+        checkPage(offset, limit);
+        if (name == null) {
+            return List.of();
+        }
+        flush();
+        return query(SELECT_BY_NAME, statement -> {
+            statement.setString(1, name);
+            statement.setInt(2, limit);
+            statement.setInt(3, offset);
+        });
+    }
+
+    @Override
+    public List<Member> findByNamePrefix(String prefix, int offset, int limit) {
+        checkPage(offset, limit);
+        if (prefix == null) {
+            return List.of();
+        }
+        flush();
+        // LIKE 의 특수 문자(%, _)와 escape 문자는 글자 그대로 찾도록 escape 한다.
+        String pattern = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return query(SELECT_BY_NAME_PREFIX, statement -> {
+            statement.setString(1, pattern);
+            statement.setInt(2, limit);
+            statement.setInt(3, offset);
+        });
+    }
+
+    @Override
+    public int countByGrade(Grade grade) {
+        flush();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(grade == null ? COUNT_BY_NULL_GRADE : COUNT_BY_GRADE)) {
+            if (grade != null) {
+                statement.setString(1, grade.name());
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getInt(1);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("등급별 회원 수를 조회할 수 없습니다. grade = " + grade, e);
+        }
+    }
+
+    @Override
+    public Stream<Member> streamByGrade(Grade grade) {
+        flush();
+        return query(grade == null ? SELECT_BY_NULL_GRADE : SELECT_BY_GRADE, statement -> {
+            if (grade != null) {
+                statement.setString(1, grade.name());
+            }
+        }).stream();
+    }
+
+    /*
+    * 지금까지 저장한 회원을 DB 에 쓰고 돌아온다. (다른 스레드가 flush 중이면 끝날 때까지 기다린다)
+    * 시작할 때 대기열에 있던 회원만 batchSize 씩 나누어 쓴다. 쓰는 동안 들어온 저장은 다음 flush 의 몫이다.
+    * 쓰지 못했으면 IllegalStateException 을 던지고 대기열은 그대로 남는다.
+    * */
+    public void flush() {
+        synchronized (flushLock) {
+            List<Member> snapshot = new ArrayList<>(pending.values());
+            try {
+                for (int from = 0; from < snapshot.size(); from += batchSize) {
+                    writeBatch(snapshot.subList(from, Math.min(from + batchSize, snapshot.size())));
+                }
+            } catch (SQLException e) {
+                failureCount.increment();
+                lastFailureMessage = e.getMessage();
+                throw new IllegalStateException("회원 저장 대기열을 DB 에 쓰지 못했습니다. pending = " + pending.size(), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    @Override
+    public void close() {
+        running = false;
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    // 아직 DB 에 쓰이지 않은 회원 수
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    // 실행한 배치(트랜잭션) 수
+    public long getFlushCount() {
+        return flushCount.sum();
+    }
+
+    // DB 에 쓴 누적 행 수
+    public long getFlushedRows() {
+        return flushedRows.sum();
+    }
+
+    public long getFailureCount() {
+        return failureCount.sum();
+    }
+
+    public String getLastFailureMessage() {
+        return lastFailureMessage;
+    }
+
+    private void enqueue(Member member) {
+        if (member.getId() == null) {
+            throw new IllegalArgumentException("id 가 없는 회원은 저장할 수 없습니다. name = " + member.getName());
+        }
+        pending.put(member.getId(), copy(member));
+    }
+
+    // 닫힌 뒤에는 flusher 스레드가 없어서 대기열에 넣어도 DB 에 쓰이지 않는다.
+    private void checkOpen() {
+        if (!running) {
+            throw new IllegalStateException("닫힌 회원 저장소에는 저장할 수 없습니다.");
+        }
+    }
+
+    private void afterEnqueue() {
+        int size = pending.size();
+        // checkOpen 을 지난 뒤 close() 의 마지막 flush 가 먼저 끝났을 수 있으므로 직접 쓴다.
+        if (!running || size >= maxPending) {
+            flush();
+        } else if (size >= batchSize) {
+            synchronized (signal) {
+                signal.notifyAll();
+            }
+        }
+    }
+
+    private void flushLoop() {
+        boolean failed = false;
+        while (running) {
+            synchronized (signal) {
+                try {
+                    if (failed) {
+                        // 실패한 뒤에는 batch-size 신호로 깨어나도 주기를 다 채워서 기다린다. (close 만 기다림을 끝낸다)
+                        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                        long remaining;
+                        while (running && (remaining = deadline - System.nanoTime()) > 0) {
+                            TimeUnit.NANOSECONDS.timedWait(signal, remaining);
+                        }
+                    } else if (running && pending.size() < batchSize) {
+                        signal.wait(flushIntervalMillis);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            try {
+                flush();
+                failed = false;
+            } catch (IllegalStateException e) {
+                // 대기열은 남아 있으므로 다음 주기에 다시 시도한다.
+                failed = true;
+            }
+        }
+    }
+
+    // batch 를 한 트랜잭션으로 쓴다. flushLock 을 잡은 채로 호출한다.
+    private void writeBatch(List<Member> batch) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(MERGE)) {
+                for (Member member : batch) {
+                    statement.setLong(1, member.getId());
+                    statement.setString(2, member.getName());
+                    statement.setString(3, member.getGrade() == null ? null : member.getGrade().name());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+        // 커밋한 뒤에 지운다. 그 사이 같은 id 가 다시 저장되었으면(다른 객체) 지우지 않고 다음 배치에서 쓴다.
+        for (Member member : batch) {
+            pending.remove(member.getId(), member);
+        }
+        flushCount.increment();
+        flushedRows.add(batch.size());
+    }
+
+    private Map<Long, Member> selectIn(Connection connection, long[] ids, List<Integer> indexes) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT id, name, grade FROM members WHERE id IN (");
+        for (int i = 0; i < indexes.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(')');
+        Map<Long, Member> found = new HashMap<>(indexes.size() * 2);
+        try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+            for (int i = 0; i < indexes.size(); i++) {
+                statement.setLong(i + 1, ids[indexes.get(i)]);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    Member member = toMember(resultSet);
+                    found.put(member.getId(), member);
+                }
+            }
+        }
+        return found;
+    }
+
+    private List<Member> query(String sql, StatementBinder binder) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            binder.bind(statement);
+            List<Member> members = new ArrayList<>();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    members.add(toMember(resultSet));
+                }
+            }
+            return members;
+        } catch (SQLException e) {
+            throw new IllegalStateException("회원 목록을 조회할 수 없습니다. sql = " + sql, e);
+        }
+    }
+
+    private static void checkPage(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("offset 과 limit 은 0 이상이어야 합니다. offset = " + offset + ", limit = " + limit);
+        }
+    }
+
+    private void createTable() {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_TABLE);
+            statement.execute(CREATE_NAME_INDEX);
+            statement.execute(CREATE_GRADE_INDEX);
+        } catch (SQLException e) {
+            throw new IllegalStateException("members 테이블을 만들 수 없습니다.", e);
+        }
+    }
+
+    private static Member toMember(ResultSet resultSet) throws SQLException {
+        String grade = resultSet.getString("grade");
+        return new Member(resultSet.getLong("id"), resultSet.getString("name"), grade == null ? null : Grade.valueOf(grade));
+    }
+
+    private static Member copy(Member member) {
+        return new Member(member.getId(), member.getName(), member.getGrade());
+    }
+
+    private interface StatementBinder {
+        void bind(PreparedStatement statement) throws SQLException;
+    }
+}
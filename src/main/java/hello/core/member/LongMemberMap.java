@@ -0,0 +1,160 @@
+package hello.core.member;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+* [ long -> Member 전용 해시맵 (open addressing, linear probing) ]
+* HashMap<Long, Member> 는 회원 1명당 Long 객체(16 byte) + HashMap.Node(32 byte) + 테이블 슬롯 참조를 추가로 쓴다.
+* 이 맵은 키를 long[] 에, 값을 Member[] 에 그대로 담아서 회원 1명당 (8 + 4) / 적재율 byte 정도만 쓴다. (compressed oops 기준)
+* 조회 시에도 박싱이나 Node 객체 생성이 없다.
+*
+*  - 빈 슬롯은 values[i] == null 로 구분한다. 따라서 null 값은 저장할 수 없다.
+*  - 충돌이 나면 다음 슬롯을 차례로 본다(linear probing). 적재율이 3/4 를 넘으면 2배로 늘린다.
+*  - 삭제는 지원하지 않는다. (MemberRepository 에 삭제 기능이 없다.)
+*  - 스레드 안전하지 않다. 동시 접근은 PrimitiveMemberRepository 처럼 바깥에서 제어해야 한다.
+* */
+public class LongMemberMap {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private Member[] values;
+    private int size;
+    private int resizeThreshold;
+
+    public LongMemberMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongMemberMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    public Member get(long key) {
+        long[] keys = this.keys;
+        Member[] values = this.values;
+        // resize 와 겹쳐 읽으면 두 배열의 길이가 다를 수 있다. 이때는 못 찾은 것으로 돌려주고 호출한 쪽에서 다시 읽는다.
+        if (keys.length != values.length) {
+            return null;
+        }
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        for (int probe = 0; probe <= mask; probe++) {
+            Member value = values[index];
+            if (value == null) {
+                return null;
+            }
+            if (keys[index] == key) {
+                return value;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    public Member put(long key, Member value) {
+        if (value == null) {
+            throw new IllegalArgumentException("null 값은 저장할 수 없습니다. key = " + key);
+        }
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (values[index] != null) {
+            if (keys[index] == key) {
+                Member previous = values[index];
+                values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        // 조회하는 쪽은 values[i] 로 빈 슬롯을 판단하므로 키를 먼저 쓴다.
+        keys[index] = key;
+        values[index] = value;
+        if (++size > resizeThreshold) {
+            resize();
+        }
+        return null;
+    }
+
+    // 저장된 값 목록 (테이블 순서)
+    public List<Member> values() {
+        List<Member> result = new ArrayList<>(size);
+        for (Member value : values) {
+            if (value != null) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    // 테이블 자체가 차지하는 byte 수 (저장된 Member 객체는 제외, compressed oops 기준 참조 4 byte)
+    public long tableBytes() {
+        long arrayHeader = 16;
+        return (arrayHeader + 8L * keys.length) + (arrayHeader + 4L * values.length);
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        Member[] oldValues = values;
+        long[] newKeys = new long[oldKeys.length << 1];
+        Member[] newValues = new Member[oldValues.length << 1];
+        int mask = newKeys.length - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int index = hash(oldKeys[i]) & mask;
+                while (newValues[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                newKeys[index] = oldKeys[i];
+                newValues[index] = oldValues[i];
+            }
+        }
+        this.keys = newKeys;
+        this.values = newValues;
+        this.resizeThreshold = threshold(newKeys.length);
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new long[capacity];
+        this.values = new Member[capacity];
+        this.resizeThreshold = threshold(capacity);
+    }
+
+    private static int threshold(int capacity) {
+        return capacity - (capacity >>> 2);
+    }
+
+    // 연속된 id(1, 2, 3...)가 한 구역에 몰리지 않도록 비트를 섞어준다. (MurmurHash3 fmix64)
+    private static int hash(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        // 적재율 3/4 를 넘지 않도록 여유를 두고 2의 거듭제곱으로 맞춘다.
+        long needed = Math.max(MIN_CAPACITY, (long) expectedSize * 4 / 3 + 1);
+        if (needed > (1 << 30)) {
+            throw new IllegalArgumentException("expectedSize 가 너무 큽니다. expectedSize = " + expectedSize);
+        }
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+}
@@ -0,0 +1,374 @@
+package hello.core.member;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+* [ 메모리 맵 파일 기반 컬럼형 회원 저장소 ]
+* 회원 데이터를 힙이 아니라 고정 레이아웃의 파일에 두고 메모리 맵(mmap)으로 접근한다.
+*  - 힙에는 회원 객체를 쌓아두지 않으므로 회원 수가 늘어나도 GC 대상이 늘지 않는다.
+*  - 재시작하면 파일을 다시 매핑만 한다. 전체를 읽어서 적재하는 과정이 없다. (페이지는 접근할 때 OS 가 올려준다)
+*
+* [ 파일 레이아웃 ] (capacity = 최대 회원 수, slotCount = 해시 슬롯 수)
+*  header      : 64 byte (magic, version, capacity, slotCount, nameHeapBytes, rowCount, nameHeapUsed)
+*  id 컬럼     : capacity * 8 byte   (long)
+*  grade 컬럼  : capacity * 1 byte   (Grade.ordinal, null 이면 -1)
+*  name 컬럼   : capacity * 4 byte   (name 힙에서의 offset, null 이면 -1)
+*  해시 슬롯   : slotCount * 4 byte  (row + 1, 0 이면 빈 슬롯) → id 로 row 를 찾는 인덱스도 파일에 있으므로 재시작 시 다시 만들 필요가 없다.
+*  name 힙     : nameHeapBytes byte  ([short 길이][UTF-8 bytes] 를 이어 붙인다)
+*
+* findById 는 파일에서 값을 읽어 새 Member 를 만들어 돌려준다. 돌려받은 Member 를 수정해도 저장소에는 반영되지 않으므로
+* 변경 후에는 save 를 다시 호출해야 한다. (MemberServiceImpl 은 save/findById 만 사용하므로 그대로 쓸 수 있다)
+*
+* application.properties 에 member.repository=mapped 를 지정하면 이 구현체가 빈으로 등록된다.
+*  - member.mapped.path     : 파일 경로 (기본값 members.dat)
+*  - member.mapped.capacity : 새 파일을 만들 때의 최대 회원 수 (기존 파일을 열 때는 파일 헤더의 값을 따른다)
+* */
+@Component
+@ConditionalOnProperty(name = "member.repository", havingValue = "mapped")
+public class MappedMemberRepository implements MemberRepository {
+
+    private static final int MAGIC = 0x4D454D42; // "MEMB"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int NAME_BYTES_PER_MEMBER = 32;
+    private static final int MAX_NAME_BYTES = Short.MAX_VALUE;
+    // 행(13 byte) + 해시 슬롯(최대 16 byte) 이 2GB 매핑 한도 안에 들어오는 최대 회원 수
+    private static final int MAX_CAPACITY = 1 << 26;
+
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int SLOT_COUNT_OFFSET = 12;
+    private static final int NAME_HEAP_BYTES_OFFSET = 16;
+    private static final int ROW_COUNT_OFFSET = 20;
+    private static final int NAME_HEAP_USED_OFFSET = 24;
+
+    private static final Grade[] GRADES = Grade.values();
+    private static final byte NULL_GRADE = -1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final int capacity;
+    private final int slotMask;
+    private final int nameHeapBytes;
+    private final int idColumn;
+    private final int gradeColumn;
+    private final int nameColumn;
+    private final int slotsStart;
+    private final int nameHeapStart;
+
+    private int rowCount;
+    private int nameHeapUsed;
+
+    @Autowired
+    public MappedMemberRepository(@Value("${member.mapped.path:members.dat}") String path,
+                                  @Value("${member.mapped.capacity:1000000}") int capacity) {
+        this(Paths.get(path), capacity, (long) capacity * NAME_BYTES_PER_MEMBER);
+    }
+
+    public MappedMemberRepository(Path path, int capacity, long nameHeapBytes) {
+        try {
+            boolean exists = Files.exists(path) && Files.size(path) > 0;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (exists) {
+                // 기존 파일은 헤더만 읽어서 레이아웃을 복원한다.
+                MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+                if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                    channel.close();
+                    throw new IllegalStateException("회원 저장소 파일 형식이 아닙니다. path = " + path);
+                }
+                this.capacity = header.getInt(CAPACITY_OFFSET);
+                this.slotMask = header.getInt(SLOT_COUNT_OFFSET) - 1;
+                this.nameHeapBytes = header.getInt(NAME_HEAP_BYTES_OFFSET);
+            } else {
+                if (capacity <= 0 || capacity > MAX_CAPACITY) {
+                    channel.close();
+                    throw new IllegalArgumentException("capacity 는 1 ~ " + MAX_CAPACITY + " 사이여야 합니다. capacity = " + capacity);
+                }
+                this.capacity = capacity;
+                // 적재율 1/2 이하가 되도록 슬롯을 잡는다.
+                this.slotMask = Integer.highestOneBit(capacity) * 4 - 1;
+                this.nameHeapBytes = (int) Math.min(nameHeapBytes, Integer.MAX_VALUE);
+            }
+
+            this.idColumn = HEADER_BYTES;
+            this.gradeColumn = idColumn + this.capacity * 8;
+            this.nameColumn = gradeColumn + this.capacity;
+            this.slotsStart = nameColumn + this.capacity * 4;
+            this.nameHeapStart = slotsStart + (slotMask + 1) * 4;
+            long fileSize = (long) nameHeapStart + this.nameHeapBytes;
+            if (fileSize > Integer.MAX_VALUE) {
+                channel.close();
+                throw new IllegalArgumentException("파일 크기가 2GB 를 넘습니다. capacity = " + this.capacity);
+            }
+
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+            if (exists) {
+                this.rowCount = buffer.getInt(ROW_COUNT_OFFSET);
+                this.nameHeapUsed = buffer.getInt(NAME_HEAP_USED_OFFSET);
+            } else {
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION);
+                buffer.putInt(CAPACITY_OFFSET, this.capacity);
+                buffer.putInt(SLOT_COUNT_OFFSET, slotMask + 1);
+                buffer.putInt(NAME_HEAP_BYTES_OFFSET, this.nameHeapBytes);
+                buffer.putInt(ROW_COUNT_OFFSET, 0);
+                buffer.putInt(NAME_HEAP_USED_OFFSET, 0);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void save(Member member) {
+        checkId(member);
+        ReentrantReadWriteLock.WriteLock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            write(member);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // 일괄 저장은 쓰기 락을 한 번만 잡는다. id 가 없는 회원이 있으면 하나도 저장하지 않는다.
+    @Override
+    public void saveAll(Collection<Member> members) {
+        for (Member member : members) {
+            checkId(member);
+        }
+        ReentrantReadWriteLock.WriteLock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            for (Member member : members) {
+                write(member);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public Member findById(Long id) {
+        return id == null ? null : findById(id.longValue());
+    }
+
+    @Override
+    public Member findById(long id) {
+        ReentrantReadWriteLock.ReadLock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return read(id);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public List<Member> findAllById(Collection<Long> ids) {
+        ReentrantReadWriteLock.ReadLock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            List<Member> members = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                members.add(id == null ? null : read(id));
+            }
+            return members;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public Member[] findAllById(long[] ids) {
+        ReentrantReadWriteLock.ReadLock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            Member[] members = new Member[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                members[i] = read(ids[i]);
+            }
+            return members;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // 행 순서(처음 저장한 순서)로 읽는다.
+    @Override
+    public List<Member> findAll() {
+        ReentrantReadWriteLock.ReadLock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            List<Member> members = new ArrayList<>(rowCount);
+            for (int row = 0; row < rowCount; row++) {
+                members.add(read(buffer.getLong(idColumn + row * 8)));
+            }
+            return members;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // 쓰기 락을 잡은 상태에서 호출한다.
+    private void write(Member member) {
+        long id = member.getId();
+        int slot = findSlot(id);
+        int rowPlusOne = buffer.getInt(slotsStart + slot * 4);
+        if (rowPlusOne != 0) {
+            int row = rowPlusOne - 1;
+            buffer.put(gradeColumn + row, encodeGrade(member.getGrade()));
+            if (!equalsName(row, member.getName())) {
+                buffer.putInt(nameColumn + row * 4, appendName(member.getName()));
+            }
+            return;
+        }
+
+        if (rowCount == capacity) {
+            throw new IllegalStateException("회원 저장소가 가득 찼습니다. capacity = " + capacity);
+        }
+        int row = rowCount;
+        // 행 데이터 → 해시 슬롯 → 헤더(rowCount) 순서로 써서, 행이 완성된 뒤에만 조회 대상이 되게 한다.
+        buffer.putLong(idColumn + row * 8, id);
+        buffer.put(gradeColumn + row, encodeGrade(member.getGrade()));
+        buffer.putInt(nameColumn + row * 4, appendName(member.getName()));
+        buffer.putInt(slotsStart + slot * 4, row + 1);
+        rowCount++;
+        buffer.putInt(ROW_COUNT_OFFSET, rowCount);
+    }
+
+    // 읽기 락을 잡은 상태에서 호출한다.
+    private Member read(long id) {
+        int rowPlusOne = buffer.getInt(slotsStart + findSlot(id) * 4);
+        if (rowPlusOne == 0) {
+            return null;
+        }
+        int row = rowPlusOne - 1;
+        return new Member(id, readName(buffer.getInt(nameColumn + row * 4)), decodeGrade(buffer.get(gradeColumn + row)));
+    }
+
+    // id 로 행을 찾으므로 id 가 없는 회원은 받을 수 없다.
+    private static void checkId(Member member) {
+        if (member.getId() == null) {
+            throw new IllegalArgumentException("id 가 없는 회원은 저장할 수 없습니다. name = " + member.getName());
+        }
+    }
+
+    private static byte encodeGrade(Grade grade) {
+        return grade == null ? NULL_GRADE : (byte) grade.ordinal();
+    }
+
+    private static Grade decodeGrade(byte grade) {
+        return grade == NULL_GRADE ? null : GRADES[grade];
+    }
+
+    public int size() {
+        ReentrantReadWriteLock.ReadLock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return rowCount;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    // 변경 내용을 디스크에 기록한다.
+    public void flush() {
+        ReentrantReadWriteLock.WriteLock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            buffer.force();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // id 가 있는 슬롯, 없으면 id 가 들어갈 빈 슬롯을 찾는다. (linear probing)
+    private int findSlot(long id) {
+        int slot = hash(id) & slotMask;
+        while (true) {
+            int rowPlusOne = buffer.getInt(slotsStart + slot * 4);
+            if (rowPlusOne == 0 || buffer.getLong(idColumn + (rowPlusOne - 1) * 8) == id) {
+                return slot;
+            }
+            slot = (slot + 1) & slotMask;
+        }
+    }
+
+    private int appendName(String name) {
+        if (name == null) {
+            return -1;
+        }
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("이름이 너무 깁니다. length = " + bytes.length);
+        }
+        if (nameHeapUsed + 2 + bytes.length > nameHeapBytes) {
+            throw new IllegalStateException("이름 저장 공간이 가득 찼습니다. nameHeapBytes = " + nameHeapBytes);
+        }
+        int offset = nameHeapUsed;
+        int position = nameHeapStart + offset;
+        buffer.putShort(position, (short) bytes.length);
+        for (int i = 0; i < bytes.length; i++) {
+            buffer.put(position + 2 + i, bytes[i]);
+        }
+        nameHeapUsed += 2 + bytes.length;
+        buffer.putInt(NAME_HEAP_USED_OFFSET, nameHeapUsed);
+        return offset;
+    }
+
+    private String readName(int offset) {
+        if (offset < 0) {
+            return null;
+        }
+        int position = nameHeapStart + offset;
+        byte[] bytes = new byte[buffer.getShort(position)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(position + 2 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private boolean equalsName(int row, String name) {
+        String stored = readName(buffer.getInt(nameColumn + row * 4));
+        return stored == null ? name == null : stored.equals(name);
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
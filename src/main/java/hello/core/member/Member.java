@@ -4,6 +4,8 @@ public class Member {
     private Long id;
     private String name;
     private Grade grade;
+    // 저장소가 save 할 때 연결한다. 등급이 바뀌면 등급 인덱스(MemberGradeIndex)에 알린다.
+    private GradeChangeListener gradeChangeListener;
 
     public Member(Long id, String name, Grade grade) {
         this.id = id;
@@ -32,7 +34,15 @@ public class Member {
     }
 
     public void setGrade(Grade grade) {
+        Grade previous = this.grade;
         this.grade = grade;
+        if (gradeChangeListener != null && previous != grade) {
+            gradeChangeListener.gradeChanged(this, previous, grade);
+        }
+    }
+
+    void setGradeChangeListener(GradeChangeListener gradeChangeListener) {
+        this.gradeChangeListener = gradeChangeListener;
     }
 
 }
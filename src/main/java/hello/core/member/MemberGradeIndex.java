@@ -0,0 +1,145 @@
+package hello.core.member;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+/*
+* [ 회원 등급 비트맵 인덱스 ]
+* "VIP 회원 전체", "등급별 회원 수" 를 저장소 전체를 훑지 않고 구한다.
+*
+* 회원 id 는 띄엄띄엄할 수 있으므로 처음 색인할 때 0부터 차례로 순번(ordinal)을 매기고, 등급마다 순번 비트맵(CompressedBitmap)을 둔다.
+*  - count      : 비트맵의 원소 수만 읽는다. O(1)
+*  - 세그먼트   : bitmap(grade) 로 꺼낸 비트맵을 and/or 로 조합한다. (예: VIP 이면서 캠페인 대상 id 목록에 있는 회원 → bitmap(VIP).and(bitmapOf(ids)))
+*  - 결과 읽기  : memberIds(bitmap) 는 순번을 id 로 바꾸면서 하나씩 흘려보낸다. (결과 리스트를 만들지 않는다)
+* 회원 100만 명이 모두 한 등급이면 비트맵은 약 128KB 다.
+*
+* 등급이 null 인 회원은 어느 비트맵에도 들어가지 않는다. count(null), bitmap(null) 은 "색인되었지만 어느 등급에도 없는 회원" 이다.
+* (count(null) 은 전체에서 등급별 원소 수를 빼고, bitmap(null) 은 순번 전체를 훑어서 만든다)
+*
+* 등급은 save 할 때와 Member.setGrade 로 바뀔 때(GradeChangeListener) 갱신한다.
+* 메서드는 인덱스 단위로 synchronized 하고, 밖으로 내보내는 비트맵은 복사본이라서 읽는 동안 인덱스가 바뀌어도 안전하다.
+* */
+public class MemberGradeIndex {
+
+    private static final Grade[] GRADES = Grade.values();
+
+    private final CompressedBitmap[] bitmaps = new CompressedBitmap[GRADES.length];
+    private final Map<Long, Integer> ordinalById = new HashMap<>();
+    private long[] idByOrdinal = new long[1024];
+
+    public MemberGradeIndex() {
+        for (int i = 0; i < bitmaps.length; i++) {
+            bitmaps[i] = new CompressedBitmap();
+        }
+    }
+
+    // 회원의 현재 등급으로 색인한다. 등급이 null 이면 어느 등급에도 들어가지 않는다.
+    public synchronized void put(long id, Grade grade) {
+        int ordinal = ordinalOf(id);
+        for (int i = 0; i < bitmaps.length; i++) {
+            if (grade != null && i == grade.ordinal()) {
+                bitmaps[i].add(ordinal);
+            } else {
+                bitmaps[i].remove(ordinal);
+            }
+        }
+    }
+
+    public synchronized int count(Grade grade) {
+        if (grade == null) {
+            int graded = 0;
+            for (CompressedBitmap bitmap : bitmaps) {
+                graded += bitmap.cardinality();
+            }
+            return ordinalById.size() - graded;
+        }
+        return bitmaps[grade.ordinal()].cardinality();
+    }
+
+    public synchronized Map<Grade, Integer> countAll() {
+        Map<Grade, Integer> counts = new EnumMap<>(Grade.class);
+        for (Grade grade : GRADES) {
+            counts.put(grade, bitmaps[grade.ordinal()].cardinality());
+        }
+        return counts;
+    }
+
+    // 등급에 속한 회원 순번 비트맵 (복사본)
+    public synchronized CompressedBitmap bitmap(Grade grade) {
+        if (grade == null) {
+            return ungraded();
+        }
+        return bitmaps[grade.ordinal()].copy();
+    }
+
+    // 주어진 id 들의 순번 비트맵. 색인되지 않은 id 는 빠진다. (다른 세그먼트와 and/or 하기 위한 용도)
+    public synchronized CompressedBitmap bitmapOf(long... ids) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (long id : ids) {
+            Integer ordinal = ordinalById.get(id);
+            if (ordinal != null) {
+                bitmap.add(ordinal);
+            }
+        }
+        return bitmap;
+    }
+
+    // 비트맵의 순번을 회원 id 로 바꿔서 순번 순서대로 흘려보낸다.
+    public LongStream memberIds(CompressedBitmap bitmap) {
+        long[] ids;
+        synchronized (this) {
+            // 순번은 한 번 매기면 바뀌지 않고 뒤에만 추가되므로, 지금의 배열로 비트맵의 모든 순번을 바꿀 수 있다.
+            ids = idByOrdinal;
+        }
+        return bitmap.stream().mapToLong(ordinal -> ids[ordinal]);
+    }
+
+    // 색인된 회원 수 (등급이 null 인 회원 포함)
+    public synchronized int size() {
+        return ordinalById.size();
+    }
+
+    public synchronized long sizeInBytes() {
+        long bytes = idByOrdinal.length * 8L;
+        for (CompressedBitmap bitmap : bitmaps) {
+            bytes += bitmap.sizeInBytes();
+        }
+        return bytes;
+    }
+
+    private CompressedBitmap ungraded() {
+        CompressedBitmap ungraded = new CompressedBitmap();
+        for (int ordinal = 0; ordinal < ordinalById.size(); ordinal++) {
+            if (!graded(ordinal)) {
+                ungraded.add(ordinal);
+            }
+        }
+        return ungraded;
+    }
+
+    private boolean graded(int ordinal) {
+        for (CompressedBitmap bitmap : bitmaps) {
+            if (bitmap.contains(ordinal)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int ordinalOf(long id) {
+        Integer ordinal = ordinalById.get(id);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        int next = ordinalById.size();
+        if (next == idByOrdinal.length) {
+            idByOrdinal = Arrays.copyOf(idByOrdinal, next * 2);
+        }
+        idByOrdinal[next] = id;
+        ordinalById.put(id, next);
+        return next;
+    }
+}
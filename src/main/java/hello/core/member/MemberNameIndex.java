@@ -0,0 +1,161 @@
+package hello.core.member;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+
+/*
+* [ 회원 이름 인덱스 ]
+* 이름으로 회원을 찾으려면 지금은 저장소 전체를 훑어야 한다. 이 인덱스는 save 할 때 이름 → 회원 id 목록을 함께 기록한다.
+*  - exact  : ConcurrentHashMap<이름, id[]>       이름이 정확히 같은 회원. O(1)
+*  - sorted : ConcurrentSkipListMap<이름, id[]>   이름 순으로 정렬되어 있어서, prefix 로 시작하는 이름은 prefix 위치부터 연속으로 붙어 있다.
+*                                               O(log n) 으로 시작 위치를 찾고 결과 수만큼만 읽는다.
+* 두 맵은 같은 id 배열을 공유한다. id 배열은 오름차순으로 정렬되어 있고, 바뀔 때마다 새 배열로 바꿔 넣는다. (copy-on-write)
+* 이름이 같은 회원은 보통 몇 명 되지 않으므로 배열 복사 비용은 작다.
+*
+* 쓰기(put)는 인덱스 전체를 잠그지 않는다.
+*  - 같은 회원(id)의 쓰기는 nameById.compute 로 그 id 의 버킷만 잠가서 순서대로 처리한다.
+*  - 같은 이름의 id 배열은 exact.compute 로 그 이름의 버킷만 잠근 채로 바꾸고, 같은 잠금 안에서 sorted 에도 넣는다.
+*    (잠그는 순서는 항상 id → 이름이므로 교착이 생기지 않는다)
+* 서로 다른 회원, 서로 다른 이름의 쓰기는 서로 기다리지 않는다. 읽기는 락 없이 맵에서 배열을 꺼내 읽는다.
+* 그래서 ConcurrentMemberRepository 처럼 여러 스레드가 동시에 저장/조회하는 저장소에서도 그대로 사용할 수 있다.
+*
+* 회원의 이름이 바뀌면 이전 이름에서 id 를 빼야 하므로 id → 색인한 이름도 기억한다.
+* Member 는 setName 으로 바꿀 수 있지만 인덱스는 save 시점의 이름을 기준으로 한다. 이름을 바꿨다면 다시 save 해야 반영된다.
+* */
+public class MemberNameIndex {
+
+    private static final long[] EMPTY = new long[0];
+
+    private final ConcurrentHashMap<String, long[]> exact = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, long[]> sorted = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Long, String> nameById = new ConcurrentHashMap<>();
+
+    // id 회원의 이름을 name 으로 기록한다. name 이 null 이면 인덱스에서 뺀다.
+    public void put(long id, String name) {
+        nameById.compute(id, (key, previous) -> reindex(id, previous, name));
+    }
+
+    /*
+    * 같은 회원을 여러 스레드가 동시에 저장하는 저장소용.
+    * isCurrent(member) 가 참일 때(저장소에 아직 이 객체가 남아 있을 때)만 member 의 지금 이름으로 색인한다.
+    * 확인과 기록을 그 id 의 잠금 안에서 하므로, 늦게 도착한 이전 저장이 나중 저장의 색인을 덮어쓰지 않는다.
+    * */
+    public void put(Member member, Predicate<Member> isCurrent) {
+        long id = member.getId();
+        nameById.compute(id, (key, previous) -> isCurrent.test(member) ? reindex(id, previous, member.getName()) : previous);
+    }
+
+    // 이름이 name 인 회원 id 를 오름차순으로 offset 번째부터 최대 limit 개 돌려준다.
+    public long[] findIds(String name, int offset, int limit) {
+        checkPage(offset, limit);
+        long[] ids = name == null ? null : exact.get(name);
+        if (ids == null || offset >= ids.length) {
+            return EMPTY;
+        }
+        return Arrays.copyOfRange(ids, offset, (int) Math.min(ids.length, (long) offset + limit));
+    }
+
+    /*
+    * 이름이 prefix 로 시작하는 회원 id 를 (이름, id) 순서로 offset 번째부터 최대 limit 개 돌려준다.
+    * 비용은 O(log 이름 수 + offset + limit) 이다. 회원 수가 늘어도 건너뛰고 읽는 결과 수만큼만 든다.
+    * */
+    public long[] findIdsByPrefix(String prefix, int offset, int limit) {
+        checkPage(offset, limit);
+        if (prefix == null || limit == 0) {
+            return EMPTY;
+        }
+        long[] result = new long[Math.min(limit, 64)];
+        int size = 0;
+        int skip = offset;
+        for (Map.Entry<String, long[]> entry : sorted.tailMap(prefix, true).entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) {
+                break;
+            }
+            long[] ids = entry.getValue();
+            if (skip >= ids.length) {
+                // 이 이름의 회원은 모두 앞 페이지에 있다.
+                skip -= ids.length;
+                continue;
+            }
+            for (int i = skip; i < ids.length && size < limit; i++) {
+                if (size == result.length) {
+                    result = Arrays.copyOf(result, (int) Math.min(limit, result.length * 2L));
+                }
+                result[size++] = ids[i];
+            }
+            skip = 0;
+            if (size == limit) {
+                break;
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    // 색인된 서로 다른 이름 수
+    public int nameCount() {
+        return exact.size();
+    }
+
+    // 색인된 회원 수
+    public int size() {
+        return nameById.size();
+    }
+
+    // nameById.compute 안에서(그 id 를 잠근 채로) 호출한다. 새로 기록할 이름을 돌려준다.
+    private String reindex(long id, String previous, String name) {
+        if (!Objects.equals(previous, name)) {
+            if (previous != null) {
+                removeId(previous, id);
+            }
+            if (name != null) {
+                addId(name, id);
+            }
+        }
+        return name;
+    }
+
+    private void addId(String name, long id) {
+        exact.compute(name, (key, ids) -> {
+            long[] updated;
+            if (ids == null) {
+                updated = new long[]{id};
+            } else {
+                int position = -Arrays.binarySearch(ids, id) - 1;
+                updated = new long[ids.length + 1];
+                System.arraycopy(ids, 0, updated, 0, position);
+                updated[position] = id;
+                System.arraycopy(ids, position, updated, position + 1, ids.length - position);
+            }
+            sorted.put(name, updated);
+            return updated;
+        });
+    }
+
+    private void removeId(String name, long id) {
+        exact.computeIfPresent(name, (key, ids) -> {
+            int position = Arrays.binarySearch(ids, id);
+            if (position < 0) {
+                return ids;
+            }
+            if (ids.length == 1) {
+                sorted.remove(name);
+                return null;
+            }
+            long[] updated = new long[ids.length - 1];
+            System.arraycopy(ids, 0, updated, 0, position);
+            System.arraycopy(ids, position + 1, updated, position, ids.length - position - 1);
+            sorted.put(name, updated);
+            return updated;
+        });
+    }
+
+    private static void checkPage(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("offset 과 limit 은 0 이상이어야 합니다. offset = " + offset + ", limit = " + limit);
+        }
+    }
+}
@@ -1,8 +1,107 @@
 package hello.core.member;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 public interface MemberRepository {
 
     void save(Member member);
 
     Member findById(Long id);
+
+    // 박싱 없이 조회하는 오버로드. 기본 구현은 박싱해서 findById(Long) 에 위임하고,
+    // PrimitiveMemberRepository 처럼 long 키를 직접 다루는 구현체가 재정의한다.
+    default Member findById(long id) {
+        return findById(Long.valueOf(id));
+    }
+
+    /*
+    * [ 일괄 저장/조회 ]
+    * 기본 구현은 단건 메서드를 반복 호출한다. 락을 잡는 구현체는 재정의해서 락을 한 번만 잡도록 한다.
+    * findAllById 는 입력 순서와 같은 순서로 결과를 돌려주고, 없는 회원 자리에는 null 을 넣는다.
+    * */
+    default void saveAll(Collection<Member> members) {
+        for (Member member : members) {
+            save(member);
+        }
+    }
+
+    default List<Member> findAllById(Collection<Long> ids) {
+        List<Member> members = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            members.add(findById(id));
+        }
+        return members;
+    }
+
+    default Member[] findAllById(long[] ids) {
+        Member[] members = new Member[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            members[i] = findById(ids[i]);
+        }
+        return members;
+    }
+
+    /*
+    * 저장된 모든 회원. (순서는 정해져 있지 않다)
+    * 아래 이름/등급 조회의 기본 구현이 이 목록을 훑는다. 인덱스가 있는 구현체는 조회 메서드를 재정의한다.
+    * */
+    List<Member> findAll();
+
+    /*
+    * [ 이름 조회 ]
+    * 이름이 name 인 회원 / 이름이 prefix 로 시작하는 회원을 (이름, id) 순서로 offset 번째부터 최대 limit 명 돌려준다.
+    * 이름 인덱스(MemberNameIndex)를 가진 구현체(MemoryMemberRepository, ConcurrentMemberRepository)는 결과 수만큼만 읽고,
+    * 그 밖의 구현체는 기본 구현(findAll 을 훑는다)이나 각자의 방법(JdbcMemberRepository 는 SQL)으로 찾는다.
+    * 저장 시점의 이름으로 색인하므로, 저장한 회원의 이름을 setName 으로 바꿨다면 다시 save 해야 조회에 반영된다.
+    * */
+    default List<Member> findByName(String name, int offset, int limit) {
+        checkPage(offset, limit);
+        if (name == null) {
+            return List.of();
+        }
+        return page(findAll().stream().filter(member -> name.equals(member.getName())), offset, limit);
+    }
+
+    default List<Member> findByNamePrefix(String prefix, int offset, int limit) {
+        checkPage(offset, limit);
+        if (prefix == null) {
+            return List.of();
+        }
+        return page(findAll().stream().filter(member -> member.getName() != null && member.getName().startsWith(prefix)), offset, limit);
+    }
+
+    /*
+    * [ 등급 조회 ]
+    * 등급별 회원 수와 등급에 속한 회원 목록. 목록은 어느 구현체든 id 순서다.
+    * grade 가 null 이면 등급이 없는 회원을 센다/돌려준다.
+    * 등급 인덱스(MemberGradeIndex)를 가진 MemoryMemberRepository 는 비트맵으로 세고, 그 밖의 구현체는 findAll 을 훑는다.
+    * */
+    default int countByGrade(Grade grade) {
+        return (int) findAll().stream().filter(member -> member.getGrade() == grade).count();
+    }
+
+    default Stream<Member> streamByGrade(Grade grade) {
+        return findAll().stream()
+                .filter(member -> member.getGrade() == grade)
+                .sorted(Comparator.comparing(Member::getId));
+    }
+
+    private static List<Member> page(Stream<Member> members, int offset, int limit) {
+        return members
+                .sorted(Comparator.comparing(Member::getName).thenComparing(Member::getId))
+                .skip(offset)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    private static void checkPage(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("offset 과 limit 은 0 이상이어야 합니다. offset = " + offset + ", limit = " + limit);
+        }
+    }
 }
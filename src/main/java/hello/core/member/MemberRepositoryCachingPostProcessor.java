@@ -0,0 +1,42 @@
+package hello.core.member;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/*
+* member.cache.enabled=true 이면 회원 저장소 빈(member.repository 로 고른 구현체)을 CachingMemberRepository 로 감싸서 등록한다.
+*  - member.cache.maximum-size    : 캐시 최대 회원 수 (기본 10000)
+*  - member.cache.ttl-ms          : 회원 캐시 유지 시간 (기본 60000)
+*  - member.cache.negative-ttl-ms : 없는 id 캐시 유지 시간 (기본 5000, 0 이면 없는 id 는 캐시하지 않는다)
+*
+* MemberServiceImpl, OrderServiceImpl 처럼 MemberRepository 를 주입 받는 코드는 바뀌지 않는다.
+* 컨테이너는 소멸 콜백(@PreDestroy 등)을 감싸기 전의 원본 빈에 등록하므로, 종료할 때는 원본 저장소의 @PreDestroy 가 그대로 호출된다.
+* */
+@Component
+@ConditionalOnProperty(name = "member.cache.enabled", havingValue = "true")
+public class MemberRepositoryCachingPostProcessor implements BeanPostProcessor {
+
+    private final int maximumSize;
+    private final long ttlMillis;
+    private final long negativeTtlMillis;
+
+    @Autowired
+    public MemberRepositoryCachingPostProcessor(@Value("${member.cache.maximum-size:10000}") int maximumSize,
+                                                @Value("${member.cache.ttl-ms:60000}") long ttlMillis,
+                                                @Value("${member.cache.negative-ttl-ms:5000}") long negativeTtlMillis) {
+        this.maximumSize = maximumSize;
+        this.ttlMillis = ttlMillis;
+        this.negativeTtlMillis = negativeTtlMillis;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof MemberRepository) || bean instanceof CachingMemberRepository) {
+            return bean;
+        }
+        return new CachingMemberRepository((MemberRepository) bean, maximumSize, ttlMillis, negativeTtlMillis);
+    }
+}
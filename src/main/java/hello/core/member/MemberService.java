@@ -1,6 +1,15 @@
 package hello.core.member;
 
+import java.util.Collection;
+
 public interface MemberService {
     void join(Member member);
     Member findMember(Long id);
+
+    default Member findMember(long id) {
+        return findMember(Long.valueOf(id));
+    }
+
+    // 여러 회원을 한 번에 가입시킨다. (대량 등록용)
+    void joinAll(Collection<Member> members);
 }
@@ -3,6 +3,8 @@ package hello.core.member;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
+
 @Component
 public class MemberServiceImpl implements MemberService {
 
@@ -19,11 +21,21 @@ public class MemberServiceImpl implements MemberService {
         memberRepository.save(member);
     }
 
+    @Override
+    public void joinAll(Collection<Member> members) {
+        memberRepository.saveAll(members);
+    }
+
     @Override
     public Member findMember(Long id) {
         return memberRepository.findById(id);
     }
 
+    @Override
+    public Member findMember(long id) {
+        return memberRepository.findById(id);
+    }
+
     public MemberRepository getMemberRepository() {
         return this.memberRepository;
     }
@@ -0,0 +1,114 @@
+package hello.core.member;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Stream;
+
+/*
+* HashMap 은 동시성을 고려하지 않은 자료구조라서, 여러 스레드(톰캣 워커 스레드 등)가 동시에 save/findById 를 호출하면
+* 쓰기가 유실되거나 resize 도중 조회가 꼬일 수 있다. 동시 요청을 받는 환경이라면 ConcurrentMemberRepository 를 사용하자.
+*
+* 이름 조회(findByName, findByNamePrefix)를 위해 저장할 때 MemberNameIndex 도 함께 갱신한다.
+* 등급 조회(countByGrade, streamByGrade)를 위한 MemberGradeIndex 는 저장할 때와 저장된 회원의 setGrade 가 호출될 때 갱신한다.
+*
+* member.repository 속성으로 저장소 구현체를 선택한다. 속성을 지정하지 않으면(기본값) MemoryMemberRepository 가 등록된다.
+* */
+@Component
+@ConditionalOnProperty(name = "member.repository", havingValue = "memory", matchIfMissing = true)
+public class MemoryMemberRepository implements MemberRepository{
+
+    // 메모리 저장소 생성
+    private static HashMap<Long, Member> store = new HashMap<>();
+    // store 와 같이 static 으로 두어야 인스턴스가 달라도 저장소와 인덱스가 어긋나지 않는다.
+    private static MemberNameIndex nameIndex = new MemberNameIndex();
+    private static MemberGradeIndex gradeIndex = new MemberGradeIndex();
+    // 같은 id 로 다른 회원 객체가 저장된 뒤에는, 예전 객체의 등급 변경은 인덱스에 반영하지 않는다.
+    private static final GradeChangeListener gradeChangeListener = (member, previous, current) -> {
+        if (store.get(member.getId()) == member) {
+            gradeIndex.put(member.getId(), current);
+        }
+    };
+
+    @Override
+    public void save(Member member) {
+        store.put(member.getId(), member);
+        index(member);
+    }
+
+    @Override
+    public Member findById(Long id) {
+        return store.get(id);
+    }
+
+    // 일괄 처리는 인터페이스 기본 구현(단건 메서드 반복) 대신 저장소에 바로 접근한다.
+    @Override
+    public void saveAll(Collection<Member> members) {
+        for (Member member : members) {
+            store.put(member.getId(), member);
+            index(member);
+        }
+    }
+
+    @Override
+    public List<Member> findAllById(Collection<Long> ids) {
+        List<Member> members = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            members.add(store.get(id));
+        }
+        return members;
+    }
+
+    @Override
+    public Member[] findAllById(long[] ids) {
+        Member[] members = new Member[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            members[i] = store.get(ids[i]);
+        }
+        return members;
+    }
+
+    @Override
+    public List<Member> findAll() {
+        return new ArrayList<>(store.values());
+    }
+
+    @Override
+    public List<Member> findByName(String name, int offset, int limit) {
+        return Arrays.asList(findAllById(nameIndex.findIds(name, offset, limit)));
+    }
+
+    @Override
+    public List<Member> findByNamePrefix(String prefix, int offset, int limit) {
+        return Arrays.asList(findAllById(nameIndex.findIdsByPrefix(prefix, offset, limit)));
+    }
+
+    @Override
+    public int countByGrade(Grade grade) {
+        return gradeIndex.count(grade);
+    }
+
+    // 비트맵은 처음 저장된 순서(순번)로 id 를 내보내므로, 다른 구현체와 같게 id 순서로 정렬한다.
+    @Override
+    public Stream<Member> streamByGrade(Grade grade) {
+        return gradeIndex.memberIds(gradeIndex.bitmap(grade)).sorted().mapToObj(store::get);
+    }
+
+    // 여러 세그먼트를 and/or 로 조합할 때 사용한다.
+    public MemberGradeIndex getGradeIndex() {
+        return gradeIndex;
+    }
+
+    private void index(Member member) {
+        if (member.getId() != null) {
+            nameIndex.put(member.getId(), member.getName());
+            gradeIndex.put(member.getId(), member.getGrade());
+            member.setGradeChangeListener(gradeChangeListener);
+        }
+    }
+}
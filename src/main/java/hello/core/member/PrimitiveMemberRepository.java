@@ -0,0 +1,157 @@
+package hello.core.member;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+
+/*
+* [ long 키 전용 회원 저장소 ]
+* LongMemberMap 을 사용해서 Long 박싱과 HashMap.Node 객체 없이 회원을 저장한다. 회원 수가 수천만 단위가 되면
+* Long/Node 객체만으로 수 GB 를 차지하므로, 힙 사용량과 GC 부담을 크게 줄일 수 있다.
+*
+* 동시성 제어는 StampedLock 으로 한다.
+*  - 쓰기: 쓰기 락을 잡고 저장한다.
+*  - 읽기: 먼저 락 없이 읽고(optimistic read) validate 로 그 사이에 쓰기가 없었는지 확인한다.
+*          쓰기와 겹쳤을 때만 읽기 락을 잡고 다시 읽는다. 대부분의 조회는 락도, 객체 생성도 없다.
+*
+* application.properties 에 member.repository=primitive 를 지정하면 이 구현체가 빈으로 등록된다.
+* */
+@Component
+@ConditionalOnProperty(name = "member.repository", havingValue = "primitive")
+public class PrimitiveMemberRepository implements MemberRepository {
+
+    private final LongMemberMap store;
+    private final StampedLock lock = new StampedLock();
+
+    public PrimitiveMemberRepository() {
+        this(16);
+    }
+
+    public PrimitiveMemberRepository(int expectedSize) {
+        this.store = new LongMemberMap(expectedSize);
+    }
+
+    @Override
+    public void save(Member member) {
+        long id = idOf(member);
+        long stamp = lock.writeLock();
+        try {
+            store.put(id, member);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Member findById(Long id) {
+        return id == null ? null : findById(id.longValue());
+    }
+
+    @Override
+    public Member findById(long id) {
+        long stamp = lock.tryOptimisticRead();
+        Member member = store.get(id);
+        if (lock.validate(stamp)) {
+            return member;
+        }
+        stamp = lock.readLock();
+        try {
+            return store.get(id);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // 일괄 저장은 쓰기 락을 한 번만 잡는다. id 가 없는 회원이 있으면 하나도 저장하지 않는다.
+    @Override
+    public void saveAll(Collection<Member> members) {
+        for (Member member : members) {
+            idOf(member);
+        }
+        long stamp = lock.writeLock();
+        try {
+            for (Member member : members) {
+                store.put(member.getId(), member);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public List<Member> findAllById(Collection<Long> ids) {
+        long[] primitiveIds = new long[ids.size()];
+        int i = 0;
+        for (Long id : ids) {
+            if (id == null) {
+                // null id 는 조회 결과도 null 이어야 하므로 단건 조회 방식으로 처리한다.
+                return MemberRepository.super.findAllById(ids);
+            }
+            primitiveIds[i++] = id;
+        }
+        return Arrays.asList(findAllById(primitiveIds));
+    }
+
+    // 일괄 조회도 optimistic read 한 번으로 전체를 읽고, 중간에 쓰기가 끼어든 경우에만 읽기 락으로 다시 읽는다.
+    @Override
+    public Member[] findAllById(long[] ids) {
+        Member[] members = new Member[ids.length];
+        long stamp = lock.tryOptimisticRead();
+        for (int i = 0; i < ids.length; i++) {
+            members[i] = store.get(ids[i]);
+        }
+        if (lock.validate(stamp)) {
+            return members;
+        }
+        stamp = lock.readLock();
+        try {
+            for (int i = 0; i < ids.length; i++) {
+                members[i] = store.get(ids[i]);
+            }
+            return members;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public List<Member> findAll() {
+        long stamp = lock.readLock();
+        try {
+            return store.values();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return store.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public long tableBytes() {
+        long stamp = lock.readLock();
+        try {
+            return store.tableBytes();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // long 키로 저장하므로 id 가 없는 회원은 받을 수 없다.
+    private static long idOf(Member member) {
+        Long id = member.getId();
+        if (id == null) {
+            throw new IllegalArgumentException("id 가 없는 회원은 저장할 수 없습니다. name = " + member.getName());
+        }
+        return id;
+    }
+}
@@ -0,0 +1,109 @@
+package hello.core.member;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/*
+* [ 느린 회원 저장소 (원격 저장소 흉내) ]
+* 운영에서는 회원 저장소가 DB 나 다른 서비스처럼 호출마다 네트워크 왕복이 있는 저장소가 된다.
+* 이 저장소는 다른 저장소를 감싸서 호출마다 latency 만큼 멈춘다. (일괄 호출은 왕복 한 번으로 보고 한 번만 멈춘다)
+* CachingMemberRepository 의 효과를 로컬에서 확인/벤치마크하기 위한 용도다.
+*
+* application.properties 에 member.repository=slow 를 지정하면 ConcurrentMemberRepository 를 감싼 이 구현체가 빈으로 등록된다.
+*  - member.slow.latency-us : 호출 한 번의 지연 (기본 1000us)
+* */
+@Component
+@ConditionalOnProperty(name = "member.repository", havingValue = "slow")
+public class SlowMemberRepository implements MemberRepository {
+
+    private final MemberRepository delegate;
+    private final long latencyNanos;
+
+    @Autowired
+    public SlowMemberRepository(@Value("${member.slow.latency-us:1000}") long latencyMicros) {
+        this(new ConcurrentMemberRepository(), latencyMicros);
+    }
+
+    public SlowMemberRepository(MemberRepository delegate, long latencyMicros) {
+        if (latencyMicros < 0) {
+            throw new IllegalArgumentException("지연 시간은 0 이상이어야 합니다. latencyMicros = " + latencyMicros);
+        }
+        this.delegate = delegate;
+        this.latencyNanos = TimeUnit.MICROSECONDS.toNanos(latencyMicros);
+    }
+
+    @Override
+    public void save(Member member) {
+        roundTrip();
+        delegate.save(member);
+    }
+
+    @Override
+    public Member findById(Long id) {
+        roundTrip();
+        return delegate.findById(id);
+    }
+
+    @Override
+    public void saveAll(Collection<Member> members) {
+        roundTrip();
+        delegate.saveAll(members);
+    }
+
+    @Override
+    public Member[] findAllById(long[] ids) {
+        roundTrip();
+        return delegate.findAllById(ids);
+    }
+
+    @Override
+    public List<Member> findAll() {
+        roundTrip();
+        return delegate.findAll();
+    }
+
+    // 이름/등급 조회도 감싼 저장소의 구현(인덱스 등)을 그대로 쓴다.
+    @Override
+    public List<Member> findByName(String name, int offset, int limit) {
+        roundTrip();
+        return delegate.findByName(name, offset, limit);
+    }
+
+    @Override
+    public List<Member> findByNamePrefix(String prefix, int offset, int limit) {
+        roundTrip();
+        return delegate.findByNamePrefix(prefix, offset, limit);
+    }
+
+    @Override
+    public int countByGrade(Grade grade) {
+        roundTrip();
+        return delegate.countByGrade(grade);
+    }
+
+    @Override
+    public Stream<Member> streamByGrade(Grade grade) {
+        roundTrip();
+        return delegate.streamByGrade(grade);
+    }
+
+    private void roundTrip() {
+        if (latencyNanos == 0) {
+            return;
+        }
+        // parkNanos 는 중간에 깨어날 수 있으므로 남은 시간만큼 다시 멈춘다.
+        long deadline = System.nanoTime() + latencyNanos;
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package hello.core.member;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*
+* [ 버전 관리 회원 저장소 (MVCC) ]
+* Member 는 setName/setGrade 로 바뀌는 객체라서, 저장소가 저장한 객체를 그대로 돌려주면 오래 걸리는 리포트가 읽는 도중에
+* join 이 같은 회원을 바꾸면 반쯤 바뀐 상태를 보게 된다.
+*
+* 이 저장소는 회원을 바꾸지 않는 버전(MemberVersion)으로 저장한다.
+*  - 쓰기: 쓰기 락 하나로 순서를 정하고, 새 버전 번호를 붙인 MemberVersion 을 이전 버전 앞에 연결(version chain)한 뒤
+*          publishedVersion(volatile) 을 올려서 공개한다. saveAll 은 여러 회원을 같은 버전 번호로 한 번에 공개한다.
+*  - 읽기: 락 없이 chain 의 맨 앞(최신 버전)을 읽는다.
+*  - 스냅샷: openSnapshot() 시점의 publishedVersion 을 기억하고, 조회할 때마다 chain 에서 그 번호 이하인 가장 최신 버전을 찾는다.
+*            스냅샷을 연 뒤의 쓰기는 번호가 더 크므로 보이지 않는다. 스냅샷 조회도 락을 잡지 않으므로 쓰기를 막지 않는다.
+* 돌려주는 Member 는 버전에서 새로 만든 복사본이다. 호출한 쪽이 바꿔도 저장소에는 영향이 없고, 바꾼 내용을 반영하려면 save 해야 한다.
+*
+* 최신 조회는 StampedLock 의 optimistic read 처럼 publishedVersion 을 먼저 읽고, chain 에서 그 번호의 버전을 찾은 뒤
+* 그 사이 publishedVersion 이 바뀌지 않았는지 확인한다. 바뀌었으면(그 사이 쓰기가 공개되었으면) 다시 읽는다.
+*
+* [ 오래된 버전 정리 ]
+* chain 에는 최신 버전, 공개 직전의 버전(최신 조회용), 열려 있는 스냅샷마다 그 스냅샷이 보는 버전만 남기면 된다.
+*  - 쓰기: 저장하는 회원의 chain 은 저장할 때 바로 정리한다.
+*  - 스냅샷 close: 가장 오래된 스냅샷이 닫히면 전체 chain 을 훑어서 정리한다. (reclaim, 쓰기 락을 잡고 회원 수만큼 훑는다)
+* 스냅샷을 열고 닫는 동안만 스냅샷 목록을 잠근다. 조회는 이 락도 잡지 않는다.
+*
+* application.properties 에 member.repository=versioned 를 지정하면 이 구현체가 빈으로 등록된다.
+* */
+@Component
+@ConditionalOnProperty(name = "member.repository", havingValue = "versioned")
+public class VersionedMemberRepository implements MemberRepository {
+
+    private final ConcurrentHashMap<Long, MemberVersion> store = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile long publishedVersion;
+
+    // 열려 있는 스냅샷 버전 → 개수
+    private final TreeMap<Long, Integer> activeSnapshots = new TreeMap<>();
+
+    @Override
+    public void save(Member member) {
+        checkId(member);
+        writeLock.lock();
+        try {
+            long version = publishedVersion + 1;
+            put(member, version, retainedVersions());
+            publishedVersion = version;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // 모든 회원을 같은 버전으로 공개한다. 스냅샷은 이 회원들을 모두 보거나 모두 보지 않는다.
+    @Override
+    public void saveAll(Collection<Member> members) {
+        for (Member member : members) {
+            checkId(member);
+        }
+        writeLock.lock();
+        try {
+            long version = publishedVersion + 1;
+            long[] retained = retainedVersions();
+            for (Member member : members) {
+                put(member, version, retained);
+            }
+            publishedVersion = version;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // 최신 버전의 복사본
+    @Override
+    public Member findById(Long id) {
+        if (id == null) {
+            return null;
+        }
+        while (true) {
+            long version = publishedVersion;
+            MemberVersion head = store.get(id);
+            // 공개 전(publishedVersion 을 올리기 전)의 버전은 최신 조회에도 보이지 않게 한다.
+            MemberVersion visible = head == null ? null : head.visibleAt(version);
+            if (publishedVersion == version) {
+                return visible == null ? null : visible.toMember();
+            }
+        }
+    }
+
+    // 지금 공개된 버전의 모든 회원. 한 스냅샷에서 읽으므로 saveAll 의 일부만 보이는 일은 없다.
+    @Override
+    public List<Member> findAll() {
+        try (Snapshot snapshot = openSnapshot()) {
+            return snapshot.stream().collect(Collectors.toList());
+        }
+    }
+
+    // 지금까지 공개된 버전으로 스냅샷을 연다. 다 읽었으면 반드시 close 한다. (try-with-resources)
+    public Snapshot openSnapshot() {
+        synchronized (activeSnapshots) {
+            long version = publishedVersion;
+            activeSnapshots.merge(version, 1, Integer::sum);
+            return new Snapshot(version);
+        }
+    }
+
+    /*
+    * 아무도 읽지 않는 버전을 정리하고, 정리한 버전 수를 돌려준다.
+    * 가장 오래된 스냅샷이 닫힐 때 자동으로 호출된다. 회원 수만큼 훑는 동안 쓰기를 기다리게 한다.
+    * */
+    public int reclaim() {
+        writeLock.lock();
+        try {
+            long[] retained = retainedVersions();
+            int reclaimed = 0;
+            for (MemberVersion head : store.values()) {
+                reclaimed += head.retain(retained);
+            }
+            return reclaimed;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public long getPublishedVersion() {
+        return publishedVersion;
+    }
+
+    public int getActiveSnapshotCount() {
+        synchronized (activeSnapshots) {
+            int count = 0;
+            for (int value : activeSnapshots.values()) {
+                count += value;
+            }
+            return count;
+        }
+    }
+
+    // 저장하고 있는 전체 버전 수 (회원 수 + 아직 정리되지 않은 이전 버전 수). 모든 chain 을 훑는다.
+    public long versionCount() {
+        long count = 0;
+        for (MemberVersion head : store.values()) {
+            for (MemberVersion version = head; version != null; version = version.previous) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int size() {
+        return store.size();
+    }
+
+    private void put(Member member, long version, long[] retained) {
+        MemberVersion head = store.get(member.getId());
+        MemberVersion created = new MemberVersion(version, member.getId(), member.getName(), member.getGrade(), head);
+        created.retain(retained);
+        store.put(member.getId(), created);
+    }
+
+    /*
+    * chain 에 남겨야 하는 버전 번호 (내림차순): 지금 공개된 버전 + 열려 있는 스냅샷 버전들.
+    * 쓰기 락을 잡은 채로 부르므로 publishedVersion 은 바뀌지 않고, 이후에 열리는 스냅샷도 publishedVersion 을 보게 된다.
+    * */
+    private long[] retainedVersions() {
+        synchronized (activeSnapshots) {
+            long[] versions = new long[activeSnapshots.size() + 1];
+            versions[0] = publishedVersion;
+            int i = 1;
+            for (long version : activeSnapshots.descendingKeySet()) {
+                versions[i++] = version;
+            }
+            return versions;
+        }
+    }
+
+    private void release(long version) {
+        boolean oldest;
+        synchronized (activeSnapshots) {
+            oldest = activeSnapshots.firstKey() == version;
+            if (activeSnapshots.merge(version, -1, Integer::sum) == 0) {
+                activeSnapshots.remove(version);
+            } else {
+                oldest = false;
+            }
+        }
+        if (oldest) {
+            reclaim();
+        }
+    }
+
+    private static void checkId(Member member) {
+        if (member.getId() == null) {
+            throw new IllegalArgumentException("id 가 없는 회원은 저장할 수 없습니다. name = " + member.getName());
+        }
+    }
+
+    /*
+    * 특정 시점(version)의 저장소를 읽는다. 여러 스레드에서 함께 읽어도 된다.
+    * 스냅샷을 연 뒤에 저장된 회원이나 바뀐 내용은 보이지 않는다.
+    * */
+    public final class Snapshot implements AutoCloseable {
+
+        private final long version;
+        private boolean closed;
+
+        private Snapshot(long version) {
+            this.version = version;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public Member findById(Long id) {
+            checkOpen();
+            MemberVersion head = id == null ? null : store.get(id);
+            MemberVersion visible = head == null ? null : head.visibleAt(version);
+            return visible == null ? null : visible.toMember();
+        }
+
+        // 스냅샷 시점의 모든 회원 (순서는 정해져 있지 않다). 결과 리스트를 만들지 않고 하나씩 흘려보낸다.
+        // 스트림은 스냅샷을 닫기 전에 다 읽어야 한다. 닫은 뒤에는 필요한 버전이 정리되었을 수 있다.
+        public Stream<Member> stream() {
+            checkOpen();
+            return store.values().stream()
+                    .map(head -> head.visibleAt(version))
+                    .filter(visible -> visible != null)
+                    .map(MemberVersion::toMember);
+        }
+
+        @Override
+        public void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+            }
+            release(version);
+        }
+
+        private synchronized void checkOpen() {
+            if (closed) {
+                throw new IllegalStateException("닫힌 스냅샷입니다. version = " + version);
+            }
+        }
+    }
+
+    // 회원 한 명의 한 버전. previous 만 정리할 때 바꾼다.
+    private static final class MemberVersion {
+        final long version;
+        final Long id;
+        final String name;
+        final Grade grade;
+        volatile MemberVersion previous;
+
+        MemberVersion(long version, Long id, String name, Grade grade, MemberVersion previous) {
+            this.version = version;
+            this.id = id;
+            this.name = name;
+            this.grade = grade;
+            this.previous = previous;
+        }
+
+        // version 이하인 가장 최신 버전 (없으면 null: 그 시점에는 없던 회원)
+        MemberVersion visibleAt(long snapshotVersion) {
+            MemberVersion current = this;
+            while (current != null && current.version > snapshotVersion) {
+                current = current.previous;
+            }
+            return current;
+        }
+
+        /*
+        * 자신과, versions(내림차순) 각각에서 보이는 버전만 chain 에 남기고 정리한 버전 수를 돌려준다.
+        * 남기는 버전끼리 previous 를 바로 이어 붙인다. 빠지는 버전의 previous 는 그대로 두므로,
+        * 정리하는 중에 그 버전을 지나가던 조회도 원래 chain 을 따라 남는 버전에 도착한다.
+        * */
+        int retain(long[] versions) {
+            MemberVersion kept = this;
+            MemberVersion current = previous;
+            int pruned = 0;
+            for (long version : versions) {
+                if (kept.version <= version) {
+                    continue;
+                }
+                while (current != null && current.version > version) {
+                    current = current.previous;
+                    pruned++;
+                }
+                if (current == null) {
+                    break;
+                }
+                kept.previous = current;
+                kept = current;
+                current = current.previous;
+            }
+            for (; current != null; current = current.previous) {
+                pruned++;
+            }
+            kept.previous = null;
+            return pruned;
+        }
+
+        Member toMember() {
+            return new Member(id, name, grade);
+        }
+    }
+}
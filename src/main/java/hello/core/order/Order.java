@@ -4,17 +4,19 @@ public class Order {
 
     private Long memberId;
     private String itemName;
-    private int itemPrice;
-    private int discountPrice;
+    // 금액은 long 최소 화폐 단위 (DiscountPolicy 참고)
+    private long itemPrice;
+    private long discountPrice;
 
-    public Order(Long memberId, String itemName, int itemPrice, int discountPrice) {
+    public Order(Long memberId, String itemName, long itemPrice, long discountPrice) {
         this.memberId = memberId;
         this.itemName = itemName;
         this.itemPrice = itemPrice;
         this.discountPrice = discountPrice;
     }
 
-    public int calculate(){
+    // 주문 여러 건의 결제 금액은 OrderPricing.calculate 로 배열 단위로 계산할 수 있다.
+    public long calculate(){
         return itemPrice-discountPrice;
     }
 
@@ -34,19 +36,19 @@ public class Order {
         this.itemName = itemName;
     }
 
-    public int getItemPrice() {
+    public long getItemPrice() {
         return itemPrice;
     }
 
-    public void setItemPrice(int itemPrice) {
+    public void setItemPrice(long itemPrice) {
         this.itemPrice = itemPrice;
     }
 
-    public int getDiscountPrice() {
+    public long getDiscountPrice() {
         return discountPrice;
     }
 
-    public void setDiscountPrice(int discountPrice) {
+    public void setDiscountPrice(long discountPrice) {
         this.discountPrice = discountPrice;
     }
 
@@ -0,0 +1,288 @@
+package hello.core.order;
+
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/*
+* [ 주문 실시간 집계 ]
+* 등급별/상품별 매출과 할인 합계를 주문이 만들어질 때마다 바로 더해 둔다. 조회할 때 주문 기록을 다시 훑지 않는다.
+*
+* 카운터는 LongAdder 로 만든다. LongAdder 는 스레드마다 다른 칸(cell)에 더하고 읽을 때 합치므로,
+* 여러 주문 스레드가 같은 등급에 동시에 더해도 AtomicLong 처럼 한 변수에서 CAS 경쟁이 일어나지 않는다. (락 없음)
+*  - 등급별 : 등급마다 카운터 묶음 하나 (회원이 없는 주문은 byGrade(null))
+*  - 상품별 : ConcurrentHashMap<상품명, 카운터 묶음>, 처음 보는 상품만 computeIfAbsent 로 한 번 만든다.
+*
+* [ 최근 구간 집계 (sliding window) ]
+* 시간을 bucket-ms 단위 칸으로 나누고, 최근 window-buckets 칸만 링 배열에 둔다.
+* 주문은 현재 시각의 칸에 더하고, 링을 한 바퀴 돌아 오래된 칸을 다시 쓸 때 그 칸을 0으로 비운다.
+* window() 는 최근 칸들만 합치므로 구간 길이와 상관없이 칸 수만큼만 읽는다.
+* 칸을 비우는 순간과 겹친 주문은 구간 집계에서 빠지거나 새 칸에 섞일 수 있다. (전체/등급별/상품별 합계는 항상 정확하다)
+*
+* 조회 결과(Totals)는 조회 시점의 값을 복사한 스냅샷이다. 여러 카운터를 하나씩 읽으므로,
+* 조회하는 동안 들어온 주문은 건수에는 들어가고 금액에는 아직 안 들어간 상태로 보일 수 있다.
+*
+* order.analytics.enabled=true 이면 빈으로 등록되고, OrderListener 로서 OrderServiceImpl 이 만든 주문을 모두 집계한다.
+*  - order.analytics.bucket-ms      : 구간 칸 크기 (기본 1000ms)
+*  - order.analytics.window-buckets : 구간 칸 수 (기본 60, 즉 최근 1분)
+* */
+@Component
+@ConditionalOnProperty(name = "order.analytics.enabled", havingValue = "true")
+public class OrderAnalytics implements OrderListener {
+
+    private static final Grade[] GRADES = Grade.values();
+    // 회원이 없는 주문의 등급 칸
+    private static final int NO_GRADE = GRADES.length;
+
+    private final long bucketMillis;
+    private final LongSupplier clock;
+
+    private final Counters[] byGrade = newCounters();
+    private final ConcurrentHashMap<String, Counters> byItem = new ConcurrentHashMap<>();
+    private final Bucket[] window;
+
+    @Autowired
+    public OrderAnalytics(@Value("${order.analytics.bucket-ms:1000}") long bucketMillis,
+                          @Value("${order.analytics.window-buckets:60}") int windowBuckets) {
+        this(bucketMillis, windowBuckets, System::currentTimeMillis);
+    }
+
+    // clock: 현재 시각(ms), 테스트에서 시간을 직접 움직일 때 사용한다.
+    public OrderAnalytics(long bucketMillis, int windowBuckets, LongSupplier clock) {
+        if (bucketMillis <= 0 || windowBuckets <= 0) {
+            throw new IllegalArgumentException("구간 칸 크기와 칸 수는 0보다 커야 합니다. bucketMillis = "
+                    + bucketMillis + ", windowBuckets = " + windowBuckets);
+        }
+        this.bucketMillis = bucketMillis;
+        this.clock = clock;
+        this.window = new Bucket[windowBuckets];
+        for (int i = 0; i < windowBuckets; i++) {
+            window[i] = new Bucket();
+        }
+    }
+
+    @Override
+    public void orderCreated(Member member, Order order) {
+        record(member == null ? null : member.getGrade(), order);
+    }
+
+    public void record(Grade grade, Order order) {
+        int gradeIndex = grade == null ? NO_GRADE : grade.ordinal();
+        long itemPrice = order.getItemPrice();
+        long discountPrice = order.getDiscountPrice();
+
+        byGrade[gradeIndex].add(itemPrice, discountPrice);
+        if (order.getItemName() != null) {
+            Counters item = byItem.get(order.getItemName());
+            if (item == null) {
+                item = byItem.computeIfAbsent(order.getItemName(), name -> new Counters());
+            }
+            item.add(itemPrice, discountPrice);
+        }
+
+        long slot = Math.floorDiv(clock.getAsLong(), bucketMillis);
+        Bucket bucket = window[(int) Math.floorMod(slot, window.length)];
+        if (bucket.slot != slot) {
+            bucket.advance(slot);
+        }
+        // 오래 멈춰 있던 스레드의 주문이라 칸이 이미 다음 바퀴로 넘어갔으면 구간 집계에서는 뺀다.
+        if (bucket.slot == slot) {
+            bucket.byGrade[gradeIndex].add(itemPrice, discountPrice);
+        }
+    }
+
+    // 전체 합계
+    public Totals total() {
+        Totals.Builder builder = new Totals.Builder();
+        for (Counters counters : byGrade) {
+            builder.add(counters);
+        }
+        return builder.build();
+    }
+
+    // 등급별 합계 (grade 가 null 이면 회원이 없는 주문)
+    public Totals byGrade(Grade grade) {
+        return byGrade[grade == null ? NO_GRADE : grade.ordinal()].snapshot();
+    }
+
+    public Map<Grade, Totals> byGrade() {
+        Map<Grade, Totals> totals = new EnumMap<>(Grade.class);
+        for (Grade grade : GRADES) {
+            totals.put(grade, byGrade(grade));
+        }
+        return totals;
+    }
+
+    // 상품별 합계 (주문이 없던 상품이면 Totals.EMPTY)
+    public Totals byItem(String itemName) {
+        Counters counters = byItem.get(itemName);
+        return counters == null ? Totals.EMPTY : counters.snapshot();
+    }
+
+    public Map<String, Totals> byItem() {
+        Map<String, Totals> totals = new HashMap<>(byItem.size() * 2);
+        byItem.forEach((itemName, counters) -> totals.put(itemName, counters.snapshot()));
+        return Collections.unmodifiableMap(totals);
+    }
+
+    // 최근 구간(bucket-ms * window-buckets) 합계
+    public Totals window() {
+        Totals.Builder builder = new Totals.Builder();
+        long current = currentSlot();
+        for (Bucket bucket : window) {
+            if (bucket.isWithin(current, window.length)) {
+                for (Counters counters : bucket.byGrade) {
+                    builder.add(counters);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    // 최근 구간의 등급별 합계
+    public Totals window(Grade grade) {
+        int gradeIndex = grade == null ? NO_GRADE : grade.ordinal();
+        Totals.Builder builder = new Totals.Builder();
+        long current = currentSlot();
+        for (Bucket bucket : window) {
+            if (bucket.isWithin(current, window.length)) {
+                builder.add(bucket.byGrade[gradeIndex]);
+            }
+        }
+        return builder.build();
+    }
+
+    public long getWindowMillis() {
+        return bucketMillis * window.length;
+    }
+
+    public int itemCount() {
+        return byItem.size();
+    }
+
+    private long currentSlot() {
+        return Math.floorDiv(clock.getAsLong(), bucketMillis);
+    }
+
+    private static Counters[] newCounters() {
+        Counters[] counters = new Counters[GRADES.length + 1];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new Counters();
+        }
+        return counters;
+    }
+
+    private static final class Counters {
+        final LongAdder count = new LongAdder();
+        final LongAdder itemPrice = new LongAdder();
+        final LongAdder discountPrice = new LongAdder();
+
+        void add(long price, long discount) {
+            count.increment();
+            itemPrice.add(price);
+            discountPrice.add(discount);
+        }
+
+        void reset() {
+            count.reset();
+            itemPrice.reset();
+            discountPrice.reset();
+        }
+
+        Totals snapshot() {
+            return new Totals(count.sum(), itemPrice.sum(), discountPrice.sum());
+        }
+    }
+
+    private static final class Bucket {
+        // 이 칸이 담고 있는 시간 칸 번호 (시각 / bucketMillis)
+        volatile long slot = Long.MIN_VALUE;
+        final Counters[] byGrade = newCounters();
+
+        // 더 최근 칸으로만 넘어간다. 넘어갈 때 한 스레드만 비운다.
+        synchronized void advance(long newSlot) {
+            if (newSlot > slot) {
+                for (Counters counters : byGrade) {
+                    counters.reset();
+                }
+                slot = newSlot;
+            }
+        }
+
+        boolean isWithin(long current, int length) {
+            long s = slot;
+            return s <= current && s > current - length;
+        }
+    }
+
+    // 조회 시점의 합계 스냅샷 (불변)
+    public static final class Totals {
+
+        public static final Totals EMPTY = new Totals(0, 0, 0);
+
+        private final long count;
+        private final long itemPrice;
+        private final long discountPrice;
+
+        Totals(long count, long itemPrice, long discountPrice) {
+            this.count = count;
+            this.itemPrice = itemPrice;
+            this.discountPrice = discountPrice;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        // 할인 전 금액 합계
+        public long getItemPrice() {
+            return itemPrice;
+        }
+
+        // 할인 금액 합계
+        public long getDiscountPrice() {
+            return discountPrice;
+        }
+
+        // 결제 금액 합계 (매출)
+        public long getPayment() {
+            return itemPrice - discountPrice;
+        }
+
+        @Override
+        public String toString() {
+            return "Totals{" +
+                    "count=" + count +
+                    ", itemPrice=" + itemPrice +
+                    ", discountPrice=" + discountPrice +
+                    '}';
+        }
+
+        private static final class Builder {
+            long count;
+            long itemPrice;
+            long discountPrice;
+
+            void add(Counters counters) {
+                count += counters.count.sum();
+                itemPrice += counters.itemPrice.sum();
+                discountPrice += counters.discountPrice.sum();
+            }
+
+            Totals build() {
+                return count == 0 ? EMPTY : new Totals(count, itemPrice, discountPrice);
+            }
+        }
+    }
+}
@@ -0,0 +1,530 @@
+package hello.core.order;
+
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+/*
+* [ 주문 저널 (append-only write-ahead log) ]
+* 주문을 만들 때마다 고정 크기 segment 파일 끝에 바이너리 레코드로 덧붙인다. segment 파일은 메모리 맵(mmap)으로 열어서
+* 쓰기는 메모리 복사로 끝나고, 디스크 반영(fsync)은 별도 flusher 스레드가 모아서 한 번에 한다.
+*
+* [ group commit ]
+* fsync 는 한 번에 수 ms 가 걸릴 수 있으므로 주문마다 하면 초당 수백 건이 한계다.
+* flusher 스레드는 flush-interval 마다 그동안 쓰인 레코드를 한 번의 force() 로 디스크에 반영하고 durableSequence 를 올린다.
+* 주문 스레드는 자기 레코드 번호(sequence)가 durableSequence 이하가 될 때까지만 기다린다. (wait-for-sync=false 이면 기다리지 않는다)
+* 동시에 들어온 주문들이 fsync 한 번을 나누어 쓰므로 처리량은 fsync 횟수가 아니라 메모리 복사 속도에 가까워진다.
+*
+* [ segment 파일 ] orders-<첫 sequence 20자리>.log
+*  header : magic(int) version(int) firstSequence(long) segmentBytes(int) reserved(int)
+*           segmentBytes 는 파일을 만들 때의 segment 크기다. 다시 열 때는 현재 설정이 아니라 이 크기로 매핑한다.
+*           (segment-bytes 설정을 바꾸어도 기존 파일은 그대로 읽고, 새 segment 부터 새 크기를 쓴다)
+*  record : length(int) crc32(int) | sequence(long) memberId(long) grade(byte) itemPrice(long) discountPrice(long) nameLength(short) name(UTF-8)
+*           length 는 crc32 뒤 payload 크기, crc32 는 payload 의 CRC. length 가 0 이면 segment 의 끝이다. (새 파일은 0으로 채워져 있다)
+*
+* [ 복구 ] 시작할 때 모든 segment 를 처음부터 읽으면서 레코드를 확인한다. sequence 는 header 의 firstSequence 부터 이어져야 한다.
+* (오래된 segment 를 지웠어도 남은 첫 segment 는 그대로 읽힌다. segment 끼리 번호가 이어지지 않으면 시작을 멈춘다)
+* 길이가 범위를 벗어나거나, CRC 가 맞지 않거나, sequence 가 이어지지 않는 레코드를 만나면 그 지점을 쓰다 만 꼬리(torn write)로 보고
+* 그 뒤를 segment 끝까지 0으로 지운 다음 그 위치부터 이어 쓴다. 페이지는 순서 없이 디스크에 쓰일 수 있어서 꼬리 바로 뒤가 0 이어도
+* 더 뒤에 예전 레코드가 남아 있을 수 있고, 남겨 두면 이어 쓴 레코드와 번호가 겹친다. 복구된 레코드는 replay 로 다시 읽을 수 있다.
+* 꼬리를 지우는 것은 마지막 segment 뿐이다. 중간 segment 가 손상되었으면 아무것도 바꾸지 않고 IllegalStateException 으로 시작을 멈춘다.
+* 새 segment 는 header 를 쓰자마자 force() 하고 나서 레코드를 받는다. 그래도 마지막 segment 의 header 가 짧거나 모두 0 이면
+* (파일을 만든 직후 header 가 반영되기 전에 멈춘 경우) 확정된 레코드가 없는 segment 이므로 비운 뒤 header 를 다시 쓴다.
+*
+* order.journal.dir 을 지정하면 빈으로 등록되고, OrderListener 로서 OrderServiceImpl 이 만든 주문을 모두 기록한다.
+*  - order.journal.dir               : segment 파일 디렉토리
+*  - order.journal.segment-bytes     : segment 파일 크기 (기본 64MB)
+*  - order.journal.flush-interval-us : group commit 주기 (기본 1000us)
+*  - order.journal.wait-for-sync     : 주문 스레드가 fsync 완료까지 기다릴지 (기본 true)
+* */
+@Component
+@ConditionalOnProperty(name = "order.journal.dir")
+public class OrderJournal implements OrderListener, AutoCloseable {
+
+    private static final int MAGIC = 0x4F524A4C; // "ORJL"
+    private static final int VERSION = 2;
+    private static final int SEGMENT_HEADER_BYTES = 24;
+    private static final int RECORD_HEADER_BYTES = 8;
+    // sequence + memberId + grade + itemPrice + discountPrice + nameLength
+    private static final int FIXED_PAYLOAD_BYTES = 8 + 8 + 1 + 8 + 8 + 2;
+    private static final int MAX_NAME_BYTES = 0xFFFF;
+    private static final int MAX_RECORD_BYTES = RECORD_HEADER_BYTES + FIXED_PAYLOAD_BYTES + MAX_NAME_BYTES;
+    private static final long NO_MEMBER = Long.MIN_VALUE;
+    private static final byte NO_GRADE = -1;
+    private static final Grade[] GRADES = Grade.values();
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final long flushIntervalNanos;
+    private final boolean waitForSync;
+
+    // 쓰기 상태 (appendLock 으로 보호)
+    private final Object appendLock = new Object();
+    private final CRC32 crc = new CRC32();
+    private MappedByteBuffer segment;
+    private long nextSequence;
+    private long appendedSequence;
+
+    // 디스크 반영 상태 (syncLock 으로 보호)
+    private final Object syncLock = new Object();
+    private volatile long durableSequence;
+
+    private final int recoveredRecords;
+    private final long recoveredTornBytes;
+    private volatile long syncCount;
+    private volatile boolean running = true;
+    private final Thread flusher;
+
+    @Autowired
+    public OrderJournal(@Value("${order.journal.dir}") String dir,
+                        @Value("${order.journal.segment-bytes:67108864}") int segmentBytes,
+                        @Value("${order.journal.flush-interval-us:1000}") long flushIntervalMicros,
+                        @Value("${order.journal.wait-for-sync:true}") boolean waitForSync) {
+        this(Paths.get(dir), segmentBytes, flushIntervalMicros, waitForSync);
+    }
+
+    public OrderJournal(Path dir, int segmentBytes, long flushIntervalMicros, boolean waitForSync) {
+        if (segmentBytes < SEGMENT_HEADER_BYTES + MAX_RECORD_BYTES) {
+            throw new IllegalArgumentException("segment 크기가 너무 작습니다. segmentBytes = " + segmentBytes
+                    + ", 최소 = " + (SEGMENT_HEADER_BYTES + MAX_RECORD_BYTES));
+        }
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.flushIntervalNanos = TimeUnit.MICROSECONDS.toNanos(flushIntervalMicros);
+        this.waitForSync = waitForSync;
+        try {
+            Files.createDirectories(dir);
+            Recovery recovery = recover();
+            this.recoveredRecords = recovery.records;
+            this.recoveredTornBytes = recovery.tornBytes;
+            this.nextSequence = recovery.lastSequence + 1;
+            this.appendedSequence = recovery.lastSequence;
+            this.durableSequence = recovery.lastSequence;
+            this.segment = recovery.lastSegment != null ? recovery.lastSegment : createSegment(nextSequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException("주문 저널을 열 수 없습니다. dir = " + dir, e);
+        }
+        this.flusher = new Thread(this::flushLoop, "order-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @Override
+    public void orderCreated(Member member, Order order) {
+        long sequence = append(member == null ? null : member.getGrade(), order);
+        if (waitForSync) {
+            awaitDurable(sequence);
+        }
+    }
+
+    // 일괄 주문은 모두 기록한 다음 마지막 레코드의 디스크 반영만 한 번 기다린다. (주문 수만큼 group commit 을 기다리지 않는다)
+    @Override
+    public void ordersCreated(Member[] members, Order[] orders) {
+        long sequence = 0;
+        for (int i = 0; i < orders.length; i++) {
+            sequence = append(members[i] == null ? null : members[i].getGrade(), orders[i]);
+        }
+        if (waitForSync && orders.length > 0) {
+            awaitDurable(sequence);
+        }
+    }
+
+    // 레코드를 기록하고 sequence 를 돌려준다. 돌려받은 시점에는 아직 디스크에 반영되지 않았을 수 있다.
+    public long append(Grade grade, Order order) {
+        byte[] name = order.getItemName() == null ? new byte[0] : order.getItemName().getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("상품명이 너무 깁니다. bytes = " + name.length);
+        }
+        int payloadBytes = FIXED_PAYLOAD_BYTES + name.length;
+        synchronized (appendLock) {
+            if (!running) {
+                throw new IllegalStateException("주문 저널이 닫혔습니다.");
+            }
+            if (segment.remaining() < RECORD_HEADER_BYTES + payloadBytes) {
+                rollSegment();
+            }
+            long sequence = nextSequence++;
+            int start = segment.position();
+            segment.position(start + RECORD_HEADER_BYTES);
+            segment.putLong(sequence);
+            segment.putLong(order.getMemberId() == null ? NO_MEMBER : order.getMemberId());
+            segment.put(grade == null ? NO_GRADE : (byte) grade.ordinal());
+            segment.putLong(order.getItemPrice());
+            segment.putLong(order.getDiscountPrice());
+            segment.putShort((short) name.length);
+            segment.put(name);
+            int end = segment.position();
+
+            crc.reset();
+            crc.update(segment.duplicate().position(start + RECORD_HEADER_BYTES).limit(end));
+            segment.putInt(start + 4, (int) crc.getValue());
+            // length 를 마지막에 써서, 중간에 멈추면 length 0 (= 끝) 으로 읽히게 한다.
+            segment.putInt(start, payloadBytes);
+            appendedSequence = sequence;
+            return sequence;
+        }
+    }
+
+    // sequence 까지의 레코드가 디스크에 반영될 때까지 기다린다.
+    public void awaitDurable(long sequence) {
+        if (durableSequence >= sequence) {
+            return;
+        }
+        synchronized (syncLock) {
+            while (durableSequence < sequence) {
+                if (!running && !flusher.isAlive()) {
+                    throw new IllegalStateException("주문 저널이 닫혀서 기록을 보장할 수 없습니다. sequence = " + sequence);
+                }
+                try {
+                    syncLock.wait(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("디스크 반영을 기다리다 중단되었습니다. sequence = " + sequence, e);
+                }
+            }
+        }
+    }
+
+    /*
+    * 디스크에 있는 모든 레코드를 순서대로 읽는다. (재시작 후 OrderStore 등을 다시 채울 때 사용)
+    * 아직 디스크에 반영되지 않은 레코드는 포함되지 않을 수 있다.
+    * */
+    public void replay(RecordHandler handler) {
+        try {
+            for (Path file : segmentFiles()) {
+                ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+                scanSegment(buffer, -1, handler);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("주문 저널을 읽을 수 없습니다. dir = " + dir, e);
+        }
+    }
+
+    @PreDestroy
+    @Override
+    public void close() {
+        synchronized (appendLock) {
+            if (!running) {
+                return;
+            }
+            running = false;
+        }
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sync();
+    }
+
+    public long getAppendedSequence() {
+        synchronized (appendLock) {
+            return appendedSequence;
+        }
+    }
+
+    public long getDurableSequence() {
+        return durableSequence;
+    }
+
+    // 시작할 때 복구한 레코드 수
+    public int getRecoveredRecords() {
+        return recoveredRecords;
+    }
+
+    // 시작할 때 잘라낸 꼬리(쓰다 만 레코드)의 크기
+    public long getRecoveredTornBytes() {
+        return recoveredTornBytes;
+    }
+
+    // flusher 가 force() 를 호출한 횟수 (레코드 수보다 훨씬 적으면 group commit 이 잘 되고 있는 것)
+    public long getSyncCount() {
+        return syncCount;
+    }
+
+    private void flushLoop() {
+        while (running) {
+            LockSupport.parkNanos(flushIntervalNanos);
+            sync();
+        }
+    }
+
+    private void sync() {
+        long target;
+        MappedByteBuffer current;
+        synchronized (appendLock) {
+            target = appendedSequence;
+            current = segment;
+        }
+        if (target <= durableSequence) {
+            return;
+        }
+        // 이전 segment 는 rollSegment 에서 이미 반영했으므로 현재 segment 만 반영하면 된다.
+        current.force();
+        syncCount++;
+        synchronized (syncLock) {
+            durableSequence = target;
+            syncLock.notifyAll();
+        }
+    }
+
+    private void rollSegment() {
+        segment.force();
+        try {
+            segment = createSegment(nextSequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException("주문 저널 segment 를 만들 수 없습니다. dir = " + dir, e);
+        }
+    }
+
+    private MappedByteBuffer createSegment(long firstSequence) throws IOException {
+        Path file = dir.resolve(String.format("orders-%020d.log", firstSequence));
+        MappedByteBuffer buffer = map(file, segmentBytes);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putLong(firstSequence);
+        buffer.putInt(segmentBytes);
+        buffer.putInt(0);
+        // header 가 디스크에 없으면 다음 시작 때 저널 파일로 인식되지 않으므로, 레코드를 쓰기 전에 먼저 반영한다.
+        buffer.force();
+        return buffer;
+    }
+
+    private MappedByteBuffer map(Path file, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // 매핑은 채널을 닫아도 유지된다.
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    // segment 의 header 를 읽는다. 파일이 header 보다 짧으면 읽은 만큼만 채워진다. (position = 읽은 바이트 수)
+    private ByteBuffer readHeader(Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // header 를 다 읽을 때까지
+            }
+        }
+        return header;
+    }
+
+    // header 가 짧거나 모두 0 이면 header 를 쓰기 전(또는 반영되기 전)의 segment 다.
+    private boolean isBlank(ByteBuffer header) {
+        if (header.hasRemaining()) {
+            return true;
+        }
+        for (int p = 0; p < SEGMENT_HEADER_BYTES; p++) {
+            if (header.get(p) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 기존 segment 를 header 에 기록된 크기로 연다. 파일을 늘리거나 일부만 매핑하지 않도록 header 를 먼저 확인한다.
+    private MappedByteBuffer mapExisting(Path file, ByteBuffer header) throws IOException {
+        long fileSize = Files.size(file);
+        if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+            throw new IllegalStateException("주문 저널 파일 형식이 아닙니다. file = " + file);
+        }
+        if (header.getInt(4) != VERSION) {
+            throw new IllegalStateException("지원하지 않는 주문 저널 버전입니다. file = " + file + ", version = " + header.getInt(4));
+        }
+        if (header.getLong(8) < 1) {
+            throw new IllegalStateException("주문 저널 segment 의 첫 sequence 가 올바르지 않습니다. file = " + file
+                    + ", firstSequence = " + header.getLong(8));
+        }
+        int size = header.getInt(16);
+        if (size < SEGMENT_HEADER_BYTES || size > fileSize) {
+            throw new IllegalStateException("주문 저널 segment 크기가 파일과 맞지 않습니다. file = " + file
+                    + ", header = " + size + ", file = " + fileSize);
+        }
+        return map(file, size);
+    }
+
+    private Recovery recover() throws IOException {
+        Recovery recovery = new Recovery();
+        List<Path> files = segmentFiles();
+        for (int i = 0; i < files.size(); i++) {
+            Path file = files.get(i);
+            boolean last = i == files.size() - 1;
+            ByteBuffer header = readHeader(file);
+            if (last && isBlank(header)) {
+                // 확정된 레코드가 없는 segment 다. 남은 바이트를 버리고 파일 이름의 sequence 로 header 를 다시 쓴다.
+                long firstSequence = firstSequenceOf(file);
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(0);
+                }
+                recovery.lastSequence = firstSequence - 1;
+                recovery.lastSegment = createSegment(firstSequence);
+                continue;
+            }
+            MappedByteBuffer buffer = mapExisting(file, header);
+            long firstSequence = header.getLong(8);
+            if (i > 0 && firstSequence != recovery.lastSequence + 1) {
+                throw new IllegalStateException("주문 저널 segment 의 sequence 가 이어지지 않습니다. file = " + file
+                        + ", firstSequence = " + firstSequence + ", 이전 sequence = " + recovery.lastSequence);
+            }
+            recovery.lastSequence = firstSequence - 1;
+            long end = scanSegment(buffer, firstSequence - 1, record -> {
+                recovery.records++;
+                recovery.lastSequence = record.getSequence();
+            });
+            int validEnd = (int) end;
+            int dirtyEnd = dirtyEnd(buffer, validEnd);
+            if (!last) {
+                // 마지막이 아닌 segment 가 중간에 끊겼다면 그 뒤의 segment 는 이어지지 않으므로 믿을 수 없다.
+                // 파일은 건드리지 않는다. (지우면 다음 시작 때 손상이 보이지 않고, 뒤 segment 가 꼬리로 잘려 나간다)
+                if (dirtyEnd > validEnd) {
+                    throw new IllegalStateException("주문 저널 중간 segment 가 손상되었습니다. file = " + file
+                            + ", position = " + validEnd);
+                }
+                continue;
+            }
+            if (dirtyEnd > validEnd) {
+                // 쓰다 만 꼬리를 지워서, 이어 쓴 레코드 뒤에 옛날 바이트가 남지 않게 한다.
+                recovery.tornBytes += dirtyEnd - validEnd;
+                for (int p = validEnd; p < dirtyEnd; p++) {
+                    buffer.put(p, (byte) 0);
+                }
+                buffer.force();
+            }
+            buffer.position(validEnd);
+            recovery.lastSegment = buffer;
+        }
+        return recovery;
+    }
+
+    /*
+    * segment 의 레코드를 처음부터 읽어서 handler 에 넘기고, 마지막 정상 레코드의 끝 위치를 돌려준다.
+    * previousSequence 가 0 이상이면 sequence 가 그 다음 번호부터 이어지는지도 확인한다.
+    * */
+    private long scanSegment(ByteBuffer buffer, long previousSequence, RecordHandler handler) {
+        CRC32 check = new CRC32();
+        long expected = previousSequence < 0 ? -1 : previousSequence + 1;
+        int position = SEGMENT_HEADER_BYTES;
+        while (position + RECORD_HEADER_BYTES <= buffer.limit()) {
+            int length = buffer.getInt(position);
+            int payload = position + RECORD_HEADER_BYTES;
+            if (length < FIXED_PAYLOAD_BYTES || length > FIXED_PAYLOAD_BYTES + MAX_NAME_BYTES || payload + length > buffer.limit()) {
+                break;
+            }
+            check.reset();
+            check.update(buffer.duplicate().position(payload).limit(payload + length));
+            if ((int) check.getValue() != buffer.getInt(position + 4)) {
+                break;
+            }
+            long sequence = buffer.getLong(payload);
+            if (expected >= 0 && sequence != expected) {
+                break;
+            }
+            int nameLength = buffer.getShort(payload + 33) & 0xFFFF;
+            if (FIXED_PAYLOAD_BYTES + nameLength != length) {
+                break;
+            }
+            byte[] name = new byte[nameLength];
+            buffer.duplicate().position(payload + FIXED_PAYLOAD_BYTES).get(name);
+            long memberId = buffer.getLong(payload + 8);
+            byte grade = buffer.get(payload + 16);
+            Order order = new Order(memberId == NO_MEMBER ? null : memberId, new String(name, StandardCharsets.UTF_8),
+                    buffer.getLong(payload + 17), buffer.getLong(payload + 25));
+            handler.handle(new JournalRecord(sequence, grade == NO_GRADE ? null : GRADES[grade], order));
+            expected = sequence + 1;
+            position = payload + length;
+        }
+        return position;
+    }
+
+    // validEnd 뒤에 0이 아닌 바이트가 있는 마지막 위치. 쓰다 만 레코드뿐 아니라 더 뒤에 남은 예전 레코드도 찾도록 segment 끝부터 본다.
+    private int dirtyEnd(MappedByteBuffer buffer, int validEnd) {
+        int end = buffer.limit();
+        while (end - 8 >= validEnd && buffer.getLong(end - 8) == 0) {
+            end -= 8;
+        }
+        while (end > validEnd && buffer.get(end - 1) == 0) {
+            end--;
+        }
+        return end;
+    }
+
+    // orders-<첫 sequence 20자리>.log
+    private long firstSequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring("orders-".length(), name.length() - ".log".length()));
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("주문 저널 파일 이름이 아닙니다. file = " + file, e);
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "orders-*.log")) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        // 파일 이름에 첫 sequence 를 0으로 채워 넣었으므로 이름 순서가 곧 기록 순서다.
+        Collections.sort(files);
+        return files;
+    }
+
+    private static final class Recovery {
+        int records;
+        long tornBytes;
+        long lastSequence;
+        MappedByteBuffer lastSegment;
+    }
+
+    public interface RecordHandler {
+        void handle(JournalRecord record);
+    }
+
+    public static final class JournalRecord {
+        private final long sequence;
+        private final Grade grade;
+        private final Order order;
+
+        JournalRecord(long sequence, Grade grade, Order order) {
+            this.sequence = sequence;
+            this.grade = grade;
+            this.order = order;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        // 주문 당시 회원 등급 (회원이 없었으면 null)
+        public Grade getGrade() {
+            return grade;
+        }
+
+        public Order getOrder() {
+            return order;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package hello.core.order;
+
+import hello.core.member.Member;
+
+/*
+* 주문이 만들어질 때마다 OrderServiceImpl 이 호출한다. (주문 저장, 집계 등)
+* member 는 주문한 회원이고, 저장소에 없는 회원이면 null 이다.
+* 주문 처리 스레드에서 바로 호출되므로 오래 걸리는 작업을 하면 안 된다.
+* */
+public interface OrderListener {
+    void orderCreated(Member member, Order order);
+
+    // 일괄 주문(createOrders)이 만든 주문을 입력 순서대로 한 번에 알린다. members[i] 는 orders[i] 를 주문한 회원이다.
+    // 기본 구현은 orderCreated 를 반복 호출한다. 주문마다 드는 고정 비용(fsync 대기 등)이 있는 구현체는 재정의해서 한 번만 치르게 한다.
+    default void ordersCreated(Member[] members, Order[] orders) {
+        for (int i = 0; i < orders.length; i++) {
+            orderCreated(members[i], orders[i]);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package hello.core.order;
+
+import hello.core.discount.DiscountPolicy;
+import hello.core.member.Member;
+
+/*
+* [ 배열 단위 금액 계산 ]
+* 정산처럼 수십만 건의 금액을 한 번에 계산할 때 주문마다 Order 객체를 만들고 calculate() 를 부르는 대신,
+* 가격/할인/결제 금액을 long 배열로 두고 한 번에 계산한다.
+*  - calculate, sum 은 분기 없는 단순 반복이므로 JIT(C2)가 SIMD 명령으로 벡터화할 수 있다.
+*  - 금액은 long 최소 화폐 단위이며, 합계가 Long.MAX_VALUE(약 922경)를 넘는 경우는 고려하지 않는다.
+* */
+public final class OrderPricing {
+
+    private OrderPricing() {
+    }
+
+    // payments[i] = prices[i] - discounts[i] (Order.calculate 와 같다)
+    public static void calculate(long[] prices, long[] discounts, long[] payments) {
+        if (prices.length != discounts.length || prices.length != payments.length) {
+            throw new IllegalArgumentException("배열 길이가 다릅니다. prices = " + prices.length
+                    + ", discounts = " + discounts.length + ", payments = " + payments.length);
+        }
+        for (int i = 0; i < prices.length; i++) {
+            payments[i] = prices[i] - discounts[i];
+        }
+    }
+
+    public static long[] calculate(long[] prices, long[] discounts) {
+        long[] payments = new long[prices.length];
+        calculate(prices, discounts, payments);
+        return payments;
+    }
+
+    public static long sum(long[] amounts) {
+        long sum = 0;
+        for (long amount : amounts) {
+            sum += amount;
+        }
+        return sum;
+    }
+
+    // 한 회원의 주문 가격들을 정산한다. 할인은 정책의 일괄 계산(discount(member, prices))을 사용한다.
+    public static Settlement settle(DiscountPolicy discountPolicy, Member member, long[] prices) {
+        long[] discounts = discountPolicy.discount(member, prices);
+        long[] payments = calculate(prices, discounts);
+        return new Settlement(prices, discounts, payments);
+    }
+
+    public static final class Settlement {
+        private final long[] prices;
+        private final long[] discounts;
+        private final long[] payments;
+
+        private Settlement(long[] prices, long[] discounts, long[] payments) {
+            this.prices = prices;
+            this.discounts = discounts;
+            this.payments = payments;
+        }
+
+        public long[] getDiscounts() {
+            return discounts;
+        }
+
+        public long[] getPayments() {
+            return payments;
+        }
+
+        public long getTotalPrice() {
+            return sum(prices);
+        }
+
+        public long getTotalDiscount() {
+            return sum(discounts);
+        }
+
+        public long getTotalPayment() {
+            return sum(payments);
+        }
+    }
+}
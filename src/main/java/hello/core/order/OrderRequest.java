@@ -0,0 +1,51 @@
+package hello.core.order;
+
+// 일괄 주문(createOrders)의 주문 한 건
+public class OrderRequest {
+
+    // 할인 정책 코드를 지정하지 않은 주문은 기본 할인 정책(@MainDiscountPolicy)을 사용한다.
+    public static final int MAIN_POLICY = -1;
+
+    private final Long memberId;
+    private final String itemName;
+    private final long itemPrice;
+    private final int policyCode;
+
+    public OrderRequest(Long memberId, String itemName, long itemPrice) {
+        this(memberId, itemName, itemPrice, MAIN_POLICY);
+    }
+
+    // policyCode 는 DiscountPolicyRouter.codeOf 로 얻은 값
+    public OrderRequest(Long memberId, String itemName, long itemPrice, int policyCode) {
+        this.memberId = memberId;
+        this.itemName = itemName;
+        this.itemPrice = itemPrice;
+        this.policyCode = policyCode;
+    }
+
+    public Long getMemberId() {
+        return memberId;
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+
+    public long getItemPrice() {
+        return itemPrice;
+    }
+
+    public int getPolicyCode() {
+        return policyCode;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderRequest{" +
+                "memberId=" + memberId +
+                ", itemName='" + itemName + '\'' +
+                ", itemPrice=" + itemPrice +
+                ", policyCode=" + policyCode +
+                '}';
+    }
+}
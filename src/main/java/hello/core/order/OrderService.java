@@ -1,5 +1,13 @@
 package hello.core.order;
 
+import java.util.List;
+
 public interface OrderService {
-    Order createOrder(Long memberId , String itemName, int itemPrice);
+    Order createOrder(Long memberId , String itemName, long itemPrice);
+
+    // 주문마다 할인 정책을 고른다. policyCode 는 DiscountPolicyRouter.codeOf 로 얻은 값
+    Order createOrder(Long memberId, String itemName, long itemPrice, int policyCode);
+
+    // 여러 주문을 한 번에 처리한다. 결과는 입력 순서와 같은 순서로 돌려준다.
+    List<Order> createOrders(List<OrderRequest> requests);
 }
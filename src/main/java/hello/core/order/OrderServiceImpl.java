@@ -2,11 +2,19 @@ package hello.core.order;
 
 import hello.core.annotation.MainDiscountPolicy;
 import hello.core.discount.DiscountPolicy;
+import hello.core.discount.DiscountPolicyRouter;
 import hello.core.member.Member;
 import hello.core.member.MemberRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @Component
 
 
@@ -24,6 +32,10 @@ public class OrderServiceImpl implements OrderService {
 
     private final MemberRepository memberRepository;
     private final DiscountPolicy discountPolicy;
+    // 주문별 할인 정책 선택용. AppConfig 처럼 직접 생성한 경우에는 없을 수 있다.
+    private final DiscountPolicyRouter discountPolicyRouter;
+    // 주문 생성 알림을 받을 곳 (OrderStore 등). 선택 의존관계이므로 수정자 주입을 사용한다.
+    private List<OrderListener> orderListeners = Collections.emptyList();
 
 
     // 3. 필드 주입
@@ -67,10 +79,17 @@ public class OrderServiceImpl implements OrderService {
     // 특징
     // 1. 생성자 호출시점에 딱 1번만 호출되는 것이 보장된다.
     // 2. 불편, 필수 의존관계에 사용
+    public OrderServiceImpl(MemberRepository memberRepository, DiscountPolicy discountPolicy) {
+        this(memberRepository, discountPolicy, null);
+    }
+
+    // 생성자가 여러 개이면 스프링은 @Autowired 가 붙은 생성자를 사용한다.
     @Autowired
-    public OrderServiceImpl(MemberRepository memberRepository, @MainDiscountPolicy DiscountPolicy discountPolicy) {
+    public OrderServiceImpl(MemberRepository memberRepository, @MainDiscountPolicy DiscountPolicy discountPolicy,
+                            DiscountPolicyRouter discountPolicyRouter) {
         this.memberRepository = memberRepository;
         this.discountPolicy = discountPolicy;
+        this.discountPolicyRouter = discountPolicyRouter;
     }
 
     // 2. 수정자 주입(setter 주입) 방법(의존관계 주입 방법)
@@ -89,11 +108,126 @@ public class OrderServiceImpl implements OrderService {
 //        this.discountPolicy = discountPolicy;
 //    }
 
+    // 등록된 OrderListener 빈이 하나도 없으면 호출되지 않는다.
+    @Autowired(required = false)
+    public void setOrderListeners(List<OrderListener> orderListeners) {
+        this.orderListeners = orderListeners;
+    }
+
+    @Override
+    public Order createOrder(Long memberId, String itemName, long itemPrice) {
+        Member findMember = memberRepository.findById(memberId);
+        long discountAmt = discountPolicy.discount(findMember, itemName, itemPrice);
+        return publish(findMember, new Order(memberId, itemName, itemPrice, discountAmt));
+    }
+
     @Override
-    public Order createOrder(Long memberId, String itemName, int itemPrice) {
+    public Order createOrder(Long memberId, String itemName, long itemPrice, int policyCode) {
         Member findMember = memberRepository.findById(memberId);
-        int discountAmt = discountPolicy.discount(findMember, itemPrice);
-        return new Order(memberId, itemName, itemPrice, discountAmt);
+        long discountAmt = policyOf(policyCode).discount(findMember, itemName, itemPrice);
+        return publish(findMember, new Order(memberId, itemName, itemPrice, discountAmt));
+    }
+
+    /*
+    * [ 일괄 주문 ]
+    * createOrder 를 반복 호출하면 주문마다 회원 조회 1번, 할인 계산 1번이 일어난다.
+    * 여기서는
+    *  1. 주문을 회원별로 묶고 (counting sort 로 회원별 주문 위치를 모은다)
+    *  2. 회원 조회는 findAllById 로 저장소를 한 번만 거치고
+    *  3. 할인은 회원별 가격 배열로 한 번에 계산한 뒤 (할인 정책 코드를 지정한 주문은 그 정책으로 한 건씩 계산한다)
+    *  4. 원래 입력 순서 자리에 결과를 채운다.
+    * */
+    @Override
+    public List<Order> createOrders(List<OrderRequest> orderRequests) {
+        OrderRequest[] requests = orderRequests.toArray(new OrderRequest[0]);
+        int size = requests.length;
+        Map<Long, Integer> groupByMemberId = new HashMap<>();
+        List<Long> memberIds = new ArrayList<>();
+        int[] groupOf = new int[size];
+        for (int i = 0; i < size; i++) {
+            Long memberId = requests[i].getMemberId();
+            Integer group = groupByMemberId.get(memberId);
+            if (group == null) {
+                group = memberIds.size();
+                groupByMemberId.put(memberId, group);
+                memberIds.add(memberId);
+            }
+            groupOf[i] = group;
+        }
+
+        // 회원(group)별 시작 위치를 구하고, 주문 index 를 회원 순서대로 정렬해 둔다.
+        int groupCount = memberIds.size();
+        int[] groupStart = new int[groupCount + 1];
+        for (int i = 0; i < size; i++) {
+            groupStart[groupOf[i] + 1]++;
+        }
+        for (int g = 0; g < groupCount; g++) {
+            groupStart[g + 1] += groupStart[g];
+        }
+        int[] cursor = Arrays.copyOf(groupStart, groupCount);
+        int[] orderIndexes = new int[size];
+        for (int i = 0; i < size; i++) {
+            orderIndexes[cursor[groupOf[i]]++] = i;
+        }
+
+        List<Member> findMembers = memberRepository.findAllById(memberIds);
+        Order[] orders = new Order[size];
+        for (int g = 0; g < groupCount; g++) {
+            Member findMember = findMembers.get(g);
+            int from = groupStart[g];
+            long[] prices = new long[groupStart[g + 1] - from];
+            String[] itemNames = new String[prices.length];
+            boolean mainPolicyOnly = true;
+            for (int k = 0; k < prices.length; k++) {
+                OrderRequest request = requests[orderIndexes[from + k]];
+                prices[k] = request.getItemPrice();
+                itemNames[k] = request.getItemName();
+                mainPolicyOnly &= request.getPolicyCode() == OrderRequest.MAIN_POLICY;
+            }
+            long[] discounts;
+            if (mainPolicyOnly) {
+                discounts = discountPolicy.discount(findMember, itemNames, prices);
+            } else {
+                discounts = new long[prices.length];
+                for (int k = 0; k < prices.length; k++) {
+                    int policyCode = requests[orderIndexes[from + k]].getPolicyCode();
+                    discounts[k] = policyOf(policyCode).discount(findMember, itemNames[k], prices[k]);
+                }
+            }
+            for (int k = 0; k < prices.length; k++) {
+                int index = orderIndexes[from + k];
+                OrderRequest request = requests[index];
+                orders[index] = new Order(request.getMemberId(), request.getItemName(), prices[k], discounts[k]);
+            }
+        }
+        // OrderListener 에는 입력 순서대로 알린다.
+        if (!orderListeners.isEmpty()) {
+            Member[] orderMembers = new Member[size];
+            for (int i = 0; i < size; i++) {
+                orderMembers[i] = findMembers.get(groupOf[i]);
+            }
+            for (OrderListener orderListener : orderListeners) {
+                orderListener.ordersCreated(orderMembers, orders);
+            }
+        }
+        return Arrays.asList(orders);
+    }
+
+    private Order publish(Member member, Order order) {
+        for (OrderListener orderListener : orderListeners) {
+            orderListener.orderCreated(member, order);
+        }
+        return order;
+    }
+
+    private DiscountPolicy policyOf(int policyCode) {
+        if (policyCode == OrderRequest.MAIN_POLICY) {
+            return discountPolicy;
+        }
+        if (discountPolicyRouter == null) {
+            throw new IllegalStateException("할인 정책 라우터가 없어서 정책 코드를 사용할 수 없습니다. policyCode = " + policyCode);
+        }
+        return discountPolicyRouter.policy(policyCode);
     }
 
     public MemberRepository getMemberRepository() {
@@ -0,0 +1,241 @@
+package hello.core.order;
+
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+* [ 컬럼형 주문 저장소 ]
+* 주문을 Order 객체로 쌓아두면 주문 한 건마다 Order 객체 헤더, Long(memberId) 박싱 객체, 참조 필드들이 붙어서
+* 100만 건이면 수십 MB 가 된다. 여기서는 주문을 필드(컬럼)별 기본형 배열에 나누어 저장한다. (struct-of-arrays)
+*  - memberId      : long[]  (회원 id 가 없으면 NO_MEMBER)
+*  - itemName      : int[]   상품명은 사전(dictionary)에 한 번만 저장하고 번호만 기록한다.
+*  - grade         : byte[]  주문 당시 회원 등급 (Grade.ordinal, 회원이 없으면 -1)
+*  - itemPrice     : long[]
+*  - discountPrice : long[]
+* 한 건당 약 29 byte 만 사용한다. Order 객체는 get(index) 로 꺼낼 때 만들어진다.
+*
+* 등급별 할인 합계처럼 한 컬럼만 훑는 집계는 필요한 배열만 순서대로 읽으므로 캐시 효율이 좋다.
+*
+* order.store.enabled=true 이면 빈으로 등록되고, OrderListener 로서 OrderServiceImpl 이 만든 주문을 모두 저장한다.
+*  - order.store.initial-capacity : 처음 배열 크기 (기본 1024), 가득 차면 두 배로 늘린다.
+* */
+@Component
+@ConditionalOnProperty(name = "order.store.enabled", havingValue = "true")
+public class OrderStore implements OrderListener {
+
+    public static final long NO_MEMBER = Long.MIN_VALUE;
+    private static final byte NO_GRADE = -1;
+    private static final Grade[] GRADES = Grade.values();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] memberIds;
+    private int[] itemIds;
+    private byte[] grades;
+    private long[] itemPrices;
+    private long[] discountPrices;
+    private int size;
+
+    private final Map<String, Integer> itemIdByName = new HashMap<>();
+    private final List<String> itemNames = new ArrayList<>();
+
+    public OrderStore() {
+        this(1024);
+    }
+
+    @Autowired
+    public OrderStore(@Value("${order.store.initial-capacity:1024}") int initialCapacity) {
+        if (initialCapacity <= 0) {
+            throw new IllegalArgumentException("초기 크기는 0보다 커야 합니다. initialCapacity = " + initialCapacity);
+        }
+        memberIds = new long[initialCapacity];
+        itemIds = new int[initialCapacity];
+        grades = new byte[initialCapacity];
+        itemPrices = new long[initialCapacity];
+        discountPrices = new long[initialCapacity];
+    }
+
+    @Override
+    public void orderCreated(Member member, Order order) {
+        append(member == null ? null : member.getGrade(), order);
+    }
+
+    // 저장한 위치(index)를 돌려준다.
+    public int append(Grade grade, Order order) {
+        lock.writeLock().lock();
+        try {
+            if (size == memberIds.length) {
+                grow();
+            }
+            int index = size;
+            memberIds[index] = order.getMemberId() == null ? NO_MEMBER : order.getMemberId();
+            itemIds[index] = itemIdOf(order.getItemName());
+            grades[index] = grade == null ? NO_GRADE : (byte) grade.ordinal();
+            itemPrices[index] = order.getItemPrice();
+            discountPrices[index] = order.getDiscountPrice();
+            size++;
+            return index;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 저장된 주문을 Order 객체로 만들어 돌려준다. (호출할 때마다 새 객체)
+    public Order get(int index) {
+        lock.readLock().lock();
+        try {
+            checkIndex(index);
+            long memberId = memberIds[index];
+            return new Order(memberId == NO_MEMBER ? null : memberId, itemNames.get(itemIds[index]),
+                    itemPrices[index], discountPrices[index]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Grade gradeAt(int index) {
+        lock.readLock().lock();
+        try {
+            checkIndex(index);
+            byte grade = grades[index];
+            return grade == NO_GRADE ? null : GRADES[grade];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 주문 당시 등급별 할인 합계
+    public long totalDiscountByGrade(Grade grade) {
+        byte ordinal = (byte) grade.ordinal();
+        lock.readLock().lock();
+        try {
+            long total = 0;
+            for (int i = 0; i < size; i++) {
+                if (grades[i] == ordinal) {
+                    total += discountPrices[i];
+                }
+            }
+            return total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 모든 등급의 할인 합계를 한 번의 순회로 구한다. 인덱스는 Grade.ordinal()
+    public long[] totalDiscountByGrade() {
+        lock.readLock().lock();
+        try {
+            long[] totals = new long[GRADES.length];
+            for (int i = 0; i < size; i++) {
+                byte grade = grades[i];
+                if (grade != NO_GRADE) {
+                    totals[grade] += discountPrices[i];
+                }
+            }
+            return totals;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long totalDiscountByItem(String itemName) {
+        lock.readLock().lock();
+        try {
+            Integer itemId = itemIdByName.get(itemName);
+            if (itemId == null) {
+                return 0;
+            }
+            long total = 0;
+            for (int i = 0; i < size; i++) {
+                if (itemIds[i] == itemId) {
+                    total += discountPrices[i];
+                }
+            }
+            return total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 결제 금액(itemPrice - discountPrice) 합계
+    public long totalPayment() {
+        lock.readLock().lock();
+        try {
+            long total = 0;
+            for (int i = 0; i < size; i++) {
+                total += itemPrices[i] - discountPrices[i];
+            }
+            return total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 사전에 저장된 서로 다른 상품명 수
+    public int itemCount() {
+        lock.readLock().lock();
+        try {
+            return itemNames.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 컬럼 배열이 차지하는 크기 (상품명 사전 제외)
+    public long columnBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) memberIds.length * (Long.BYTES + Integer.BYTES + Byte.BYTES + Long.BYTES + Long.BYTES);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int itemIdOf(String itemName) {
+        Integer itemId = itemIdByName.get(itemName);
+        if (itemId == null) {
+            itemId = itemNames.size();
+            itemNames.add(itemName);
+            itemIdByName.put(itemName, itemId);
+        }
+        return itemId;
+    }
+
+    private void grow() {
+        int capacity = memberIds.length * 2;
+        if (capacity < 0) {
+            throw new IllegalStateException("주문 저장소가 가득 찼습니다. size = " + size);
+        }
+        memberIds = Arrays.copyOf(memberIds, capacity);
+        itemIds = Arrays.copyOf(itemIds, capacity);
+        grades = Arrays.copyOf(grades, capacity);
+        itemPrices = Arrays.copyOf(itemPrices, capacity);
+        discountPrices = Arrays.copyOf(discountPrices, capacity);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index = " + index + ", size = " + size);
+        }
+    }
+}
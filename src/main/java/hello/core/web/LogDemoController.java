@@ -5,8 +5,11 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import javax.servlet.http.HttpServletRequest;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /*
 * 기본적으로 request scope Bean 은 클라이언트의 request에 따라 스프링에서 생성을 처리하도록 설계되어 있다. 그러나, LogDemoController 에서는
@@ -23,6 +26,7 @@ public class LogDemoController {
 
     private final LogDemoService logDemoService;
     private final MyLogger myLogger;
+    private final LogDemoScheduler scheduler;
 //    private final ObjectProvider<MyLogger> myLoggerProvider;
 
 
@@ -42,4 +46,44 @@ public class LogDemoController {
         logDemoService.logic("testId");
         return "OK";
     }
+
+    /*
+    * [ 비동기 버전 ]
+    * log-demo 와 같은 일을 하지만, 1초 대기 동안 톰캣 워커 스레드를 붙잡지 않는다.
+    *  - DeferredResult 를 바로 반환하면 워커 스레드는 풀로 돌아가고, 응답은 setResult 가 호출될 때 전송된다.
+    *  - 1초 뒤의 나머지 작업은 LogDemoScheduler 스레드에서 실행된다.
+    *
+    * MyLogger 프록시는 RequestContextHolder(ThreadLocal)로 진짜 빈을 찾는다. LogDemoScheduler 가 RequestContextTaskDecorator 로
+    * 요청 정보를 옮겨주므로, 이어서 실행되는 스레드에서도 컨트롤러에서 사용한 것과 같은 MyLogger([uuid][requestURL])가 조회된다.
+    * */
+    @RequestMapping("log-demo-async")
+    @ResponseBody
+    public DeferredResult<String> logDemoAsync(HttpServletRequest request) {
+        String requestURL = request.getRequestURL().toString();
+        myLogger.setRequestURL(requestURL);
+        myLogger.log("controller test");
+
+        DeferredResult<String> result = new DeferredResult<>();
+        scheduler.schedule(() -> {
+            try {
+                logDemoService.logic("testId");
+                result.setResult("OK");
+            } catch (RuntimeException e) {
+                result.setErrorResult(e);
+            }
+        }, 1, TimeUnit.SECONDS);
+        return result;
+    }
+
+    // 여러 id 를 LogDemoExecutor 스레드로 나누어 처리한다. 각 스레드의 로그도 같은 [uuid][requestURL] 로 남는다.
+    @RequestMapping("log-demo-fanout")
+    @ResponseBody
+    public String logDemoFanOut(HttpServletRequest request) {
+        String requestURL = request.getRequestURL().toString();
+        myLogger.setRequestURL(requestURL);
+        myLogger.log("controller test");
+
+        logDemoService.logicAll(List.of("testId1", "testId2", "testId3", "testId4"));
+        return "OK";
+    }
 }
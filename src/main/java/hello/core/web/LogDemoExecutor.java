@@ -0,0 +1,63 @@
+package hello.core.web;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/*
+* [ request scope 를 전파하는 작업 실행기 ]
+* 웹 계층에서 작업을 여러 스레드로 나누어(fan-out) 실행할 때 사용한다.
+* 모든 작업은 RequestContextTaskDecorator 를 거치므로, 작업 스레드에서도 MyLogger 가 요청 스레드와 같은 [uuid][requestURL] 로 로그를 남긴다.
+*  - log-demo.executor.pool-size      : 작업 스레드 수 (기본 8)
+*  - log-demo.executor.queue-capacity : 대기 작업 수 (기본 1000), 가득 차면 호출한 스레드에서 직접 실행한다.
+*
+* java.util.concurrent.Executor 를 구현하지 않는 이유: Executor 타입 빈이 있으면 스프링 부트가 기본 applicationTaskExecutor 를
+* 만들지 않으므로, 다른 기능(@Async, MVC 비동기 처리)에 영향을 주지 않도록 메서드 레퍼런스(this::execute)로 넘긴다.
+* */
+@Component
+public class LogDemoExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final RequestContextTaskDecorator taskDecorator;
+
+    @Autowired
+    public LogDemoExecutor(@Value("${log-demo.executor.pool-size:8}") int poolSize,
+                           @Value("${log-demo.executor.queue-capacity:1000}") int queueCapacity,
+                           RequestContextTaskDecorator taskDecorator) {
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "log-demo-executor-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.taskDecorator = taskDecorator;
+    }
+
+    public void execute(Runnable task) {
+        executor.execute(taskDecorator.decorate(task));
+    }
+
+    public CompletableFuture<Void> runAsync(Runnable task) {
+        return CompletableFuture.runAsync(task, this::execute);
+    }
+
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(supplier, this::execute);
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,80 @@
+package hello.core.web;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+* [ 비동기 log-demo 용 지연 실행기 ]
+* Thread.sleep 으로 기다리면 기다리는 동안 톰캣 워커 스레드 하나가 통째로 묶인다.
+* 여기서는 "1초 뒤에 이어서 실행" 을 타이머에 맡기므로, 기다리는 요청이 몇 개든 스레드를 점유하지 않는다.
+* 이어서 실행되는 작업(LogDemoService.logic 등)은 짧으므로 작은 스레드 풀로 충분하다.
+* 작업은 RequestContextTaskDecorator 를 거치므로 이어서 실행되는 스레드에서도 request scope 빈(MyLogger)을 그대로 사용할 수 있다.
+*  - log-demo.scheduler.pool-size : 이어서 실행하는 스레드 수 (기본 2)
+* 타이머에 걸려 기다리는 작업 수(getWaitingCount)와 그 최댓값(getMaxWaitingCount)을 센다.
+* 최댓값이 톰캣 워커 스레드 수보다 크면, 워커 스레드보다 많은 요청이 스레드를 잡지 않고 동시에 기다렸다는 뜻이다.
+*
+* Java 11 에는 가상 스레드가 없으므로 DeferredResult(서블릿 비동기) + 타이머 방식으로 구현했다.
+* */
+@Component
+public class LogDemoScheduler {
+
+    private final ScheduledExecutorService scheduler;
+    private final RequestContextTaskDecorator taskDecorator;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicInteger maxWaiting = new AtomicInteger();
+
+    @Autowired
+    public LogDemoScheduler(@Value("${log-demo.scheduler.pool-size:2}") int poolSize,
+                            RequestContextTaskDecorator taskDecorator) {
+        AtomicInteger sequence = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "log-demo-scheduler-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.taskDecorator = taskDecorator;
+    }
+
+    public ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+        Runnable decorated = taskDecorator.decorate(task);
+        maxWaiting.accumulateAndGet(waiting.incrementAndGet(), Math::max);
+        try {
+            return scheduler.schedule(() -> {
+                waiting.decrementAndGet();
+                decorated.run();
+            }, delay, unit);
+        } catch (RejectedExecutionException e) {
+            waiting.decrementAndGet();
+            throw e;
+        }
+    }
+
+    // 지금 타이머에 걸려서 기다리는 작업 수
+    public int getWaitingCount() {
+        return waiting.get();
+    }
+
+    // 동시에 기다린 작업 수의 최댓값
+    public int getMaxWaitingCount() {
+        return maxWaiting.get();
+    }
+
+    // 최댓값을 지금 기다리는 수로 되돌린다. (구간별로 다시 잴 때 사용)
+    public void resetMaxWaitingCount() {
+        maxWaiting.set(waiting.get());
+    }
+
+    @PreDestroy
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
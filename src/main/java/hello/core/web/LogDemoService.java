@@ -4,15 +4,29 @@ import hello.core.MyLogger;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 @Service
 @RequiredArgsConstructor
 public class LogDemoService {
 
     private final MyLogger myLogger;
+    private final LogDemoExecutor executor;
 //    private final ObjectProvider<MyLogger> myLoggerProvider;
 
     public void logic(String id) {
 //        MyLogger myLogger = myLoggerProvider.getObject();
         myLogger.log("service id = " + id);
     }
+
+    // id 마다 LogDemoExecutor 스레드에서 logic 을 실행하고 모두 끝날 때까지 기다린다.
+    public void logicAll(List<String> ids) {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[ids.size()];
+        for (int i = 0; i < ids.size(); i++) {
+            String id = ids.get(i);
+            futures[i] = executor.runAsync(() -> logic(id));
+        }
+        CompletableFuture.allOf(futures).join();
+    }
 }
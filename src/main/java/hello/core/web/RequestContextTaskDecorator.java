@@ -0,0 +1,51 @@
+package hello.core.web;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+
+/*
+* [ request scope 전파 ]
+* MyLogger 같은 request scope 프록시는 RequestContextHolder(ThreadLocal)에서 현재 요청을 찾아 진짜 빈을 조회한다.
+* 작업을 다른 스레드(Executor, CompletableFuture, 타이머)로 넘기면 그 스레드에는 요청 정보가 없으므로
+* "No thread-bound request found" 오류가 나거나 엉뚱한 요청의 빈을 사용하게 된다.
+*
+* decorate() 는 작업을 넘기는 시점(요청 스레드)에 HttpServletRequest 를 잡아두고,
+* 작업이 실행되는 스레드에서 그 request 로 ServletRequestAttributes 를 다시 묶어준 뒤 끝나면 원래대로 되돌린다.
+*  - request scope 빈은 HttpServletRequest 의 attribute 로 저장되므로, 같은 request 를 묶으면 같은 빈([uuid][requestURL])이 조회된다.
+*  - 원래 ServletRequestAttributes 객체를 그대로 쓰지 않는 이유: 요청 스레드의 처리가 끝나면(DeferredResult 등) 그 객체는
+*    비활성 상태가 되어 조회할 수 없다. 새로 만든 객체는 요청 스레드가 먼저 끝나도 응답 전까지 사용할 수 있다.
+*  - 작업이 호출한 스레드에서 그대로 실행되는 경우(CallerRunsPolicy 등)에도 기존 요청 정보를 지우지 않도록, 이전 값을 복원한다.
+*
+* request scope 빈은 요청 스레드에서 먼저 사용(생성)해 두자. 작업 스레드에서 처음 생성된 빈은 요청이 끝날 때 소멸 콜백(@PreDestroy)이 호출되지 않는다.
+* */
+@Component
+public class RequestContextTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            // HTTP 요청 밖에서 넘긴 작업은 전파할 정보가 없다.
+            return runnable;
+        }
+        HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+        return () -> {
+            RequestAttributes previous = RequestContextHolder.getRequestAttributes();
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+            try {
+                runnable.run();
+            } finally {
+                if (previous == null) {
+                    RequestContextHolder.resetRequestAttributes();
+                } else {
+                    RequestContextHolder.setRequestAttributes(previous);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,48 @@
+package hello.core;
+
+import hello.core.member.MemberServiceImpl;
+import hello.core.order.OrderServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.index.CandidateComponentsIndex;
+import org.springframework.context.index.CandidateComponentsIndexLoader;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ComponentIndexTest {
+
+    @Test
+    @DisplayName("컴파일할 때 만든 컴포넌트 인덱스에 @Component 클래스가 들어 있다.")
+    void indexGenerated() {
+        CandidateComponentsIndex index = CandidateComponentsIndexLoader.loadIndex(getClass().getClassLoader());
+
+        assertThat(index).isNotNull();
+        assertThat(index.getCandidateTypes("hello.core", Component.class.getName()))
+                .contains(MemberServiceImpl.class.getName(), OrderServiceImpl.class.getName());
+    }
+
+    @Test
+    @DisplayName("인덱스에는 클래스패스를 스캔해서 찾은 컴포넌트가 빠짐없이 들어 있다.")
+    void indexCoversScan() {
+        CandidateComponentsIndex index = CandidateComponentsIndexLoader.loadIndex(getClass().getClassLoader());
+        Set<String> indexed = index.getCandidateTypes("hello.core", Component.class.getName());
+
+        // 직접 만든 TypeFilter 는 인덱스로 처리할 수 없으므로 이 provider 는 항상 클래스패스를 스캔한다.
+        ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(false);
+        provider.addIncludeFilter((reader, factory) ->
+                reader.getAnnotationMetadata().hasAnnotation(Component.class.getName())
+                        || reader.getAnnotationMetadata().hasMetaAnnotation(Component.class.getName()));
+        Set<String> scanned = provider.findCandidateComponents("hello.core").stream()
+                .map(BeanDefinition::getBeanClassName)
+                .collect(Collectors.toSet());
+
+        assertThat(scanned).isNotEmpty();
+        assertThat(indexed).containsAll(scanned);
+    }
+}
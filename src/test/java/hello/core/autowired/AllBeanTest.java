@@ -21,12 +21,12 @@ public class AllBeanTest {
 
         DiscountService discountService = ac.getBean(DiscountService.class);
         Member member = new Member(1L, "userA", Grade.VIP);
-        int discountPrice = discountService.discount(member, 10000, "fixDiscountPolicy");
+        long discountPrice = discountService.discount(member, 10000, "fixDiscountPolicy");
 
         assertThat(discountService).isInstanceOf(DiscountService.class);
         assertThat(discountPrice).isEqualTo(1000);
 
-        int rateDiscountPrice = discountService.discount(member, 20000, "rateDiscountPolicy");
+        long rateDiscountPrice = discountService.discount(member, 20000, "rateDiscountPolicy");
         assertThat(rateDiscountPrice).isEqualTo(2000);
     }
 
@@ -42,7 +42,7 @@ public class AllBeanTest {
             System.out.println("policies = " + policies);
         }
 
-        public int discount(Member member, int price, String discountCode) {
+        public long discount(Member member, long price, String discountCode) {
             DiscountPolicy discountPolicy = policyMap.get(discountCode);
             return discountPolicy.discount(member, price);
         }
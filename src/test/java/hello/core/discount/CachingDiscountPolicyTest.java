@@ -0,0 +1,125 @@
+package hello.core.discount;
+
+import hello.core.AutoAppConfig;
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachingDiscountPolicyTest {
+
+    // 계산 횟수를 세는 할인 정책 (VIP 10%)
+    static class CountingPolicy implements DiscountPolicy {
+        final AtomicInteger calls = new AtomicInteger();
+        int percent = 10;
+
+        @Override
+        public long discount(Member member, long price) {
+            calls.incrementAndGet();
+            return member.getGrade() == Grade.VIP ? price * percent / 100 : 0;
+        }
+    }
+
+    @Test
+    @DisplayName("같은 등급/가격은 한 번만 계산하고 이후에는 캐시에서 돌려준다.")
+    void cacheHit() {
+        CountingPolicy delegate = new CountingPolicy();
+        CachingDiscountPolicy policy = new CachingDiscountPolicy(delegate, 100);
+        Member memberA = new Member(1L, "memberA", Grade.VIP);
+        Member memberB = new Member(2L, "memberB", Grade.VIP);
+
+        assertThat(policy.discount(memberA, 10000)).isEqualTo(1000);
+        assertThat(policy.discount(memberA, 10000)).isEqualTo(1000);
+        // 등급이 같은 다른 회원도 같은 캐시 항목을 사용한다.
+        assertThat(policy.discount(memberB, 10000)).isEqualTo(1000);
+
+        assertThat(delegate.calls.get()).isEqualTo(1);
+        assertThat(policy.getHitCount()).isEqualTo(2);
+        assertThat(policy.getMissCount()).isEqualTo(1);
+        assertThat(policy.getHitRate()).isEqualTo(2.0 / 3);
+    }
+
+    @Test
+    @DisplayName("회원 등급이 바뀌면 바뀐 등급의 할인이 적용된다.")
+    void gradeChange() {
+        CachingDiscountPolicy policy = new CachingDiscountPolicy(new CountingPolicy(), 100);
+        Member member = new Member(1L, "member", Grade.VIP);
+        assertThat(policy.discount(member, 10000)).isEqualTo(1000);
+
+        member.setGrade(Grade.BASIC);
+
+        assertThat(policy.discount(member, 10000)).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("규칙 버전이 바뀌면 이전 버전의 결과를 사용하지 않는다.")
+    void versionChange() {
+        CountingPolicy delegate = new CountingPolicy();
+        AtomicLong version = new AtomicLong(1);
+        CachingDiscountPolicy policy = new CachingDiscountPolicy(delegate, 100, version::get);
+        Member member = new Member(1L, "member", Grade.VIP);
+        assertThat(policy.discount(member, 10000)).isEqualTo(1000);
+
+        delegate.percent = 20;
+        version.incrementAndGet();
+
+        assertThat(policy.discount(member, 10000)).isEqualTo(2000);
+    }
+
+    @Test
+    @DisplayName("캐시 크기를 넘으면 가장 오래 사용하지 않은 항목부터 제거한다.")
+    void evictLeastRecentlyUsed() {
+        CountingPolicy delegate = new CountingPolicy();
+        // segment 1개, 크기 1
+        CachingDiscountPolicy policy = new CachingDiscountPolicy(delegate, 1);
+        Member member = new Member(1L, "member", Grade.VIP);
+
+        policy.discount(member, 1000);
+        policy.discount(member, 2000);
+
+        assertThat(policy.size()).isEqualTo(1);
+        assertThat(policy.getEvictionCount()).isEqualTo(1);
+        policy.discount(member, 2000);
+        assertThat(delegate.calls.get()).isEqualTo(2);
+        policy.discount(member, 1000);
+        assertThat(delegate.calls.get()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("상품별 규칙을 쓰는 정책도 상품명을 키에 넣어 캐시한다.")
+    void itemName() {
+        DiscountPolicy rules = new RuleDiscountPolicy(List.of(
+                DiscountRule.rate(Grade.VIP, 10),
+                new DiscountRule(Grade.VIP, "itemA", 0, DiscountRule.NO_UPPER_BOUND, DiscountType.RATE, 30, 0)));
+        CachingDiscountPolicy policy = new CachingDiscountPolicy(rules, 100);
+        Member member = new Member(1L, "member", Grade.VIP);
+
+        assertThat(policy.discount(member, "itemA", 10000)).isEqualTo(3000);
+        assertThat(policy.discount(member, "itemB", 10000)).isEqualTo(1000);
+        assertThat(policy.discount(member, new String[]{"itemA", "itemB"}, new long[]{10000, 10000})).containsExactly(3000, 1000);
+        assertThat(policy.getHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("discount.cache.enabled=true 이면 @MainDiscountPolicy 빈이 캐시로 감싸진다.")
+    void wrapMainDiscountPolicy() {
+        AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext();
+        ac.getEnvironment().getPropertySources()
+                .addFirst(new MapPropertySource("test", Map.of("discount.cache.enabled", "true")));
+        ac.register(AutoAppConfig.class);
+        ac.refresh();
+
+        assertThat(ac.getBean("rateDiscountPolicy")).isInstanceOf(CachingDiscountPolicy.class);
+        assertThat(ac.getBean("fixDiscountPolicy")).isInstanceOf(FixDiscountPolicy.class);
+        ac.close();
+    }
+}
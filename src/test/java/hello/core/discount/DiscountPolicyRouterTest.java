@@ -0,0 +1,82 @@
+package hello.core.discount;
+
+import hello.core.AutoAppConfig;
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.member.MemberRepository;
+import hello.core.member.MemoryMemberRepository;
+import hello.core.order.Order;
+import hello.core.order.OrderRequest;
+import hello.core.order.OrderService;
+import hello.core.order.OrderServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DiscountPolicyRouterTest {
+
+    Member vip = new Member(1L, "memberVIP", Grade.VIP);
+
+    @Test
+    @DisplayName("정책 이름은 이름 순서대로 0부터 시작하는 코드로 바뀐다.")
+    void codes() {
+        DiscountPolicyRouter router = new DiscountPolicyRouter(Map.of(
+                "rateDiscountPolicy", new RateDiscountPolicy(),
+                "fixDiscountPolicy", new FixDiscountPolicy()));
+
+        assertThat(router.codeOf("fixDiscountPolicy")).isEqualTo(0);
+        assertThat(router.codeOf("rateDiscountPolicy")).isEqualTo(1);
+        assertThat(router.nameOf(1)).isEqualTo("rateDiscountPolicy");
+        assertThat(router.discount(router.codeOf("fixDiscountPolicy"), vip, 20000)).isEqualTo(1000);
+        assertThat(router.discount(router.codeOf("rateDiscountPolicy"), vip, 20000)).isEqualTo(2000);
+    }
+
+    @Test
+    @DisplayName("없는 이름이나 코드는 예외가 발생한다.")
+    void unknown() {
+        DiscountPolicyRouter router = new DiscountPolicyRouter(Map.of("fixDiscountPolicy", new FixDiscountPolicy()));
+
+        assertThatThrownBy(() -> router.codeOf("unknown")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> router.policy(1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("주문마다 다른 할인 정책을 사용할 수 있다.")
+    void perOrderPolicy() {
+        AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext(AutoAppConfig.class);
+        DiscountPolicyRouter router = ac.getBean(DiscountPolicyRouter.class);
+        OrderService orderService = ac.getBean(OrderService.class);
+        ac.getBean(MemberRepository.class).save(vip);
+        int fix = router.codeOf("fixDiscountPolicy");
+        int rate = router.codeOf("rateDiscountPolicy");
+
+        assertThat(orderService.createOrder(1L, "itemA", 20000, fix).getDiscountPrice()).isEqualTo(1000);
+        assertThat(orderService.createOrder(1L, "itemA", 20000, rate).getDiscountPrice()).isEqualTo(2000);
+        // 정책 코드를 지정하지 않으면 @MainDiscountPolicy(RateDiscountPolicy)
+        assertThat(orderService.createOrder(1L, "itemA", 20000).getDiscountPrice()).isEqualTo(2000);
+
+        List<Order> orders = orderService.createOrders(List.of(
+                new OrderRequest(1L, "itemA", 20000, fix),
+                new OrderRequest(1L, "itemB", 20000),
+                new OrderRequest(1L, "itemC", 30000, rate)));
+        assertThat(orders).extracting(Order::getDiscountPrice).containsExactly(1000L, 2000L, 3000L);
+        ac.close();
+    }
+
+    @Test
+    @DisplayName("라우터 없이 직접 생성한 OrderServiceImpl 은 정책 코드를 사용할 수 없다.")
+    void withoutRouter() {
+        MemberRepository memberRepository = new MemoryMemberRepository();
+        memberRepository.save(vip);
+        OrderService orderService = new OrderServiceImpl(memberRepository, new RateDiscountPolicy());
+
+        assertThatThrownBy(() -> orderService.createOrder(1L, "itemA", 20000, 0)).isInstanceOf(IllegalStateException.class);
+        assertThat(orderService.createOrder(1L, "itemA", 20000, OrderRequest.MAIN_POLICY).getDiscountPrice()).isEqualTo(2000);
+    }
+}
@@ -0,0 +1,47 @@
+package hello.core.discount;
+
+import hello.core.member.Grade;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DiscountRuleParserTest {
+
+    @Test
+    @DisplayName("규칙 파일의 각 줄을 DiscountRule 로 읽는다.")
+    void parse() {
+        List<DiscountRule> rules = DiscountRuleParser.parse(List.of(
+                "# grade, itemName, minPrice, maxPrice, type, value, priority",
+                "",
+                "VIP, *, 0, *, RATE, 10",
+                "*, itemA, 10000, 50000, fixed, 1000, 1"));
+
+        assertThat(rules).hasSize(2);
+        DiscountRule vip = rules.get(0);
+        assertThat(vip.getGrade()).isEqualTo(Grade.VIP);
+        assertThat(vip.getItemName()).isNull();
+        assertThat(vip.getMaxPrice()).isEqualTo(DiscountRule.NO_UPPER_BOUND);
+        assertThat(vip.getType()).isEqualTo(DiscountType.RATE);
+        assertThat(vip.getPriority()).isEqualTo(0);
+
+        DiscountRule itemA = rules.get(1);
+        assertThat(itemA.getGrade()).isNull();
+        assertThat(itemA.getItemName()).isEqualTo("itemA");
+        assertThat(itemA.getMinPrice()).isEqualTo(10000);
+        assertThat(itemA.getMaxPrice()).isEqualTo(50000);
+        assertThat(itemA.getType()).isEqualTo(DiscountType.FIXED);
+        assertThat(itemA.getPriority()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("잘못된 줄이 있으면 몇 번째 줄인지 알려준다.")
+    void invalidLine() {
+        assertThatThrownBy(() -> DiscountRuleParser.parse(List.of("VIP, *, 0, *, RATE, 10", "GOLD, *, 0, *, RATE, 10")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("2번째 줄");
+    }
+}
@@ -0,0 +1,120 @@
+package hello.core.discount;
+
+import hello.core.member.Grade;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DiscountRuleTableTest {
+
+    @Test
+    @DisplayName("가격 구간의 경계값은 minPrice 포함, maxPrice 미포함이다.")
+    void priceBandBoundaries() {
+        DiscountRuleTable table = DiscountRuleTable.compile(List.of(
+                new DiscountRule(Grade.VIP, null, 10000, 50000, DiscountType.RATE, 10, 0),
+                new DiscountRule(Grade.VIP, null, 50000, DiscountRule.NO_UPPER_BOUND, DiscountType.RATE, 20, 0)));
+
+        assertThat(table.discount(Grade.VIP, null, 9999)).isEqualTo(0);
+        assertThat(table.discount(Grade.VIP, null, 10000)).isEqualTo(1000);
+        assertThat(table.discount(Grade.VIP, null, 49999)).isEqualTo(4999);
+        assertThat(table.discount(Grade.VIP, null, 50000)).isEqualTo(10000);
+        assertThat(table.discount(Grade.BASIC, null, 50000)).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("규칙이 겹치면 우선순위가 높은 규칙, 같으면 상품/등급을 지정한 규칙, 그래도 같으면 먼저 정의된 규칙이 이긴다.")
+    void precedence() {
+        DiscountRuleTable table = DiscountRuleTable.compile(List.of(
+                new DiscountRule(null, null, 0, DiscountRule.NO_UPPER_BOUND, DiscountType.FIXED, 100, 0),
+                new DiscountRule(Grade.VIP, null, 0, DiscountRule.NO_UPPER_BOUND, DiscountType.FIXED, 200, 0),
+                new DiscountRule(Grade.VIP, "itemA", 0, DiscountRule.NO_UPPER_BOUND, DiscountType.FIXED, 300, 0),
+                new DiscountRule(null, null, 20000, 30000, DiscountType.FIXED, 400, 1),
+                new DiscountRule(null, null, 20000, 30000, DiscountType.FIXED, 500, 1)));
+
+        assertThat(table.discount(Grade.BASIC, "itemA", 10000)).isEqualTo(100);
+        assertThat(table.discount(Grade.VIP, null, 10000)).isEqualTo(200);
+        assertThat(table.discount(Grade.VIP, "itemA", 10000)).isEqualTo(300);
+        // 상품 전용 규칙이 없는 상품은 공통 규칙을 따른다.
+        assertThat(table.discount(Grade.VIP, "itemB", 10000)).isEqualTo(200);
+        assertThat(table.discount(Grade.VIP, "itemA", 25000)).isEqualTo(400);
+        assertThat(table.discount(null, null, 10000)).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("정액 할인은 상품 가격을 넘지 않는다.")
+    void fixedDiscountIsCappedByPrice() {
+        DiscountRuleTable table = DiscountRuleTable.compile(List.of(DiscountRule.fixed(Grade.VIP, 1000)));
+
+        assertThat(table.discount(Grade.VIP, null, 500)).isEqualTo(500);
+        assertThat(table.discount(Grade.VIP, null, 5000)).isEqualTo(1000);
+    }
+
+    @Test
+    @DisplayName("잘못된 규칙은 만들 수 없다.")
+    void invalidRule() {
+        assertThatThrownBy(() -> new DiscountRule(null, null, 100, 100, DiscountType.FIXED, 10, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> DiscountRule.rate(Grade.VIP, 101))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("컴파일된 규칙표는 규칙을 차례로 검사한 결과와 같아야 한다.")
+    void sameAsLinearScan() {
+        Random random = new Random(42);
+        String[] items = {"itemA", "itemB", "itemC", null};
+        List<DiscountRule> rules = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Grade grade = random.nextInt(3) == 0 ? null : Grade.values()[random.nextInt(Grade.values().length)];
+            long minPrice = random.nextInt(100) * 1000;
+            long maxPrice = random.nextInt(5) == 0 ? DiscountRule.NO_UPPER_BOUND : minPrice + (1 + random.nextInt(30)) * 1000;
+            DiscountType type = random.nextBoolean() ? DiscountType.FIXED : DiscountType.RATE;
+            long value = type == DiscountType.FIXED ? random.nextInt(5000) : random.nextInt(50);
+            rules.add(new DiscountRule(grade, items[random.nextInt(items.length)], minPrice, maxPrice, type, value, random.nextInt(5)));
+        }
+        DiscountRuleTable table = DiscountRuleTable.compile(rules);
+
+        for (int i = 0; i < 100_000; i++) {
+            Grade grade = Grade.values()[random.nextInt(Grade.values().length)];
+            String itemName = items[random.nextInt(items.length)];
+            int price = random.nextInt(150_000);
+            assertThat(table.discount(grade, itemName, price))
+                    .as("grade=%s, item=%s, price=%d", grade, itemName, price)
+                    .isEqualTo(linearScan(rules, grade, itemName, price));
+        }
+        System.out.println("rules = " + table.ruleCount() + ", bands = " + table.bandCount());
+    }
+
+    // 우선순위 규칙을 그대로 따르는 단순 구현
+    private long linearScan(List<DiscountRule> rules, Grade grade, String itemName, long price) {
+        DiscountRule winner = null;
+        for (DiscountRule rule : rules) {
+            boolean matches = (rule.getGrade() == null || rule.getGrade() == grade)
+                    && (rule.getItemName() == null || rule.getItemName().equals(itemName))
+                    && rule.covers(price);
+            if (matches && (winner == null || beats(rule, winner))) {
+                winner = rule;
+            }
+        }
+        return winner == null ? 0 : winner.discount(price);
+    }
+
+    private boolean beats(DiscountRule rule, DiscountRule current) {
+        if (rule.getPriority() != current.getPriority()) {
+            return rule.getPriority() > current.getPriority();
+        }
+        if ((rule.getItemName() != null) != (current.getItemName() != null)) {
+            return rule.getItemName() != null;
+        }
+        if ((rule.getGrade() != null) != (current.getGrade() != null)) {
+            return rule.getGrade() != null;
+        }
+        return false;
+    }
+}
@@ -21,7 +21,7 @@ class RateDiscountPolicyTest {
         Member member = new Member(1L, "memberVIP", Grade.VIP);
 
         //when
-        int discountAmt = discountPolicy.discount(member, 10000);
+        long discountAmt = discountPolicy.discount(member, 10000);
 
         //then
         assertThat(discountAmt).isEqualTo(1000);
@@ -34,10 +34,27 @@ class RateDiscountPolicyTest {
         Member member = new Member(1L, "memberBASIC", Grade.BASIC);
 
         //when
-        int discountAmt = discountPolicy.discount(member, 10000);
+        long discountAmt = discountPolicy.discount(member, 10000);
 
         //then
         assertThat(discountAmt).isEqualTo(0);
     }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("int 범위를 넘는 큰 금액도 오버플로 없이 10% 할인되어야 한다.")
+    void large_price(){
+        //given
+        Member member = new Member(1L, "memberVIP", Grade.VIP);
+
+        //when
+        long discountAmt = discountPolicy.discount(member, 5_000_000_000L);
+        long maxDiscountAmt = discountPolicy.discount(member, Long.MAX_VALUE);
+        long[] discounts = discountPolicy.discount(member, new long[]{300_000_000L, 5_000_000_000L});
+
+        //then
+        assertThat(discountAmt).isEqualTo(500_000_000L);
+        assertThat(maxDiscountAmt).isEqualTo(Long.MAX_VALUE / 10);
+        assertThat(discounts).containsExactly(30_000_000L, 500_000_000L);
+    }
+
+}
@@ -0,0 +1,139 @@
+package hello.core.discount;
+
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReloadableDiscountPolicyTest {
+
+    @TempDir
+    Path dir;
+
+    ReloadableDiscountPolicy policy;
+    Member vip = new Member(1L, "memberVIP", Grade.VIP);
+
+    @AfterEach
+    void close() {
+        if (policy != null) {
+            policy.close();
+        }
+    }
+
+    @Test
+    @DisplayName("파일을 바꾸고 reload 하면 새 규칙이 적용되고 버전이 올라간다.")
+    void reload() throws IOException {
+        Path file = write("VIP, *, 0, *, RATE, 10");
+        policy = new ReloadableDiscountPolicy(file, 60_000);
+        policy.start();
+        assertThat(policy.discount(vip, 10000)).isEqualTo(1000);
+        assertThat(policy.getVersion()).isEqualTo(1);
+
+        write("VIP, *, 0, *, RATE, 20");
+        assertThat(policy.reload()).isTrue();
+
+        assertThat(policy.discount(vip, 10000)).isEqualTo(2000);
+        assertThat(policy.getVersion()).isEqualTo(2);
+        assertThat(policy.getReloadCount()).isEqualTo(2);
+        assertThat(policy.getLastReloadNanos()).isPositive();
+    }
+
+    @Test
+    @DisplayName("잘못된 파일로 바뀌면 기존 규칙을 유지하고 실패 횟수만 늘어난다.")
+    void keepRulesOnInvalidFile() throws IOException {
+        Path file = write("VIP, *, 0, *, RATE, 10");
+        policy = new ReloadableDiscountPolicy(file, 60_000);
+        policy.start();
+
+        write("VIP, *, 0, *, RATE, ten");
+        assertThat(policy.reload()).isFalse();
+
+        assertThat(policy.discount(vip, 10000)).isEqualTo(1000);
+        assertThat(policy.getVersion()).isEqualTo(1);
+        assertThat(policy.getReloadFailureCount()).isEqualTo(1);
+        assertThat(policy.getLastFailureMessage()).contains("1번째 줄");
+    }
+
+    @Test
+    @DisplayName("처음 읽기에 실패하면 시작할 수 없다.")
+    void failOnStart() {
+        policy = new ReloadableDiscountPolicy(dir.resolve("missing.csv"), 60_000);
+        assertThatThrownBy(() -> policy.start()).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("파일이 바뀌면 주기적으로 확인해서 자동으로 반영한다.")
+    void pollForChanges() throws Exception {
+        Path file = write("VIP, *, 0, *, RATE, 10");
+        policy = new ReloadableDiscountPolicy(file, 20);
+        policy.start();
+
+        write("VIP, *, 0, *, FIXED, 3000");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+
+        for (int i = 0; i < 100 && policy.getVersion() == 1; i++) {
+            Thread.sleep(20);
+        }
+        assertThat(policy.getVersion()).isEqualTo(2);
+        assertThat(policy.discount(vip, 10000)).isEqualTo(3000);
+    }
+
+    @Test
+    @DisplayName("규칙이 바뀌는 도중에도 한 번의 계산은 하나의 규칙표로만 이루어진다.")
+    void neverSeeHalfAppliedRules() throws Exception {
+        Path file = write(rules(10));
+        policy = new ReloadableDiscountPolicy(file, 60_000);
+        policy.start();
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger mixed = new AtomicInteger();
+        Thread reader = new Thread(() -> {
+            String[] itemNames = {"itemA", "itemB", "itemC", "itemD"};
+            long[] prices = {10000, 10000, 10000, 10000};
+            while (running.get()) {
+                long[] discounts = policy.discount(vip, itemNames, prices);
+                for (long discount : discounts) {
+                    if (discount != discounts[0]) {
+                        mixed.incrementAndGet();
+                    }
+                }
+            }
+        });
+        reader.start();
+
+        for (int i = 0; i < 50; i++) {
+            write(rules(i % 2 == 0 ? 20 : 10));
+            policy.reload();
+        }
+        running.set(false);
+        reader.join();
+
+        assertThat(mixed.get()).isEqualTo(0);
+        assertThat(policy.getVersion()).isEqualTo(51);
+    }
+
+    // 모든 상품에 같은 비율을 적용하는 상품별 규칙
+    private String rules(int percent) {
+        return "VIP, itemA, 0, *, RATE, " + percent + "\n"
+                + "VIP, itemB, 0, *, RATE, " + percent + "\n"
+                + "VIP, itemC, 0, *, RATE, " + percent + "\n"
+                + "VIP, itemD, 0, *, RATE, " + percent + "\n";
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.write(dir.resolve("discount-rules.csv"), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,41 @@
+package hello.core.discount;
+
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RuleDiscountPolicyTest {
+
+    @Test
+    @DisplayName("VIP 10% 규칙은 RateDiscountPolicy 와 같은 결과를 낸다.")
+    void sameAsRateDiscountPolicy() {
+        DiscountPolicy rulePolicy = new RuleDiscountPolicy(List.of(DiscountRule.rate(Grade.VIP, 10)));
+        DiscountPolicy ratePolicy = new RateDiscountPolicy();
+        Member vip = new Member(1L, "memberVIP", Grade.VIP);
+        Member basic = new Member(2L, "memberBASIC", Grade.BASIC);
+
+        for (int price = 0; price <= 100000; price += 777) {
+            assertThat(rulePolicy.discount(vip, price)).isEqualTo(ratePolicy.discount(vip, price));
+            assertThat(rulePolicy.discount(basic, price)).isEqualTo(ratePolicy.discount(basic, price));
+        }
+    }
+
+    @Test
+    @DisplayName("상품 전용 규칙은 상품명이 주어진 할인 계산에만 적용된다.")
+    void itemRule() {
+        DiscountPolicy policy = new RuleDiscountPolicy(List.of(
+                DiscountRule.rate(Grade.VIP, 10),
+                new DiscountRule(Grade.VIP, "itemA", 0, DiscountRule.NO_UPPER_BOUND, DiscountType.RATE, 30, 0)));
+        Member vip = new Member(1L, "memberVIP", Grade.VIP);
+
+        assertThat(policy.discount(vip, 10000)).isEqualTo(1000);
+        assertThat(policy.discount(vip, "itemA", 10000)).isEqualTo(3000);
+        assertThat(policy.discount(vip, "itemB", 10000)).isEqualTo(1000);
+        assertThat(policy.discount(vip, new String[]{"itemA", "itemB"}, new long[]{10000, 10000})).containsExactly(3000, 1000);
+    }
+}
@@ -0,0 +1,180 @@
+package hello.core.logging;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AsyncLogWriterTest {
+
+    @Test
+    @DisplayName("버퍼에 넣은 로그는 순서대로 출력되어야 한다.")
+    void writeInOrder() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        AsyncLogWriter writer = new AsyncLogWriter(1024, OverflowPolicy.BLOCK, 16, new PrintStream(bytes, true, StandardCharsets.UTF_8));
+        writer.start();
+
+        for (int i = 0; i < 100; i++) {
+            writer.write("[uuid][url]", "message" + i);
+        }
+        writer.write("[uuid]", " request scope bean close: ", "target");
+        writer.close();
+
+        String[] lines = bytes.toString(StandardCharsets.UTF_8).split(System.lineSeparator());
+        assertThat(lines).hasSize(101);
+        assertThat(lines[0]).isEqualTo("[uuid][url]message0");
+        assertThat(lines[99]).isEqualTo("[uuid][url]message99");
+        assertThat(lines[100]).isEqualTo("[uuid] request scope bean close: target");
+        assertThat(writer.getEnqueuedCount()).isEqualTo(101);
+        assertThat(writer.getWrittenCount()).isEqualTo(101);
+        assertThat(writer.getDroppedCount()).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("DROP 정책은 버퍼가 가득 차면 기다리지 않고 버린다.")
+    void dropWhenFull() throws Exception {
+        BlockingOutputStream blocked = new BlockingOutputStream();
+        AsyncLogWriter writer = new AsyncLogWriter(4, OverflowPolicy.DROP, 1, new PrintStream(blocked, true, StandardCharsets.UTF_8));
+        writer.start();
+
+        // 첫 로그를 출력하다가 writer 스레드가 멈춘 상태에서 버퍼(4칸)를 넘치게 쓴다.
+        writer.write("[p]", "first");
+        assertThat(blocked.writing.await(1, TimeUnit.SECONDS)).isTrue();
+        for (int i = 0; i < 10; i++) {
+            writer.write("[p]", "message" + i);
+        }
+
+        assertThat(writer.getQueuedCount()).isEqualTo(4);
+        assertThat(writer.getDroppedCount()).isEqualTo(6);
+        assertThat(writer.getEnqueuedCount()).isEqualTo(5);
+
+        blocked.release.countDown();
+        writer.close();
+        assertThat(writer.getWrittenCount()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("BLOCK 정책은 버퍼에 자리가 날 때까지 기다리고 로그를 버리지 않는다.")
+    void blockWhenFull() throws Exception {
+        BlockingOutputStream blocked = new BlockingOutputStream();
+        AsyncLogWriter writer = new AsyncLogWriter(2, OverflowPolicy.BLOCK, 1, new PrintStream(blocked, true, StandardCharsets.UTF_8));
+        writer.start();
+
+        writer.write("[p]", "first");
+        assertThat(blocked.writing.await(1, TimeUnit.SECONDS)).isTrue();
+        writer.write("[p]", "second");
+        writer.write("[p]", "third");
+
+        Thread producer = new Thread(() -> writer.write("[p]", "fourth"));
+        producer.start();
+        producer.join(200);
+        // 버퍼가 가득 차서 네 번째 로그를 쓰는 스레드는 아직 기다리고 있다.
+        assertThat(producer.isAlive()).isTrue();
+
+        blocked.release.countDown();
+        producer.join(1000);
+        assertThat(producer.isAlive()).isFalse();
+        writer.close();
+
+        assertThat(writer.getDroppedCount()).isEqualTo(0);
+        assertThat(writer.getWrittenCount()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("종료 후에 들어온 로그는 바로 출력된다.")
+    void writeAfterClose() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        AsyncLogWriter writer = new AsyncLogWriter(16, OverflowPolicy.DROP, 16, new PrintStream(bytes, true, StandardCharsets.UTF_8));
+        writer.start();
+        writer.close();
+
+        writer.write("[uuid]", " request scope bean close: ", "target");
+
+        assertThat(bytes.toString(StandardCharsets.UTF_8)).isEqualTo("[uuid] request scope bean close: target" + System.lineSeparator());
+    }
+
+    @Test
+    @DisplayName("출력 중 예외가 나도 writer 스레드는 멈추지 않고, BLOCK 생산자도 기다리다 멈추지 않는다.")
+    void survivesWriteFailure() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        AsyncLogWriter writer = new AsyncLogWriter(1, OverflowPolicy.BLOCK, 1, new PrintStream(bytes, true, StandardCharsets.UTF_8));
+        writer.start();
+        Object broken = new Object() {
+            @Override
+            public String toString() {
+                throw new IllegalStateException("toString failed");
+            }
+        };
+
+        writer.write("[p]", " bad: ", broken);
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 10; i++) {
+                writer.write("[p]", " good" + i);
+            }
+        });
+        producer.start();
+        producer.join(5000);
+        assertThat(producer.isAlive()).isFalse();
+        writer.close();
+
+        assertThat(writer.getDroppedCount()).isEqualTo(1);
+        assertThat(writer.getWrittenCount()).isEqualTo(10);
+        assertThat(bytes.toString(StandardCharsets.UTF_8)).contains("[p] good9").doesNotContain("bad");
+    }
+
+    @Test
+    @DisplayName("종료와 겹친 BLOCK 로그도 잃지 않고 출력된다.")
+    void blockDuringClose() throws Exception {
+        BlockingOutputStream blocked = new BlockingOutputStream();
+        AsyncLogWriter writer = new AsyncLogWriter(1, OverflowPolicy.BLOCK, 1, new PrintStream(blocked, true, StandardCharsets.UTF_8));
+        writer.start();
+        writer.write("[p]", "first");
+        assertThat(blocked.writing.await(1, TimeUnit.SECONDS)).isTrue();
+        writer.write("[p]", "second");
+        // 버퍼가 가득 차서 세 번째 로그는 close 가 시작된 뒤에야 들어간다.
+        Thread producer = new Thread(() -> writer.write("[p]", "third"));
+        producer.start();
+        Thread closer = new Thread(writer::close);
+        closer.start();
+
+        blocked.release.countDown();
+        producer.join(5000);
+        closer.join(10_000);
+
+        // 세 번째 로그는 버퍼를 거쳤든(close 이후 직접 비움) 종료 후 바로 출력했든 한 번 출력된다.
+        assertThat(writer.getWrittenCount()).isEqualTo(3);
+        assertThat(writer.getQueuedCount()).isEqualTo(0);
+    }
+
+    // 첫 출력에서 release 될 때까지 멈추는 스트림 (느린 출력 흉내)
+    static class BlockingOutputStream extends OutputStream {
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public void write(int b) {
+            await();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            await();
+        }
+
+        private void await() {
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package hello.core.logging;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestIdGeneratorTest {
+
+    @Test
+    @DisplayName("compact id 는 13자 고정 길이이고 생성 순서대로 정렬된다.")
+    void compactIdIsSortable() {
+        CompactRequestIdGenerator generator = new CompactRequestIdGenerator();
+
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            ids.add(generator.nextId());
+        }
+
+        assertThat(ids).allMatch(id -> id.length() == CompactRequestIdGenerator.ENCODED_LENGTH);
+        assertThat(ids).isSorted();
+        assertThat(new HashSet<>(ids)).hasSize(ids.size());
+    }
+
+    @Test
+    @DisplayName("여러 스레드에서 동시에 만들어도 compact id 는 중복되지 않는다.")
+    void compactIdIsUniqueAcrossThreads() throws Exception {
+        CompactRequestIdGenerator generator = new CompactRequestIdGenerator();
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    ids.add(generator.nextId());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertThat(ids).hasSize(8 * 50_000);
+    }
+
+    @Test
+    @DisplayName("compact id 의 앞부분은 생성 시각(ms)을 담고 있다.")
+    void compactIdContainsTimestamp() {
+        long before = System.currentTimeMillis();
+        long value = new CompactRequestIdGenerator().nextValue();
+        long after = System.currentTimeMillis();
+
+        long millis = (value >>> CompactRequestIdGenerator.SEQUENCE_BITS) + CompactRequestIdGenerator.EPOCH;
+        assertThat(millis).isBetween(before, after);
+    }
+
+    @Test
+    @DisplayName("uuid 생성기는 기존과 같은 36자 UUID 를 만든다.")
+    void uuidId() {
+        String id = new UuidRequestIdGenerator().nextId();
+        assertThat(id).hasSize(36);
+        assertThat(id).matches("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+    }
+}
@@ -0,0 +1,199 @@
+package hello.core.member;
+
+import hello.core.AutoAppConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachingMemberRepositoryTest {
+
+    AtomicLong now = new AtomicLong();
+    CountingRepository store = new CountingRepository();
+
+    @Test
+    @DisplayName("한 번 읽은 회원은 저장소를 다시 부르지 않는다.")
+    void readThrough() {
+        store.save(new Member(1L, "memberA", Grade.VIP));
+        CachingMemberRepository repository = new CachingMemberRepository(store, 100, 1000, 1000, now::get);
+
+        assertThat(repository.findById(1L).getName()).isEqualTo("memberA");
+        assertThat(repository.findById(1L).getName()).isEqualTo("memberA");
+        assertThat(repository.findById(1L).getName()).isEqualTo("memberA");
+
+        assertThat(store.finds.get()).isEqualTo(1);
+        assertThat(repository.getHitCount()).isEqualTo(2);
+        assertThat(repository.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("save 는 저장소에 쓰고 캐시도 바꾼다. (이전에 없던 id 의 negative 캐시도 덮어쓴다)")
+    void writeThrough() {
+        CachingMemberRepository repository = new CachingMemberRepository(store, 100, 1000, 1000, now::get);
+
+        assertThat(repository.findById(1L)).isNull();
+        repository.save(new Member(1L, "memberA", Grade.BASIC));
+        assertThat(repository.findById(1L).getName()).isEqualTo("memberA");
+
+        repository.save(new Member(1L, "memberA", Grade.VIP));
+        assertThat(repository.findById(1L).getGrade()).isEqualTo(Grade.VIP);
+        assertThat(store.findById(Long.valueOf(1L)).getGrade()).isEqualTo(Grade.VIP);
+        assertThat(store.finds.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("없는 id 는 negative ttl 동안 저장소를 다시 부르지 않는다.")
+    void negativeCache() {
+        CachingMemberRepository repository = new CachingMemberRepository(store, 100, 1000, 100, now::get);
+
+        assertThat(repository.findById(999L)).isNull();
+        assertThat(repository.findById(999L)).isNull();
+        assertThat(store.finds.get()).isEqualTo(1);
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(101));
+        assertThat(repository.findById(999L)).isNull();
+        assertThat(store.finds.get()).isEqualTo(2);
+        assertThat(repository.getExpirationCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("ttl 이 지나면 저장소에서 다시 읽어서 다른 경로로 바뀐 값을 반영한다.")
+    void expire() {
+        store.save(new Member(1L, "memberA", Grade.BASIC));
+        CachingMemberRepository repository = new CachingMemberRepository(store, 100, 1000, 1000, now::get);
+        repository.findById(1L);
+
+        // 캐시를 거치지 않고 저장소를 바꾼다.
+        store.save(new Member(1L, "memberA", Grade.VIP));
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+        assertThat(repository.findById(1L).getGrade()).isEqualTo(Grade.BASIC);
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(2));
+        assertThat(repository.findById(1L).getGrade()).isEqualTo(Grade.VIP);
+        assertThat(repository.getExpirationCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("크기를 넘으면 가장 오래 쓰지 않은 회원부터 뺀다.")
+    void evictLeastRecentlyUsed() {
+        for (long id = 1; id <= 100; id++) {
+            store.save(new Member(id, "member" + id, Grade.BASIC));
+        }
+        CachingMemberRepository repository = new CachingMemberRepository(store, 16, 1000, 1000, now::get);
+        for (long id = 1; id <= 100; id++) {
+            repository.findById(id);
+        }
+
+        assertThat(repository.size()).isLessThanOrEqualTo(16);
+        assertThat(repository.getEvictionCount()).isEqualTo(100 - repository.size());
+    }
+
+    @Test
+    @DisplayName("일괄 조회는 캐시에 없는 id 만 모아서 저장소를 한 번 부른다.")
+    void findAllById() {
+        for (long id = 1; id <= 5; id++) {
+            store.save(new Member(id, "member" + id, Grade.BASIC));
+        }
+        CachingMemberRepository repository = new CachingMemberRepository(store, 100, 1000, 1000, now::get);
+        repository.findById(2L);
+        repository.findById(4L);
+
+        Member[] members = repository.findAllById(new long[]{1L, 2L, 3L, 4L, 999L});
+
+        assertThat(members).extracting(member -> member == null ? null : member.getId())
+                .containsExactly(1L, 2L, 3L, 4L, null);
+        assertThat(store.bulkFinds.get()).isEqualTo(1);
+        assertThat(store.bulkIds.get()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("member.cache.enabled=true 이면 회원 저장소 빈이 캐시로 감싸진다.")
+    void enableByProperty() {
+        AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext();
+        ac.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", Map.of(
+                "member.cache.enabled", "true",
+                "member.repository", "slow",
+                "member.slow.latency-us", "0")));
+        ac.register(AutoAppConfig.class);
+        ac.refresh();
+
+        MemberRepository repository = ac.getBean(MemberRepository.class);
+        assertThat(repository).isInstanceOf(CachingMemberRepository.class);
+        assertThat(((CachingMemberRepository) repository).getDelegate()).isInstanceOf(SlowMemberRepository.class);
+        ac.close();
+    }
+
+    // 저장소 조회 횟수를 센다. (findById(Long) 은 세지 않으므로 테스트에서 확인용으로 쓴다)
+    @Test
+    @DisplayName("저장소에서 옛날 값을 읽는 동안 save 된 새 값을, 늦게 끝난 read-through 가 덮어쓰지 않는다.")
+    void readThroughDoesNotOverwriteConcurrentSave() throws Exception {
+        StallingRepository stalling = new StallingRepository();
+        stalling.save(new Member(1L, "old", Grade.BASIC));
+        CachingMemberRepository repository = new CachingMemberRepository(stalling, 100, 60_000, 1000);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // 읽는 스레드가 저장소에서 "old" 를 읽은 뒤 멈춘 사이에 새 값을 저장한다.
+        Future<Member> reader = executor.submit(() -> repository.findById(1L));
+        assertThat(stalling.read.await(5, TimeUnit.SECONDS)).isTrue();
+        repository.save(new Member(1L, "new", Grade.VIP));
+        stalling.proceed.countDown();
+
+        assertThat(reader.get(5, TimeUnit.SECONDS).getName()).isEqualTo("old");
+        assertThat(repository.findById(1L).getName()).isEqualTo("new");
+        executor.shutdown();
+    }
+
+    // 저장소에서 읽은 뒤 proceed 가 열릴 때까지 멈춘다. (첫 조회만)
+    static class StallingRepository extends ConcurrentMemberRepository {
+        final CountDownLatch read = new CountDownLatch(1);
+        final CountDownLatch proceed = new CountDownLatch(1);
+
+        @Override
+        public Member findById(long id) {
+            Member member = super.findById(id);
+            if (read.getCount() > 0) {
+                read.countDown();
+                try {
+                    proceed.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return member;
+        }
+    }
+
+    static class CountingRepository extends ConcurrentMemberRepository {
+        final AtomicInteger finds = new AtomicInteger();
+        final AtomicInteger bulkFinds = new AtomicInteger();
+        final AtomicInteger bulkIds = new AtomicInteger();
+
+        @Override
+        public Member findById(long id) {
+            finds.incrementAndGet();
+            return super.findById(id);
+        }
+
+        @Override
+        public Member[] findAllById(long[] ids) {
+            bulkFinds.incrementAndGet();
+            bulkIds.addAndGet(ids.length);
+            Member[] members = new Member[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                members[i] = super.findById(Long.valueOf(ids[i]));
+            }
+            return members;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package hello.core.member;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompressedBitmapTest {
+
+    @Test
+    @DisplayName("추가/삭제/포함 여부와 원소 수가 정확하다.")
+    void addRemoveContains() {
+        CompressedBitmap bitmap = CompressedBitmap.of(5, 1, 70000, 3);
+
+        assertThat(bitmap.add(3)).isFalse();
+        assertThat(bitmap.contains(70000)).isTrue();
+        assertThat(bitmap.contains(2)).isFalse();
+        assertThat(bitmap.cardinality()).isEqualTo(4);
+        assertThat(bitmap.stream().toArray()).containsExactly(1, 3, 5, 70000);
+
+        assertThat(bitmap.remove(70000)).isTrue();
+        assertThat(bitmap.remove(70000)).isFalse();
+        assertThat(bitmap.stream().toArray()).containsExactly(1, 3, 5);
+        assertThatThrownBy(() -> bitmap.add(-1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("빽빽한 구간은 비트맵 칸으로 바뀌어 값 1개당 1 bit 정도만 쓴다.")
+    void dense() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int i = 0; i < 1_000_000; i++) {
+            bitmap.add(i);
+        }
+
+        assertThat(bitmap.cardinality()).isEqualTo(1_000_000);
+        assertThat(bitmap.sizeInBytes()).isLessThan(1_000_000 / 8 + 16 * 1024);
+        assertThat(bitmap.stream().asLongStream().sum()).isEqualTo(499_999_500_000L);
+    }
+
+    @Test
+    @DisplayName("and/or/삭제 결과는 BitSet 으로 계산한 결과와 같다.")
+    void sameAsBitSet() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int round = 0; round < 30; round++) {
+            int range = new int[]{1_000, 70_000, 300_000}[round % 3];
+            int count = random.nextInt(20_000);
+            CompressedBitmap left = new CompressedBitmap();
+            CompressedBitmap right = new CompressedBitmap();
+            BitSet leftSet = new BitSet();
+            BitSet rightSet = new BitSet();
+            for (int i = 0; i < count; i++) {
+                int a = random.nextInt(range);
+                int b = random.nextInt(range);
+                left.add(a);
+                leftSet.set(a);
+                right.add(b);
+                rightSet.set(b);
+            }
+            for (int i = 0; i < count / 2; i++) {
+                int value = random.nextInt(range);
+                assertThat(left.remove(value)).isEqualTo(leftSet.get(value));
+                leftSet.clear(value);
+            }
+
+            BitSet and = (BitSet) leftSet.clone();
+            and.and(rightSet);
+            BitSet or = (BitSet) leftSet.clone();
+            or.or(rightSet);
+
+            assertThat(left.stream().toArray()).isEqualTo(leftSet.stream().toArray());
+            assertThat(left.and(right).stream().toArray()).isEqualTo(and.stream().toArray());
+            assertThat(left.or(right).stream().toArray()).isEqualTo(or.stream().toArray());
+            assertThat(right.or(left).cardinality()).isEqualTo(or.cardinality());
+        }
+    }
+
+    @Test
+    @DisplayName("copy 는 원본이 바뀌어도 영향을 받지 않는다.")
+    void copy() {
+        CompressedBitmap bitmap = CompressedBitmap.of(1, 2, 3);
+        CompressedBitmap copy = bitmap.copy();
+
+        bitmap.add(4);
+        bitmap.remove(1);
+
+        assertThat(copy.stream().toArray()).containsExactly(1, 2, 3);
+    }
+}
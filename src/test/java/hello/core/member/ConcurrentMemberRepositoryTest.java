@@ -0,0 +1,144 @@
+package hello.core.member;
+
+import hello.core.AutoAppConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrentMemberRepositoryTest {
+
+    static final int THREADS = 8;
+    static final int MEMBERS_PER_THREAD = 20_000;
+
+    @Test
+    @DisplayName("여러 스레드가 동시에 저장해도 쓰기가 유실되지 않아야 한다.")
+    void concurrentSave() throws Exception {
+        ConcurrentMemberRepository repository = new ConcurrentMemberRepository();
+        AtomicInteger readMiss = new AtomicInteger();
+
+        runConcurrently(threadNo -> {
+            long base = (long) threadNo * MEMBERS_PER_THREAD;
+            for (long i = 1; i <= MEMBERS_PER_THREAD; i++) {
+                repository.save(new Member(base + i, "member" + (base + i), Grade.BASIC));
+                // 자기가 방금 저장한 회원은 바로 조회되어야 한다.
+                if (repository.findById(base + i) == null) {
+                    readMiss.incrementAndGet();
+                }
+            }
+        });
+
+        assertThat(readMiss.get()).isEqualTo(0);
+        assertThat(repository.size()).isEqualTo(THREADS * MEMBERS_PER_THREAD);
+        for (long id = 1; id <= THREADS * MEMBERS_PER_THREAD; id++) {
+            assertThat(repository.findById(id).getId()).isEqualTo(id);
+        }
+    }
+
+    @Test
+    @DisplayName("같은 회원을 동시에 덮어써도 마지막 값 하나만 남아야 한다.")
+    void concurrentOverwrite() throws Exception {
+        ConcurrentMemberRepository repository = new ConcurrentMemberRepository();
+
+        runConcurrently(threadNo -> {
+            for (int i = 0; i < MEMBERS_PER_THREAD; i++) {
+                repository.save(new Member(1L, "thread" + threadNo, Grade.VIP));
+                assertThat(repository.findById(1L)).isNotNull();
+            }
+        });
+
+        assertThat(repository.size()).isEqualTo(1);
+        assertThat(repository.findById(1L).getName()).startsWith("thread");
+    }
+
+    @Test
+    @DisplayName("member.repository=concurrent 이면 ConcurrentMemberRepository 가 주입된다.")
+    void selectByProperty() {
+        AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext();
+        ac.getEnvironment().getPropertySources()
+                .addFirst(new MapPropertySource("test", Map.of("member.repository", "concurrent")));
+        ac.register(AutoAppConfig.class);
+        ac.refresh();
+
+        MemberServiceImpl memberService = ac.getBean(MemberServiceImpl.class);
+        assertThat(memberService.getMemberRepository()).isInstanceOf(ConcurrentMemberRepository.class);
+        assertThat(ac.getBeansOfType(MemberRepository.class)).hasSize(1);
+        ac.close();
+    }
+
+    /*
+    * HashMap 은 동시 쓰기 중에는 결과를 보장할 수 없으므로(무한 루프 가능성도 있다) 비교는 읽기 전용 구간에서만 한다.
+    * 수치는 환경마다 다르므로 출력만 하고 검증하지 않는다.
+    * */
+    @Test
+    @DisplayName("읽기 처리량 비교: MemoryMemberRepository vs ConcurrentMemberRepository")
+    void readThroughput() throws Exception {
+        MemberRepository memory = new MemoryMemberRepository();
+        MemberRepository concurrent = new ConcurrentMemberRepository(MEMBERS_PER_THREAD);
+        for (long id = 1; id <= MEMBERS_PER_THREAD; id++) {
+            Member member = new Member(id, "member" + id, Grade.BASIC);
+            memory.save(member);
+            concurrent.save(member);
+        }
+
+        // JIT 워밍업
+        measureReads(memory);
+        measureReads(concurrent);
+
+        long memoryNanos = measureReads(memory);
+        long concurrentNanos = measureReads(concurrent);
+        long totalReads = (long) THREADS * MEMBERS_PER_THREAD * 10;
+        System.out.println("MemoryMemberRepository     reads/ms = " + totalReads * 1_000_000 / memoryNanos);
+        System.out.println("ConcurrentMemberRepository reads/ms = " + totalReads * 1_000_000 / concurrentNanos);
+    }
+
+    private long measureReads(MemberRepository repository) throws Exception {
+        long start = System.nanoTime();
+        runConcurrently(threadNo -> {
+            for (int round = 0; round < 10; round++) {
+                for (long id = 1; id <= MEMBERS_PER_THREAD; id++) {
+                    repository.findById(id);
+                }
+            }
+        });
+        return System.nanoTime() - start;
+    }
+
+    private void runConcurrently(Worker worker) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int threadNo = t;
+            futures.add(executor.submit(() -> {
+                startLatch.await();
+                worker.run(threadNo);
+                return null;
+            }));
+        }
+        startLatch.countDown();
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @FunctionalInterface
+    interface Worker {
+        void run(int threadNo);
+    }
+}
@@ -0,0 +1,315 @@
+package hello.core.member;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class JdbcMemberRepositoryTest {
+
+    HikariDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    @DisplayName("MemberServiceImpl 로 가입한 회원은 DB 에 쓰이기 전에도 조회된다.")
+    void readPendingWrites() throws SQLException {
+        // flush 주기를 길게 잡아서 flush() 전까지는 대기열에만 있게 한다.
+        JdbcMemberRepository repository = new JdbcMemberRepository(dataSource, 60_000, 100, 1000);
+        MemberService memberService = new MemberServiceImpl(repository);
+
+        memberService.join(new Member(1L, "memberA", Grade.VIP));
+        memberService.join(new Member(2L, null, Grade.BASIC));
+
+        assertThat(repository.getPendingCount()).isEqualTo(2);
+        assertThat(countRows()).isEqualTo(0);
+        assertThat(memberService.findMember(1L).getName()).isEqualTo("memberA");
+        assertThat(memberService.findMember(2L).getName()).isNull();
+        assertThat(memberService.findMember(3L)).isNull();
+
+        repository.flush();
+
+        assertThat(repository.getPendingCount()).isEqualTo(0);
+        assertThat(countRows()).isEqualTo(2);
+        Member memberA = memberService.findMember(1L);
+        assertThat(memberA.getName()).isEqualTo("memberA");
+        assertThat(memberA.getGrade()).isEqualTo(Grade.VIP);
+        repository.close();
+    }
+
+    @Test
+    @DisplayName("대기열은 batchSize 건씩 한 번의 배치로 쓰인다.")
+    void batching() throws SQLException {
+        JdbcMemberRepository repository = new JdbcMemberRepository(dataSource, 60_000, 100, 10_000);
+        for (long id = 1; id <= 1000; id++) {
+            repository.save(new Member(id, "member" + id, Grade.BASIC));
+        }
+
+        repository.flush();
+
+        assertThat(repository.getFlushedRows()).isEqualTo(1000);
+        assertThat(repository.getFlushCount()).isLessThanOrEqualTo(10 + 1);
+        assertThat(countRows()).isEqualTo(1000);
+        repository.close();
+    }
+
+    @Test
+    @DisplayName("같은 회원을 여러 번 저장하면 대기열에서 마지막 값 하나로 합쳐진다.")
+    void coalesce() {
+        JdbcMemberRepository repository = new JdbcMemberRepository(dataSource, 60_000, 100, 1000);
+        repository.save(new Member(1L, "memberA", Grade.BASIC));
+        repository.save(new Member(1L, "memberA", Grade.VIP));
+        repository.save(new Member(1L, "memberB", Grade.VIP));
+        assertThat(repository.getPendingCount()).isEqualTo(1);
+
+        repository.flush();
+
+        assertThat(repository.getFlushedRows()).isEqualTo(1);
+        Member member = repository.findById(1L);
+        assertThat(member.getName()).isEqualTo("memberB");
+        assertThat(member.getGrade()).isEqualTo(Grade.VIP);
+        repository.close();
+    }
+
+    @Test
+    @DisplayName("저장한 뒤 객체를 바꿔도 다시 save 하기 전까지는 반영되지 않는다.")
+    void copyOnSave() {
+        JdbcMemberRepository repository = new JdbcMemberRepository(dataSource, 60_000, 100, 1000);
+        Member member = new Member(1L, "memberA", Grade.BASIC);
+        repository.save(member);
+
+        member.setGrade(Grade.VIP);
+        repository.findById(1L).setGrade(Grade.VIP);
+
+        assertThat(repository.findById(1L).getGrade()).isEqualTo(Grade.BASIC);
+        repository.flush();
+        assertThat(repository.findById(1L).getGrade()).isEqualTo(Grade.BASIC);
+        repository.close();
+    }
+
+    @Test
+    @DisplayName("flush 를 호출하지 않아도 flush 주기 안에 DB 에 쓰인다.")
+    void backgroundFlush() throws Exception {
+        JdbcMemberRepository repository = new JdbcMemberRepository(dataSource, 10, 100, 1000);
+        repository.save(new Member(1L, "memberA", Grade.VIP));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (repository.getPendingCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(repository.getPendingCount()).isEqualTo(0);
+        assertThat(countRows()).isEqualTo(1);
+        repository.close();
+    }
+
+    @Test
+    @DisplayName("close 하면 남은 대기열을 쓰고, 같은 DB 를 다시 열면 그대로 조회된다.")
+    void closeAndReopen() {
+        JdbcMemberRepository repository = new JdbcMemberRepository(dataSource, 60_000, 100, 1000);
+        repository.save(new Member(1L, "memberA", Grade.VIP));
+        repository.close();
+
+        JdbcMemberRepository reopened = new JdbcMemberRepository(dataSource, 60_000, 100, 1000);
+        assertThat(reopened.getPendingCount()).isEqualTo(0);
+        assertThat(reopened.findById(1L).getName()).isEqualTo("memberA");
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("close 한 뒤의 저장은 대기열에 넣지 않고 거부한다.")
+    void saveAfterClose() throws SQLException {
+        JdbcMemberRepository repository = new JdbcMemberRepository(dataSource, 60_000, 100, 1000);
+        repository.save(new Member(1L, "memberA", Grade.VIP));
+        repository.close();
+
+        assertThrows(IllegalStateException.class, () -> repository.save(new Member(2L, "memberB", Grade.BASIC)));
+        assertThrows(IllegalStateException.class,
+                () -> repository.saveAll(List.of(new Member(3L, "memberC", Grade.BASIC))));
+        assertThat(repository.getPendingCount()).isEqualTo(0);
+        assertThat(countRows()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("findAllById 는 대기열과 DB 를 함께 보고, 없는 id 는 null 로 돌려준다.")
+    void findAllById() {
+        JdbcMemberRepository repository = new JdbcMemberRepository(dataSource, 60_000, 100, 10_000);
+        for (long id = 1; id <= 500; id++) {
+            repository.save(new Member(id, "member" + id, Grade.BASIC));
+        }
+        repository.flush();
+        repository.save(new Member(1L, "memberA", Grade.VIP));
+        repository.save(new Member(1000L, "member1000", Grade.VIP));
+
+        long[] ids = new long[502];
+        for (int i = 0; i < 500; i++) {
+            ids[i] = i + 1;
+        }
+        ids[500] = 1000L;
+        ids[501] = 2000L;
+        Member[] members = repository.findAllById(ids);
+
+        assertThat(members[0].getName()).isEqualTo("memberA");
+        assertThat(members[499].getName()).isEqualTo("member500");
+        assertThat(members[500].getGrade()).isEqualTo(Grade.VIP);
+        assertThat(members[501]).isNull();
+        repository.close();
+    }
+
+    @Test
+    @DisplayName("이름/등급 조회는 대기열의 회원도 포함해서 SQL 로 찾는다.")
+    void findByNameAndGrade() {
+        JdbcMemberRepository repository = new JdbcMemberRepository(dataSource, 60_000, 100, 1000);
+        repository.save(new Member(3L, "kim", Grade.VIP));
+        repository.save(new Member(1L, "kim", Grade.BASIC));
+        repository.save(new Member(2L, "kim_chi", Grade.BASIC));
+        repository.save(new Member(4L, "kimxchi", null));
+
+        assertThat(repository.findByName("kim", 0, 10)).extracting(Member::getId).containsExactly(1L, 3L);
+        assertThat(repository.findByNamePrefix("kim", 1, 2)).extracting(Member::getId).containsExactly(3L, 2L);
+        // _ 는 LIKE 의 한 글자 와일드카드가 아니라 글자 그대로 찾는다.
+        assertThat(repository.findByNamePrefix("kim_", 0, 10)).extracting(Member::getId).containsExactly(2L);
+        assertThat(repository.countByGrade(Grade.BASIC)).isEqualTo(2);
+        assertThat(repository.countByGrade(null)).isEqualTo(1);
+        assertThat(repository.streamByGrade(Grade.BASIC).map(Member::getId)).containsExactly(1L, 2L);
+        assertThat(repository.findAll()).hasSize(4);
+        repository.close();
+    }
+
+    @Test
+    @DisplayName("여러 스레드가 동시에 가입해도 모두 저장된다.")
+    void concurrentJoin() throws Exception {
+        JdbcMemberRepository repository = new JdbcMemberRepository(dataSource, 5, 100, 500);
+        MemberService memberService = new MemberServiceImpl(repository);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            long base = t * 10_000L;
+            futures.add(executor.submit(() -> {
+                for (long id = base + 1; id <= base + 2500; id++) {
+                    memberService.join(new Member(id, "member" + id, Grade.BASIC));
+                    assertThat(memberService.findMember(id)).isNotNull();
+                }
+            }));
+        }
+        // 작업 스레드의 AssertionError 는 get() 에서 ExecutionException 으로 다시 던져져 테스트를 실패시킨다.
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        repository.close();
+
+        assertThat(countRows()).isEqualTo(10_000);
+        assertThat(repository.getFlushCount()).isLessThan(10_000);
+    }
+
+    @Test
+    @DisplayName("flush 는 호출한 시점의 대기열만 쓰고 돌아온다. 쓰는 동안 저장이 계속 들어와도 끝난다.")
+    void flushWritesSnapshot() throws SQLException {
+        AtomicReference<JdbcMemberRepository> target = new AtomicReference<>();
+        AtomicLong nextId = new AtomicLong(1000);
+        // 커넥션을 빌릴 때마다 다른 회원이 저장된다. (join 이 끊이지 않는 상황)
+        DataSource busy = wrap((proxy, method, args) -> {
+            JdbcMemberRepository repository = target.get();
+            if (repository != null && method.getName().equals("getConnection")) {
+                repository.save(new Member(nextId.incrementAndGet(), "late", Grade.BASIC));
+            }
+            return method.invoke(dataSource, args);
+        });
+        JdbcMemberRepository repository = new JdbcMemberRepository(busy, 60_000, 10, 100_000);
+        for (long id = 1; id <= 50; id++) {
+            repository.save(new Member(id, "member" + id, Grade.BASIC));
+        }
+        target.set(repository);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), repository::flush);
+        target.set(null);
+
+        assertThat(countRows()).isGreaterThanOrEqualTo(50);
+        repository.close();
+    }
+
+    @Test
+    @DisplayName("DB 에 쓰지 못하면 대기열이 차 있어도 flush 주기마다 한 번만 다시 시도한다.")
+    void backOffAfterFailure() throws Exception {
+        AtomicBoolean down = new AtomicBoolean();
+        AtomicLong attempts = new AtomicLong();
+        DataSource flaky = wrap((proxy, method, args) -> {
+            if (down.get() && method.getName().equals("getConnection")) {
+                attempts.incrementAndGet();
+                throw new SQLException("database is down");
+            }
+            return method.invoke(dataSource, args);
+        });
+        JdbcMemberRepository repository = new JdbcMemberRepository(flaky, 200, 10, 10_000);
+        down.set(true);
+        for (long id = 1; id <= 100; id++) {
+            repository.save(new Member(id, "member" + id, Grade.BASIC));
+        }
+
+        Thread.sleep(1000);
+
+        // 1초 동안 200ms 주기면 6번 안팎이다. (쉬지 않고 재시도하면 수천 번)
+        assertThat(attempts.get()).isBetween(1L, 10L);
+        assertThat(repository.getFailureCount()).isPositive();
+        down.set(false);
+        repository.close();
+        assertThat(countRows()).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("flush 설정이 올바르지 않으면 생성할 수 없다.")
+    void invalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new JdbcMemberRepository(dataSource, 0, 100, 1000));
+        assertThrows(IllegalArgumentException.class, () -> new JdbcMemberRepository(dataSource, 50, 100, 10));
+        JdbcMemberRepository repository = new JdbcMemberRepository(dataSource, 50, 100, 1000);
+        assertThrows(IllegalArgumentException.class, () -> repository.save(new Member(null, "memberA", Grade.VIP)));
+        repository.close();
+    }
+
+    private DataSource wrap(InvocationHandler handler) {
+        return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DataSource.class}, handler);
+    }
+
+    private long countRows() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM members")) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package hello.core.member;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LongMemberMapTest {
+
+    @Test
+    @DisplayName("저장한 회원을 long 키로 조회할 수 있어야 한다.")
+    void putAndGet() {
+        LongMemberMap map = new LongMemberMap();
+        Member member = new Member(1L, "memberA", Grade.VIP);
+
+        assertThat(map.put(1L, member)).isNull();
+
+        assertThat(map.get(1L)).isSameAs(member);
+        assertThat(map.get(2L)).isNull();
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("같은 키로 저장하면 덮어쓰고 이전 값을 돌려준다.")
+    void overwrite() {
+        LongMemberMap map = new LongMemberMap();
+        Member before = new Member(1L, "before", Grade.BASIC);
+        Member after = new Member(1L, "after", Grade.VIP);
+
+        map.put(1L, before);
+        assertThat(map.put(1L, after)).isSameAs(before);
+
+        assertThat(map.get(1L)).isSameAs(after);
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("resize 이후에도 HashMap 과 같은 결과를 돌려줘야 한다.")
+    void sameAsHashMap() {
+        LongMemberMap map = new LongMemberMap();
+        HashMap<Long, Member> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100_000; i++) {
+            // 음수, 0, 큰 값이 섞이도록
+            long id = random.nextInt(50_000) - 10_000L + (i % 3 == 0 ? Long.MAX_VALUE / 2 : 0);
+            Member member = new Member(id, "member" + i, Grade.BASIC);
+            map.put(id, member);
+            expected.put(id, member);
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (Long id : expected.keySet()) {
+            assertThat(map.get(id)).isSameAs(expected.get(id));
+        }
+        assertThat(map.get(Long.MIN_VALUE)).isNull();
+    }
+
+    @Test
+    @DisplayName("null 은 저장할 수 없다.")
+    void nullValue() {
+        LongMemberMap map = new LongMemberMap();
+        assertThrows(IllegalArgumentException.class, () -> map.put(1L, null));
+    }
+
+    @Test
+    @DisplayName("PrimitiveMemberRepository 는 Long/long 어느 쪽으로도 조회된다.")
+    void primitiveRepository() {
+        PrimitiveMemberRepository repository = new PrimitiveMemberRepository();
+        MemberService memberService = new MemberServiceImpl(repository);
+        Member member = new Member(7L, "memberA", Grade.VIP);
+
+        memberService.join(member);
+
+        assertThat(memberService.findMember(7L)).isSameAs(member);
+        assertThat(memberService.findMember(Long.valueOf(7L))).isSameAs(member);
+        assertThat(repository.findById((Long) null)).isNull();
+    }
+
+    @Test
+    @DisplayName("PrimitiveMemberRepository 는 id 가 없는 회원을 저장하지 않는다.")
+    void primitiveRepositoryNullId() {
+        PrimitiveMemberRepository repository = new PrimitiveMemberRepository();
+
+        assertThrows(IllegalArgumentException.class, () -> repository.save(new Member(null, "memberA", Grade.VIP)));
+        assertThrows(IllegalArgumentException.class, () -> repository.saveAll(
+                List.of(new Member(8L, "memberB", Grade.BASIC), new Member(null, "memberC", Grade.BASIC))));
+        assertThat(repository.findById(8L)).isNull();
+    }
+
+    @Test
+    @DisplayName("회원 1명당 메모리 사용량 리포트: 100만명")
+    void footprint_1M() {
+        printFootprint(1_000_000);
+    }
+
+    /*
+    * 1,000만명은 Member 객체만으로도 1GB 가까이 필요하므로 기본으로는 실행하지 않는다.
+    * ./gradlew test --tests '*LongMemberMapTest*' -Dmember.footprint.large=true
+    * (테스트 JVM 힙이 부족하면 IDE 실행 설정에 -Xmx4g 와 함께 지정)
+    * */
+    @Test
+    @EnabledIfSystemProperty(named = "member.footprint.large", matches = "true")
+    @DisplayName("회원 1명당 메모리 사용량 리포트: 1,000만명")
+    void footprint_10M() {
+        printFootprint(10_000_000);
+    }
+
+    /*
+    * 회원(Member) 객체는 두 자료구조가 같이 쓰므로 미리 만들어 두고, 자료구조 자체가 늘린 힙 사용량만 비교한다.
+    * System.gc() 에 의존하므로 대략적인 값이다.
+    * */
+    private void printFootprint(int memberCount) {
+        Member[] members = new Member[memberCount];
+        for (int i = 0; i < memberCount; i++) {
+            members[i] = new Member((long) i + 1, "member", Grade.BASIC);
+        }
+
+        long before = usedHeap();
+        HashMap<Long, Member> hashMap = new HashMap<>();
+        for (Member member : members) {
+            // Member 가 가진 Long 을 재사용하지 않고 새로 박싱되는 실제 조회 경로와 같게 맞춘다.
+            hashMap.put(Long.valueOf(member.getId().longValue()), member);
+        }
+        long hashMapBytes = usedHeap() - before;
+        assertThat(hashMap.size()).isEqualTo(memberCount);
+        hashMap.clear();
+
+        before = usedHeap();
+        LongMemberMap longMap = new LongMemberMap();
+        for (Member member : members) {
+            longMap.put(member.getId(), member);
+        }
+        long longMapBytes = usedHeap() - before;
+        assertThat(longMap.size()).isEqualTo(memberCount);
+
+        System.out.println("members = " + memberCount);
+        System.out.println("HashMap<Long, Member> bytes/member = " + (double) hashMapBytes / memberCount);
+        System.out.println("LongMemberMap         bytes/member = " + (double) longMapBytes / memberCount
+                + " (table = " + (double) longMap.tableBytes() / memberCount + ")");
+    }
+
+    private long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
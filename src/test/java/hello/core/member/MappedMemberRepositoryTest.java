@@ -0,0 +1,120 @@
+package hello.core.member;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MappedMemberRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("MemberServiceImpl 을 그대로 사용해서 가입/조회할 수 있어야 한다.")
+    void joinAndFind() {
+        MappedMemberRepository repository = new MappedMemberRepository(tempDir.resolve("members.dat"), 100, 4096);
+        MemberService memberService = new MemberServiceImpl(repository);
+
+        memberService.join(new Member(1L, "memberA", Grade.VIP));
+        memberService.join(new Member(2L, null, Grade.BASIC));
+
+        Member memberA = memberService.findMember(1L);
+        assertThat(memberA.getId()).isEqualTo(1L);
+        assertThat(memberA.getName()).isEqualTo("memberA");
+        assertThat(memberA.getGrade()).isEqualTo(Grade.VIP);
+        assertThat(memberService.findMember(2L).getName()).isNull();
+        assertThat(memberService.findMember(3L)).isNull();
+        repository.close();
+    }
+
+    @Test
+    @DisplayName("같은 id 로 다시 저장하면 등급과 이름이 갱신된다.")
+    void update() {
+        MappedMemberRepository repository = new MappedMemberRepository(tempDir.resolve("members.dat"), 100, 4096);
+
+        repository.save(new Member(1L, "memberA", Grade.BASIC));
+        repository.save(new Member(1L, "회원A", Grade.VIP));
+
+        Member member = repository.findById(1L);
+        assertThat(member.getName()).isEqualTo("회원A");
+        assertThat(member.getGrade()).isEqualTo(Grade.VIP);
+        assertThat(repository.size()).isEqualTo(1);
+        repository.close();
+    }
+
+    @Test
+    @DisplayName("등급이 없는 회원도 저장되고, 다시 열어도 등급은 null 로 조회된다.")
+    void nullGrade() {
+        Path file = tempDir.resolve("members.dat");
+        MappedMemberRepository repository = new MappedMemberRepository(file, 100, 4096);
+        repository.save(new Member(1L, "memberA", null));
+        repository.save(new Member(2L, "memberB", Grade.VIP));
+        repository.save(new Member(2L, "memberB", null));
+        repository.close();
+
+        MappedMemberRepository reopened = new MappedMemberRepository(file, 100, 4096);
+        assertThat(reopened.findById(1L).getGrade()).isNull();
+        assertThat(reopened.findById(2L).getGrade()).isNull();
+        assertThat(reopened.countByGrade(null)).isEqualTo(2);
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("id 가 없는 회원은 저장하지 않는다.")
+    void nullId() {
+        MappedMemberRepository repository = new MappedMemberRepository(tempDir.resolve("members.dat"), 100, 4096);
+
+        assertThrows(IllegalArgumentException.class, () -> repository.save(new Member(null, "memberA", Grade.VIP)));
+        assertThrows(IllegalArgumentException.class, () -> repository.saveAll(
+                List.of(new Member(1L, "memberB", Grade.BASIC), new Member(null, "memberC", Grade.BASIC))));
+        assertThat(repository.findById(1L)).isNull();
+        assertThat(repository.size()).isEqualTo(0);
+        repository.close();
+    }
+
+    @Test
+    @DisplayName("파일을 다시 열면 전체 적재 없이 이전 회원을 조회할 수 있어야 한다.")
+    void reopen() {
+        Path file = tempDir.resolve("members.dat");
+        MappedMemberRepository repository = new MappedMemberRepository(file, 10_000, 1 << 20);
+        for (long id = 1; id <= 10_000; id++) {
+            repository.save(new Member(id, "member" + id, id % 2 == 0 ? Grade.VIP : Grade.BASIC));
+        }
+        repository.close();
+
+        // 두 번째 인자는 새 파일을 만들 때만 사용된다. 기존 파일은 헤더의 레이아웃을 따른다.
+        MappedMemberRepository reopened = new MappedMemberRepository(file, 1, 1);
+        assertThat(reopened.capacity()).isEqualTo(10_000);
+        assertThat(reopened.size()).isEqualTo(10_000);
+        assertThat(reopened.findById(9_999L).getName()).isEqualTo("member9999");
+        assertThat(reopened.findById(10_000L).getGrade()).isEqualTo(Grade.VIP);
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("용량을 넘어서 저장하면 예외가 발생한다.")
+    void full() {
+        MappedMemberRepository repository = new MappedMemberRepository(tempDir.resolve("members.dat"), 2, 4096);
+        repository.save(new Member(1L, "a", Grade.BASIC));
+        repository.save(new Member(2L, "b", Grade.BASIC));
+
+        assertThrows(IllegalStateException.class, () -> repository.save(new Member(3L, "c", Grade.BASIC)));
+        repository.close();
+    }
+
+    @Test
+    @DisplayName("형식이 다른 파일은 열 수 없다.")
+    void invalidFile() throws Exception {
+        Path file = tempDir.resolve("other.dat");
+        Files.write(file, new byte[128]);
+
+        assertThrows(IllegalStateException.class, () -> new MappedMemberRepository(file, 10, 4096));
+    }
+}
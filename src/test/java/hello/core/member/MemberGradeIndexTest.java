@@ -0,0 +1,126 @@
+package hello.core.member;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberGradeIndexTest {
+
+    @Test
+    @DisplayName("등급별 회원 수와 회원 id 를 순번 순서대로 돌려준다.")
+    void countAndIterate() {
+        MemberGradeIndex index = new MemberGradeIndex();
+        index.put(100L, Grade.VIP);
+        index.put(7L, Grade.BASIC);
+        index.put(55L, Grade.VIP);
+        index.put(9L, null);
+
+        assertThat(index.count(Grade.VIP)).isEqualTo(2);
+        assertThat(index.countAll()).containsEntry(Grade.VIP, 2).containsEntry(Grade.BASIC, 1);
+        assertThat(index.memberIds(index.bitmap(Grade.VIP)).toArray()).containsExactly(100L, 55L);
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("등급이 없는 회원은 null 등급으로 세고 꺼낼 수 있다.")
+    void nullGrade() {
+        MemberGradeIndex index = new MemberGradeIndex();
+        index.put(100L, Grade.VIP);
+        index.put(7L, null);
+        index.put(55L, Grade.BASIC);
+        index.put(9L, null);
+        index.put(55L, null);
+
+        assertThat(index.count(null)).isEqualTo(3);
+        assertThat(index.memberIds(index.bitmap(null)).toArray()).containsExactly(7L, 55L, 9L);
+        assertThat(index.count(Grade.BASIC)).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("등급이 바뀌면 이전 등급 비트맵에서 빠지고 새 등급에 들어간다.")
+    void changeGrade() {
+        MemberGradeIndex index = new MemberGradeIndex();
+        index.put(1L, Grade.BASIC);
+        index.put(1L, Grade.VIP);
+
+        assertThat(index.count(Grade.BASIC)).isEqualTo(0);
+        assertThat(index.count(Grade.VIP)).isEqualTo(1);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("세그먼트끼리 and/or 로 조합할 수 있다.")
+    void combineSegments() {
+        MemberGradeIndex index = new MemberGradeIndex();
+        for (long id = 1; id <= 10; id++) {
+            index.put(id, id % 2 == 0 ? Grade.VIP : Grade.BASIC);
+        }
+        CompressedBitmap campaign = index.bitmapOf(2L, 3L, 4L, 999L);
+
+        assertThat(index.memberIds(index.bitmap(Grade.VIP).and(campaign)).toArray()).containsExactly(2L, 4L);
+        assertThat(index.memberIds(index.bitmap(Grade.BASIC).or(campaign)).toArray())
+                .containsExactly(1L, 2L, 3L, 4L, 5L, 7L, 9L);
+        assertThat(index.bitmap(Grade.VIP).and(index.bitmap(Grade.BASIC)).isEmpty()).isTrue();
+    }
+
+    @Test
+    @DisplayName("저장소에 저장된 회원의 setGrade 는 등급 인덱스에 바로 반영된다.")
+    void repositoryFollowsSetGrade() {
+        MemoryMemberRepository repository = new MemoryMemberRepository();
+        // 저장소가 static 이므로 다른 테스트가 저장한 회원 수를 기준으로 비교한다.
+        int vip = repository.countByGrade(Grade.VIP);
+        int basic = repository.countByGrade(Grade.BASIC);
+
+        Member member = new Member(8001L, "gradeIndexA", Grade.BASIC);
+        repository.save(member);
+        repository.save(new Member(8002L, "gradeIndexB", Grade.VIP));
+        assertThat(repository.countByGrade(Grade.BASIC)).isEqualTo(basic + 1);
+
+        member.setGrade(Grade.VIP);
+        assertThat(repository.countByGrade(Grade.VIP)).isEqualTo(vip + 2);
+        assertThat(repository.countByGrade(Grade.BASIC)).isEqualTo(basic);
+        assertThat(repository.streamByGrade(Grade.VIP).map(Member::getId).collect(Collectors.toList()))
+                .contains(8001L, 8002L);
+
+        // 같은 id 로 새 객체를 저장한 뒤에는 예전 객체를 바꿔도 인덱스는 바뀌지 않는다.
+        repository.save(new Member(8001L, "gradeIndexA", Grade.VIP));
+        member.setGrade(Grade.BASIC);
+        assertThat(repository.countByGrade(Grade.BASIC)).isEqualTo(basic);
+    }
+
+    @Test
+    @DisplayName("MemoryMemberRepository 도 다른 구현체와 같이 등급별 목록을 id 순서로 돌려주고, 등급이 없는 회원도 조회한다.")
+    void repositoryOrderAndNullGrade() {
+        MemoryMemberRepository repository = new MemoryMemberRepository();
+        int ungraded = repository.countByGrade(null);
+
+        repository.save(new Member(8103L, "gradeOrderC", Grade.VIP));
+        repository.save(new Member(8101L, "gradeOrderA", Grade.VIP));
+        repository.save(new Member(8104L, "gradeOrderD", null));
+        repository.save(new Member(8102L, "gradeOrderB", Grade.VIP));
+
+        assertThat(repository.streamByGrade(Grade.VIP).map(Member::getId)
+                .filter(id -> id > 8100L && id < 8200L).collect(Collectors.toList()))
+                .containsExactly(8101L, 8102L, 8103L);
+        assertThat(repository.countByGrade(null)).isEqualTo(ungraded + 1);
+        assertThat(repository.streamByGrade(null).map(Member::getId).collect(Collectors.toList())).contains(8104L);
+    }
+
+    @Test
+    @DisplayName("등급 인덱스가 없는 저장소도 전체를 훑어서 등급별 회원 수와 목록(id 순서)을 돌려준다.")
+    void scanFallback() {
+        MemberRepository repository = new ConcurrentMemberRepository();
+        repository.save(new Member(3L, "memberA", Grade.VIP));
+        repository.save(new Member(1L, "memberB", Grade.VIP));
+        repository.save(new Member(2L, "memberC", Grade.BASIC));
+        repository.save(new Member(4L, "memberD", null));
+
+        assertThat(repository.countByGrade(Grade.VIP)).isEqualTo(2);
+        assertThat(repository.countByGrade(null)).isEqualTo(1);
+        assertThat(repository.streamByGrade(Grade.VIP).map(Member::getId).collect(Collectors.toList()))
+                .containsExactly(1L, 3L);
+    }
+}
@@ -0,0 +1,148 @@
+package hello.core.member;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MemberNameIndexTest {
+
+    @Test
+    @DisplayName("같은 이름의 회원 id 는 오름차순으로, prefix 조회는 (이름, id) 순서로 나온다.")
+    void findIds() {
+        MemberNameIndex index = new MemberNameIndex();
+        index.put(3L, "kim");
+        index.put(1L, "kim");
+        index.put(2L, "kimchi");
+        index.put(4L, "lee");
+        index.put(5L, "ki");
+
+        assertThat(index.findIds("kim", 0, 10)).containsExactly(1L, 3L);
+        assertThat(index.findIds("park", 0, 10)).isEmpty();
+        assertThat(index.findIdsByPrefix("kim", 0, 10)).containsExactly(1L, 3L, 2L);
+        assertThat(index.findIdsByPrefix("k", 0, 10)).containsExactly(5L, 1L, 3L, 2L);
+        assertThat(index.findIdsByPrefix("", 0, 10)).containsExactly(5L, 1L, 3L, 2L, 4L);
+        assertThat(index.nameCount()).isEqualTo(4);
+        assertThat(index.size()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("offset/limit 으로 나누어 읽은 페이지를 이어 붙이면 전체 결과와 같다.")
+    void paging() {
+        MemberNameIndex index = new MemberNameIndex();
+        for (long id = 1; id <= 100; id++) {
+            index.put(id, "member" + (id % 7));
+        }
+
+        assertThat(index.findIds("member3", 0, 5)).containsExactly(3L, 10L, 17L, 24L, 31L);
+        assertThat(index.findIds("member3", 5, 5)).containsExactly(38L, 45L, 52L, 59L, 66L);
+        assertThat(index.findIds("member3", 100, 5)).isEmpty();
+
+        long[] all = index.findIdsByPrefix("member", 0, 1000);
+        assertThat(all).hasSize(100);
+        for (int offset = 0; offset < 100; offset += 9) {
+            long[] page = index.findIdsByPrefix("member", offset, 9);
+            for (int i = 0; i < page.length; i++) {
+                assertThat(page[i]).isEqualTo(all[offset + i]);
+            }
+        }
+        assertThat(index.findIdsByPrefix("member", 0, 0)).isEmpty();
+        assertThatThrownBy(() -> index.findIds("member3", -1, 5)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("같은 id 를 다른 이름으로 다시 저장하면 이전 이름에서는 빠진다.")
+    void rename() {
+        MemberNameIndex index = new MemberNameIndex();
+        index.put(1L, "kim");
+        index.put(1L, "lee");
+        index.put(2L, null);
+
+        assertThat(index.findIds("kim", 0, 10)).isEmpty();
+        assertThat(index.findIds("lee", 0, 10)).containsExactly(1L);
+        assertThat(index.findIdsByPrefix("k", 0, 10)).isEmpty();
+        assertThat(index.nameCount()).isEqualTo(1);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Memory/Concurrent 저장소는 save 할 때 인덱스를 갱신하고 이름으로 회원을 찾는다.")
+    void repositories() {
+        // MemoryMemberRepository 는 저장소가 static 이므로 다른 테스트와 겹치지 않는 이름을 쓴다.
+        for (MemberRepository repository : List.of(new MemoryMemberRepository(), new ConcurrentMemberRepository())) {
+            repository.save(new Member(9001L, "nameIndexA", Grade.VIP));
+            repository.save(new Member(9002L, "nameIndexB", Grade.BASIC));
+            repository.save(new Member(9003L, "nameIndexA", Grade.BASIC));
+
+            assertThat(repository.findByName("nameIndexA", 0, 10))
+                    .extracting(Member::getId).containsExactly(9001L, 9003L);
+            assertThat(repository.findByNamePrefix("nameIndex", 1, 2))
+                    .extracting(Member::getId).containsExactly(9003L, 9002L);
+
+            Member renamed = repository.findById(9001L);
+            renamed.setName("nameIndexC");
+            repository.save(renamed);
+            assertThat(repository.findByName("nameIndexA", 0, 10))
+                    .extracting(Member::getId).containsExactly(9003L);
+        }
+    }
+
+    @Test
+    @DisplayName("여러 스레드가 같은 회원을 동시에 저장해도 인덱스는 저장소에 남은 회원의 이름과 같다.")
+    void concurrentSave() throws Exception {
+        ConcurrentMemberRepository repository = new ConcurrentMemberRepository();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int seed = t;
+            futures.add(executor.submit(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                for (int i = 0; i < 20_000; i++) {
+                    long id = random.nextInt(200);
+                    repository.save(new Member(id, "name" + random.nextInt(20), Grade.BASIC));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        int indexed = 0;
+        for (int n = 0; n < 20; n++) {
+            for (Member member : repository.findByName("name" + n, 0, 1000)) {
+                assertThat(member.getName()).isEqualTo("name" + n);
+                indexed++;
+            }
+        }
+        assertThat(indexed).isEqualTo(repository.size());
+    }
+
+    @Test
+    @DisplayName("이름 인덱스가 없는 저장소도 전체를 훑어서 같은 순서로 이름 조회 결과를 돌려준다.")
+    void scanFallback() {
+        List<MemberRepository> repositories = List.of(new PrimitiveMemberRepository(), new VersionedMemberRepository(),
+                new SlowMemberRepository(new PrimitiveMemberRepository(), 0));
+        for (MemberRepository repository : repositories) {
+            repository.save(new Member(3L, "kim", Grade.VIP));
+            repository.save(new Member(1L, "kim", Grade.BASIC));
+            repository.save(new Member(2L, "kimchi", Grade.BASIC));
+            repository.save(new Member(4L, "lee", Grade.BASIC));
+            repository.save(new Member(5L, null, Grade.BASIC));
+
+            assertThat(repository.findByName("kim", 0, 10)).extracting(Member::getId).containsExactly(1L, 3L);
+            assertThat(repository.findByNamePrefix("kim", 1, 2)).extracting(Member::getId).containsExactly(3L, 2L);
+            assertThat(repository.findByName(null, 0, 10)).isEmpty();
+            assertThatThrownBy(() -> repository.findByName("kim", -1, 10))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package hello.core.member;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberRepositoryBulkTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("모든 저장소 구현체는 일괄 저장/조회 결과가 단건 조회와 같아야 한다.")
+    void saveAllAndFindAllById() {
+        List<MemberRepository> repositories = List.of(
+                new MemoryMemberRepository(),
+                new ConcurrentMemberRepository(),
+                new PrimitiveMemberRepository(),
+                new MappedMemberRepository(tempDir.resolve("members.dat"), 1_000, 64 * 1_000));
+
+        for (MemberRepository repository : repositories) {
+            List<Member> members = new ArrayList<>();
+            for (long id = 101; id <= 200; id++) {
+                members.add(new Member(id, "member" + id, id % 2 == 0 ? Grade.VIP : Grade.BASIC));
+            }
+            repository.saveAll(members);
+
+            // 입력 순서대로, 없는 id(999) 자리는 null
+            List<Member> found = repository.findAllById(Arrays.asList(150L, 999L, 101L, null));
+            assertThat(found).hasSize(4);
+            assertThat(found.get(0).getName()).isEqualTo("member150");
+            assertThat(found.get(1)).isNull();
+            assertThat(found.get(2).getGrade()).isEqualTo(Grade.BASIC);
+            assertThat(found.get(3)).isNull();
+
+            Member[] byArray = repository.findAllById(new long[]{200L, 0L, 199L});
+            assertThat(byArray[0].getName()).isEqualTo("member200");
+            assertThat(byArray[1]).isNull();
+            assertThat(byArray[2].getId()).isEqualTo(199L);
+        }
+    }
+
+    @Test
+    @DisplayName("joinAll 로 가입한 회원은 findMember 로 조회된다.")
+    void joinAll() {
+        MemberService memberService = new MemberServiceImpl(new ConcurrentMemberRepository());
+
+        memberService.joinAll(List.of(
+                new Member(1L, "memberA", Grade.VIP),
+                new Member(2L, "memberB", Grade.BASIC)));
+
+        assertThat(memberService.findMember(1L).getName()).isEqualTo("memberA");
+        assertThat(memberService.findMember(2L).getGrade()).isEqualTo(Grade.BASIC);
+    }
+}
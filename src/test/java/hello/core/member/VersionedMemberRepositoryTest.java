@@ -0,0 +1,104 @@
+package hello.core.member;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VersionedMemberRepositoryTest {
+
+    @Test
+    @DisplayName("조회한 회원은 복사본이라서 바꿔도 저장소에는 save 하기 전까지 반영되지 않는다.")
+    void returnsCopies() {
+        VersionedMemberRepository repository = new VersionedMemberRepository();
+        repository.save(new Member(1L, "memberA", Grade.BASIC));
+
+        Member found = repository.findById(1L);
+        found.setGrade(Grade.VIP);
+        assertThat(repository.findById(1L).getGrade()).isEqualTo(Grade.BASIC);
+
+        repository.save(found);
+        assertThat(repository.findById(1L).getGrade()).isEqualTo(Grade.VIP);
+        assertThat(repository.findById(1L)).isNotSameAs(repository.findById(1L));
+    }
+
+    @Test
+    @DisplayName("스냅샷은 연 시점의 상태만 보고, 이후의 변경과 새 회원은 보지 않는다.")
+    void snapshotIsolation() {
+        VersionedMemberRepository repository = new VersionedMemberRepository();
+        repository.save(new Member(1L, "memberA", Grade.BASIC));
+
+        try (VersionedMemberRepository.Snapshot snapshot = repository.openSnapshot()) {
+            repository.save(new Member(1L, "memberA", Grade.VIP));
+            repository.save(new Member(2L, "memberB", Grade.VIP));
+
+            assertThat(snapshot.findById(1L).getGrade()).isEqualTo(Grade.BASIC);
+            assertThat(snapshot.findById(2L)).isNull();
+            assertThat(snapshot.stream().count()).isEqualTo(1);
+            assertThat(repository.findById(1L).getGrade()).isEqualTo(Grade.VIP);
+        }
+    }
+
+    @Test
+    @DisplayName("saveAll 로 저장한 회원들은 스냅샷에 모두 보이거나 모두 보이지 않는다.")
+    void consistentUnderConcurrentWrites() throws Exception {
+        VersionedMemberRepository repository = new VersionedMemberRepository();
+        repository.saveAll(members(Grade.BASIC));
+        AtomicBoolean stop = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            int round = 0;
+            while (!stop.get()) {
+                repository.saveAll(members(round++ % 2 == 0 ? Grade.VIP : Grade.BASIC));
+            }
+        });
+        writer.start();
+
+        try {
+            for (int i = 0; i < 500; i++) {
+                try (VersionedMemberRepository.Snapshot snapshot = repository.openSnapshot()) {
+                    Set<Grade> grades = snapshot.stream().map(Member::getGrade).collect(Collectors.toSet());
+                    // 반쯤 바뀐 상태(VIP 와 BASIC 이 섞인 상태)는 보이지 않아야 한다.
+                    assertThat(grades).hasSize(1);
+                }
+            }
+        } finally {
+            stop.set(true);
+            writer.join();
+        }
+        assertThat(repository.getActiveSnapshotCount()).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("스냅샷이 모두 닫히면 읽을 사람이 없는 이전 버전은 정리된다.")
+    void reclaimOldVersions() {
+        VersionedMemberRepository repository = new VersionedMemberRepository();
+        repository.save(new Member(1L, "memberA", Grade.BASIC));
+        VersionedMemberRepository.Snapshot snapshot = repository.openSnapshot();
+        for (int i = 0; i < 10; i++) {
+            repository.save(new Member(1L, "memberA" + i, i % 2 == 0 ? Grade.VIP : Grade.BASIC));
+        }
+        // 최신 버전, 최신 조회가 공개 직전에 읽을 수 있는 바로 앞 버전, 스냅샷이 읽는 버전만 남는다.
+        assertThat(repository.versionCount()).isEqualTo(3);
+        assertThat(snapshot.findById(1L).getName()).isEqualTo("memberA");
+
+        snapshot.close();
+        assertThat(repository.versionCount()).isEqualTo(1);
+        assertThat(repository.findById(1L).getName()).isEqualTo("memberA9");
+        assertThatThrownBy(() -> snapshot.findById(1L)).isInstanceOf(IllegalStateException.class);
+    }
+
+    private List<Member> members(Grade grade) {
+        List<Member> members = new ArrayList<>();
+        for (long id = 1; id <= 1000; id++) {
+            members.add(new Member(id, "member" + id, grade));
+        }
+        return members;
+    }
+}
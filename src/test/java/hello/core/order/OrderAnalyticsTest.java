@@ -0,0 +1,126 @@
+package hello.core.order;
+
+import hello.core.AutoAppConfig;
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.member.MemberRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderAnalyticsTest {
+
+    AtomicLong now = new AtomicLong();
+
+    @Test
+    @DisplayName("주문을 기록하면 전체/등급별/상품별 합계가 바로 반영된다.")
+    void totals() {
+        OrderAnalytics analytics = new OrderAnalytics(1000, 60, now::get);
+        analytics.record(Grade.VIP, new Order(1L, "itemA", 10000, 1000));
+        analytics.record(Grade.VIP, new Order(1L, "itemB", 20000, 2000));
+        analytics.record(Grade.BASIC, new Order(2L, "itemA", 10000, 0));
+        analytics.record(null, new Order(null, "itemA", 5000, 0));
+
+        assertThat(analytics.total().getCount()).isEqualTo(4);
+        assertThat(analytics.total().getPayment()).isEqualTo(42000);
+        assertThat(analytics.byGrade(Grade.VIP).getDiscountPrice()).isEqualTo(3000);
+        assertThat(analytics.byGrade(Grade.BASIC).getCount()).isEqualTo(1);
+        assertThat(analytics.byGrade((Grade) null).getItemPrice()).isEqualTo(5000);
+        assertThat(analytics.byItem("itemA").getCount()).isEqualTo(3);
+        assertThat(analytics.byItem("itemA").getItemPrice()).isEqualTo(25000);
+        assertThat(analytics.byItem("없는상품")).isSameAs(OrderAnalytics.Totals.EMPTY);
+
+        Map<Grade, OrderAnalytics.Totals> byGrade = analytics.byGrade();
+        assertThat(byGrade).containsOnlyKeys(Grade.values());
+        assertThat(analytics.byItem()).containsOnlyKeys("itemA", "itemB");
+    }
+
+    @Test
+    @DisplayName("스냅샷은 조회 이후의 주문에 영향을 받지 않는다.")
+    void snapshot() {
+        OrderAnalytics analytics = new OrderAnalytics(1000, 60, now::get);
+        analytics.record(Grade.VIP, new Order(1L, "itemA", 10000, 1000));
+        OrderAnalytics.Totals before = analytics.byGrade(Grade.VIP);
+
+        analytics.record(Grade.VIP, new Order(1L, "itemA", 10000, 1000));
+
+        assertThat(before.getCount()).isEqualTo(1);
+        assertThat(analytics.byGrade(Grade.VIP).getCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("최근 구간 집계에는 구간 안의 주문만 들어가고, 시간이 지나면 오래된 주문이 빠진다.")
+    void slidingWindow() {
+        OrderAnalytics analytics = new OrderAnalytics(1000, 10, now::get);
+        analytics.record(Grade.VIP, new Order(1L, "itemA", 10000, 1000));
+        now.set(5_000);
+        analytics.record(Grade.BASIC, new Order(2L, "itemB", 20000, 0));
+        assertThat(analytics.window().getCount()).isEqualTo(2);
+
+        // 첫 주문이 들어간 칸(0~1초)이 10초 구간을 벗어났다.
+        now.set(10_500);
+        assertThat(analytics.window().getCount()).isEqualTo(1);
+        assertThat(analytics.window(Grade.VIP).getCount()).isEqualTo(0);
+        assertThat(analytics.window(Grade.BASIC).getItemPrice()).isEqualTo(20000);
+
+        // 링을 한 바퀴 돌아 같은 칸을 다시 쓰면 이전 값은 지워진다.
+        analytics.record(Grade.VIP, new Order(1L, "itemA", 3000, 0));
+        assertThat(analytics.window(Grade.VIP).getItemPrice()).isEqualTo(3000);
+
+        now.set(20_000);
+        assertThat(analytics.window().getCount()).isEqualTo(0);
+        // 전체 합계에는 그대로 남아 있다.
+        assertThat(analytics.total().getCount()).isEqualTo(3);
+        assertThat(analytics.getWindowMillis()).isEqualTo(10_000);
+    }
+
+    @Test
+    @DisplayName("여러 스레드가 동시에 기록해도 합계가 정확하다.")
+    void concurrentRecord() throws Exception {
+        OrderAnalytics analytics = new OrderAnalytics(1000, 60, now::get);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    analytics.record(i % 2 == 0 ? Grade.VIP : Grade.BASIC, new Order(1L, "item" + (i % 10), 100, 10));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(analytics.total().getCount()).isEqualTo(80000);
+        assertThat(analytics.byGrade(Grade.VIP).getItemPrice()).isEqualTo(4_000_000);
+        assertThat(analytics.byItem("item3").getDiscountPrice()).isEqualTo(80000);
+        assertThat(analytics.itemCount()).isEqualTo(10);
+        assertThat(analytics.window().getPayment()).isEqualTo(7_200_000);
+    }
+
+    @Test
+    @DisplayName("order.analytics.enabled=true 이면 OrderService 가 만든 주문이 집계된다.")
+    void fedByOrderService() {
+        AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext();
+        ac.getEnvironment().getPropertySources()
+                .addFirst(new MapPropertySource("test", Map.of("order.analytics.enabled", "true")));
+        ac.register(AutoAppConfig.class);
+        ac.refresh();
+
+        ac.getBean(MemberRepository.class).save(new Member(1L, "memberA", Grade.VIP));
+        OrderService orderService = ac.getBean(OrderService.class);
+        orderService.createOrder(1L, "itemA", 10000);
+        orderService.createOrder(1L, "itemA", 20000);
+
+        OrderAnalytics analytics = ac.getBean(OrderAnalytics.class);
+        assertThat(analytics.byGrade(Grade.VIP).getCount()).isEqualTo(2);
+        assertThat(analytics.byItem("itemA").getItemPrice()).isEqualTo(30000);
+        ac.close();
+    }
+}
@@ -0,0 +1,359 @@
+package hello.core.order;
+
+import hello.core.discount.RateDiscountPolicy;
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.member.MemberRepository;
+import hello.core.member.MemoryMemberRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderJournalTest {
+
+    static final int SEGMENT_BYTES = 1 << 17;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("기록한 주문은 다시 열었을 때 순서대로 복구된다.")
+    void appendAndRecover() {
+        OrderJournal journal = new OrderJournal(dir, SEGMENT_BYTES, 1000, true);
+        journal.orderCreated(new Member(1L, "memberA", Grade.VIP), new Order(1L, "itemA", 10000, 1000));
+        journal.orderCreated(new Member(2L, "memberB", Grade.BASIC), new Order(2L, "상품B", 20000, 0));
+        journal.orderCreated(null, new Order(null, "itemC", 5000, 0));
+        assertThat(journal.getDurableSequence()).isEqualTo(3);
+        journal.close();
+
+        OrderJournal reopened = new OrderJournal(dir, SEGMENT_BYTES, 1000, true);
+        assertThat(reopened.getRecoveredRecords()).isEqualTo(3);
+        assertThat(reopened.getRecoveredTornBytes()).isEqualTo(0);
+
+        List<OrderJournal.JournalRecord> records = replay(reopened);
+        assertThat(records).extracting(OrderJournal.JournalRecord::getSequence).containsExactly(1L, 2L, 3L);
+        assertThat(records).extracting(OrderJournal.JournalRecord::getGrade).containsExactly(Grade.VIP, Grade.BASIC, null);
+        assertThat(records.get(1).getOrder().toString()).isEqualTo(new Order(2L, "상품B", 20000, 0).toString());
+        assertThat(records.get(2).getOrder().getMemberId()).isNull();
+
+        // 복구 후에는 다음 sequence 부터 이어 쓴다.
+        assertThat(reopened.append(Grade.VIP, new Order(4L, "itemD", 1000, 100))).isEqualTo(4);
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("segment 가 가득 차면 다음 파일로 넘어가고, 여러 파일에 걸친 기록도 모두 복구된다.")
+    void rollSegments() throws Exception {
+        OrderJournal journal = new OrderJournal(dir, SEGMENT_BYTES, 1000, false);
+        for (int i = 1; i <= 10000; i++) {
+            journal.append(Grade.BASIC, new Order((long) i, "item" + i, i, 0));
+        }
+        journal.close();
+
+        assertThat(segmentFiles()).hasSizeGreaterThan(1);
+        OrderJournal reopened = new OrderJournal(dir, SEGMENT_BYTES, 1000, false);
+        assertThat(reopened.getRecoveredRecords()).isEqualTo(10000);
+        List<OrderJournal.JournalRecord> records = replay(reopened);
+        assertThat(records).hasSize(10000);
+        assertThat(records.get(9999).getOrder().getItemName()).isEqualTo("item10000");
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("쓰다 만 마지막 레코드(CRC 불일치)는 복구할 때 잘라내고 그 자리부터 이어 쓴다.")
+    void truncateTornTail() throws Exception {
+        OrderJournal journal = new OrderJournal(dir, SEGMENT_BYTES, 1000, true);
+        for (int i = 1; i <= 10; i++) {
+            journal.orderCreated(new Member((long) i, "member", Grade.VIP), new Order((long) i, "item", 10000, 1000));
+        }
+        journal.close();
+        corruptLastRecord(segmentFiles().get(0));
+
+        OrderJournal recovered = new OrderJournal(dir, SEGMENT_BYTES, 1000, true);
+        assertThat(recovered.getRecoveredRecords()).isEqualTo(9);
+        assertThat(recovered.getRecoveredTornBytes()).isGreaterThan(0);
+        assertThat(recovered.append(Grade.BASIC, new Order(99L, "new", 1, 0))).isEqualTo(10);
+        recovered.close();
+
+        OrderJournal reopened = new OrderJournal(dir, SEGMENT_BYTES, 1000, true);
+        assertThat(reopened.getRecoveredRecords()).isEqualTo(10);
+        assertThat(reopened.getRecoveredTornBytes()).isEqualTo(0);
+        assertThat(replay(reopened).get(9).getOrder().getItemName()).isEqualTo("new");
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("쓰다 만 꼬리 뒤에 남은 예전 레코드도 지워서, 이어 쓴 레코드와 번호가 겹치지 않는다.")
+    void clearStaleRecordsAfterTornTail() throws Exception {
+        OrderJournal journal = new OrderJournal(dir, SEGMENT_BYTES, 1000, false);
+        for (int i = 1; i <= 2000; i++) {
+            journal.append(Grade.BASIC, new Order((long) i, "item" + i, i, 0));
+        }
+        journal.close();
+        assertThat(segmentFiles()).hasSize(1);
+        // 100~1500번 레코드가 디스크에 쓰이지 않고 뒤쪽 페이지만 쓰인 상황 (빈 구간이 레코드 최대 크기보다 길다)
+        zeroRecords(segmentFiles().get(0), 99, 1500);
+
+        OrderJournal recovered = new OrderJournal(dir, SEGMENT_BYTES, 1000, false);
+        assertThat(recovered.getRecoveredRecords()).isEqualTo(99);
+        assertThat(recovered.getRecoveredTornBytes()).isGreaterThan(0);
+        // 같은 크기의 레코드로 다시 채우면 예전 1501번 레코드 바로 앞까지 온다.
+        for (int i = 100; i <= 1500; i++) {
+            assertThat(recovered.append(Grade.BASIC, new Order((long) i, "item" + i, i, 0))).isEqualTo(i);
+        }
+        recovered.close();
+
+        OrderJournal reopened = new OrderJournal(dir, SEGMENT_BYTES, 1000, false);
+        assertThat(reopened.getRecoveredRecords()).isEqualTo(1500);
+        assertThat(reopened.getRecoveredTornBytes()).isEqualTo(0);
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("오래된 segment 를 지워도 남은 segment 의 header 에 기록된 sequence 부터 복구한다.")
+    void removeOldestSegment() throws Exception {
+        OrderJournal journal = new OrderJournal(dir, SEGMENT_BYTES, 1000, false);
+        for (int i = 1; i <= 10000; i++) {
+            journal.append(Grade.BASIC, new Order((long) i, "item" + i, i, 0));
+        }
+        journal.close();
+        List<Path> files = segmentFiles();
+        assertThat(files).hasSizeGreaterThan(2);
+        String second = files.get(1).getFileName().toString();
+        long firstRemaining = Long.parseLong(second.substring("orders-".length(), second.length() - ".log".length()));
+        Files.delete(files.get(0));
+        List<byte[]> before = readAll(files.subList(1, files.size()));
+
+        OrderJournal reopened = new OrderJournal(dir, SEGMENT_BYTES, 1000, false);
+        assertThat(reopened.getRecoveredRecords()).isEqualTo(10000 - (firstRemaining - 1));
+        assertThat(reopened.getRecoveredTornBytes()).isEqualTo(0);
+        assertThat(replay(reopened).get(0).getSequence()).isEqualTo(firstRemaining);
+        assertThat(reopened.append(Grade.BASIC, new Order(1L, "new", 1, 0))).isEqualTo(10001);
+        reopened.close();
+        assertThat(Files.readAllBytes(files.get(1))).isEqualTo(before.get(0));
+    }
+
+    @Test
+    @DisplayName("중간 segment 가 손상되었으면 열 때마다 오류가 나고, 파일은 바뀌지 않는다.")
+    void corruptedMiddleSegment() throws Exception {
+        OrderJournal journal = new OrderJournal(dir, SEGMENT_BYTES, 1000, false);
+        for (int i = 1; i <= 10000; i++) {
+            journal.append(Grade.BASIC, new Order((long) i, "item" + i, i, 0));
+        }
+        journal.close();
+        List<Path> files = segmentFiles();
+        assertThat(files).hasSizeGreaterThan(2);
+        corruptRecord(files.get(0), 10);
+        List<byte[]> before = readAll(files);
+
+        for (int open = 0; open < 2; open++) {
+            assertThatThrownBy(() -> new OrderJournal(dir, SEGMENT_BYTES, 1000, false))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining(files.get(0).getFileName().toString());
+            List<byte[]> after = readAll(files);
+            for (int i = 0; i < files.size(); i++) {
+                assertThat(after.get(i)).isEqualTo(before.get(i));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("새 segment 의 header 가 반영되기 전에 멈췄으면(짧거나 0인 header) 빈 segment 로 보고 다시 연다.")
+    void blankLastSegmentHeader() throws Exception {
+        for (int size : new int[]{10, SEGMENT_BYTES}) {
+            Path journalDir = dir.resolve("blank-" + size);
+            OrderJournal journal = new OrderJournal(journalDir, SEGMENT_BYTES, 1000, true);
+            for (int i = 1; i <= 10; i++) {
+                journal.orderCreated(new Member((long) i, "member", Grade.VIP), new Order((long) i, "item", 10000, 1000));
+            }
+            journal.close();
+            // 11번부터 받을 segment 파일만 만들어지고 header 는 쓰이지 않은 상태
+            Path blank = journalDir.resolve(String.format("orders-%020d.log", 11));
+            Files.write(blank, new byte[size]);
+
+            OrderJournal reopened = new OrderJournal(journalDir, SEGMENT_BYTES, 1000, true);
+            assertThat(reopened.getRecoveredRecords()).isEqualTo(10);
+            assertThat(reopened.append(Grade.BASIC, new Order(11L, "new", 1, 0))).isEqualTo(11);
+            reopened.close();
+            assertThat(Files.size(blank)).isEqualTo(SEGMENT_BYTES);
+
+            OrderJournal again = new OrderJournal(journalDir, SEGMENT_BYTES, 1000, true);
+            assertThat(again.getRecoveredRecords()).isEqualTo(11);
+            assertThat(replay(again).get(10).getOrder().getItemName()).isEqualTo("new");
+            again.close();
+        }
+    }
+
+    @Test
+    @DisplayName("segment-bytes 설정을 바꾸어도 기존 segment 는 기록된 크기로 읽고, 새 segment 만 새 크기로 만든다.")
+    void changeSegmentBytes() throws Exception {
+        OrderJournal journal = new OrderJournal(dir, SEGMENT_BYTES, 1000, false);
+        for (int i = 1; i <= 10000; i++) {
+            journal.append(Grade.BASIC, new Order((long) i, "item" + i, i, 0));
+        }
+        journal.close();
+        List<Path> before = segmentFiles();
+
+        OrderJournal larger = new OrderJournal(dir, SEGMENT_BYTES * 4, 1000, false);
+        assertThat(larger.getRecoveredRecords()).isEqualTo(10000);
+        for (Path file : before) {
+            assertThat(Files.size(file)).isEqualTo(SEGMENT_BYTES);
+        }
+        for (int i = 10001; i <= 20000; i++) {
+            larger.append(Grade.BASIC, new Order((long) i, "item" + i, i, 0));
+        }
+        larger.close();
+        List<Path> after = segmentFiles();
+        assertThat(Files.size(after.get(after.size() - 1))).isEqualTo(SEGMENT_BYTES * 4);
+
+        OrderJournal smaller = new OrderJournal(dir, SEGMENT_BYTES, 1000, false);
+        assertThat(smaller.getRecoveredRecords()).isEqualTo(20000);
+        assertThat(replay(smaller).get(19999).getOrder().getItemName()).isEqualTo("item20000");
+        smaller.close();
+    }
+
+    @Test
+    @DisplayName("여러 스레드가 동시에 기록하면 fsync 를 나누어 써서 fsync 횟수가 레코드 수보다 적다.")
+    void groupCommit() throws Exception {
+        OrderJournal journal = new OrderJournal(dir, 1 << 20, 1000, true);
+        Thread[] writers = new Thread[8];
+        for (int t = 0; t < writers.length; t++) {
+            writers[t] = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    journal.orderCreated(new Member(1L, "member", Grade.VIP), new Order(1L, "item", 10000, 1000));
+                }
+            });
+            writers[t].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertThat(journal.getDurableSequence()).isEqualTo(4000);
+        assertThat(journal.getSyncCount()).isLessThan(4000);
+        journal.close();
+
+        OrderJournal reopened = new OrderJournal(dir, 1 << 20, 1000, true);
+        List<OrderJournal.JournalRecord> records = replay(reopened);
+        reopened.close();
+        assertThat(records).hasSize(4000);
+        for (int i = 0; i < records.size(); i++) {
+            assertThat(records.get(i).getSequence()).isEqualTo(i + 1);
+        }
+    }
+
+    @Test
+    @DisplayName("일괄 주문은 모두 기록한 뒤 디스크 반영을 한 번만 기다린다.")
+    void batchWaitsOnce() {
+        MemberRepository memberRepository = new MemoryMemberRepository();
+        memberRepository.save(new Member(1L, "memberA", Grade.VIP));
+        memberRepository.save(new Member(2L, "memberB", Grade.BASIC));
+        // flush 주기를 길게 잡아서, 주문마다 기다렸다면 100번의 주기가 필요하게 한다.
+        OrderJournal journal = new OrderJournal(dir, SEGMENT_BYTES, 50_000, true);
+        OrderServiceImpl orderService = new OrderServiceImpl(memberRepository, new RateDiscountPolicy());
+        orderService.setOrderListeners(List.of(journal));
+        List<OrderRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            requests.add(new OrderRequest(i % 2 == 0 ? 1L : 2L, "item" + i, 10000));
+        }
+
+        orderService.createOrders(requests);
+
+        assertThat(journal.getDurableSequence()).isEqualTo(100);
+        assertThat(journal.getSyncCount()).isLessThanOrEqualTo(2);
+        List<OrderJournal.JournalRecord> records = replay(journal);
+        assertThat(records).extracting(r -> r.getOrder().getItemName()).startsWith("item0", "item1", "item2");
+        assertThat(records).extracting(OrderJournal.JournalRecord::getGrade).startsWith(Grade.VIP, Grade.BASIC);
+        journal.close();
+    }
+
+    @Test
+    @DisplayName("닫힌 저널에는 기록할 수 없다.")
+    void appendAfterClose() {
+        OrderJournal journal = new OrderJournal(dir, SEGMENT_BYTES, 1000, true);
+        journal.close();
+
+        assertThatThrownBy(() -> journal.append(Grade.VIP, new Order(1L, "item", 1000, 0)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private List<OrderJournal.JournalRecord> replay(OrderJournal journal) {
+        List<OrderJournal.JournalRecord> records = new ArrayList<>();
+        journal.replay(records::add);
+        return records;
+    }
+
+    private List<Path> segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    private List<byte[]> readAll(List<Path> files) throws Exception {
+        List<byte[]> contents = new ArrayList<>();
+        for (Path file : files) {
+            contents.add(Files.readAllBytes(file));
+        }
+        return contents;
+    }
+
+    // index 번째 레코드의 payload 한 바이트를 바꿔서 CRC 가 맞지 않게 만든다.
+    private void corruptRecord(Path file, int index) throws Exception {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int position = 24;
+            for (int i = 0; i < index; i++) {
+                position += 8 + buffer.getInt(position);
+            }
+            buffer.put(position + 20, (byte) (buffer.get(position + 20) ^ 1));
+            buffer.force();
+        }
+    }
+
+    // from 번째부터 to 번째 앞까지의 레코드를 0으로 지운다.
+    private void zeroRecords(Path file, int from, int to) throws Exception {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int position = 24;
+            int start = position;
+            for (int i = 0; i < to; i++) {
+                if (i == from) {
+                    start = position;
+                }
+                position += 8 + buffer.getInt(position);
+            }
+            for (int p = start; p < position; p++) {
+                buffer.put(p, (byte) 0);
+            }
+            buffer.force();
+        }
+    }
+
+    // 마지막 레코드의 payload 한 바이트를 바꿔서 CRC 가 맞지 않게 만든다. (기록 도중 멈춘 상황 흉내)
+    private void corruptLastRecord(Path file) throws Exception {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_BYTES);
+            int position = 24;
+            int last = position;
+            while (buffer.getInt(position) != 0) {
+                last = position;
+                position += 8 + buffer.getInt(position);
+            }
+            buffer.put(last + 20, (byte) (buffer.get(last + 20) ^ 1));
+            buffer.force();
+        }
+    }
+}
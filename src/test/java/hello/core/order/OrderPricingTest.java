@@ -0,0 +1,45 @@
+package hello.core.order;
+
+import hello.core.discount.RateDiscountPolicy;
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderPricingTest {
+
+    @Test
+    @DisplayName("배열 일괄 정산 결과는 주문마다 Order.calculate() 한 결과와 같아야 한다.")
+    void sameAsOrderCalculate() {
+        RateDiscountPolicy discountPolicy = new RateDiscountPolicy();
+        Member member = new Member(1L, "memberVIP", Grade.VIP);
+        Random random = new Random(42);
+        long[] prices = new long[10_000];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = 1000 + (long) (random.nextDouble() * 10_000_000_000L);
+        }
+
+        OrderPricing.Settlement settlement = OrderPricing.settle(discountPolicy, member, prices);
+
+        long totalPayment = 0;
+        for (int i = 0; i < prices.length; i++) {
+            Order order = new Order(member.getId(), "itemA", prices[i], discountPolicy.discount(member, prices[i]));
+            assertThat(settlement.getPayments()[i]).isEqualTo(order.calculate());
+            totalPayment += order.calculate();
+        }
+        assertThat(settlement.getTotalPayment()).isEqualTo(totalPayment);
+        assertThat(settlement.getTotalPrice() - settlement.getTotalDiscount()).isEqualTo(totalPayment);
+    }
+
+    @Test
+    @DisplayName("배열 길이가 다르면 계산할 수 없다.")
+    void lengthMismatch() {
+        assertThatThrownBy(() -> OrderPricing.calculate(new long[2], new long[1]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,105 @@
+package hello.core.order;
+
+import hello.core.discount.RateDiscountPolicy;
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.member.MemberRepository;
+import hello.core.member.MemoryMemberRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderServiceBatchTest {
+
+    static final int MEMBER_COUNT = 1_000;
+    static final int ORDER_COUNT = 100_000;
+
+    OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        MemberRepository memberRepository = new MemoryMemberRepository();
+        for (long id = 1; id <= MEMBER_COUNT; id++) {
+            memberRepository.save(new Member(id, "member" + id, id % 2 == 0 ? Grade.VIP : Grade.BASIC));
+        }
+        orderService = new OrderServiceImpl(memberRepository, new RateDiscountPolicy());
+    }
+
+    @Test
+    @DisplayName("일괄 주문 결과는 입력 순서대로, createOrder 와 같은 값이어야 한다.")
+    void createOrders() {
+        List<OrderRequest> requests = List.of(
+                new OrderRequest(2L, "itemA", 10000),
+                new OrderRequest(1L, "itemB", 20000),
+                new OrderRequest(2L, "itemC", 30000),
+                new OrderRequest(4L, "itemD", 5000));
+
+        List<Order> orders = orderService.createOrders(requests);
+
+        assertThat(orders).hasSize(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            OrderRequest request = requests.get(i);
+            Order expected = orderService.createOrder(request.getMemberId(), request.getItemName(), request.getItemPrice());
+            assertThat(orders.get(i).toString()).isEqualTo(expected.toString());
+        }
+        assertThat(orders.get(2).getDiscountPrice()).isEqualTo(3000);
+        assertThat(orders.get(1).getDiscountPrice()).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("빈 목록은 빈 결과를 돌려준다.")
+    void empty() {
+        assertThat(orderService.createOrders(List.of())).isEmpty();
+    }
+
+    /*
+    * createOrder 반복 호출과 createOrders 의 주문 1건당 비용 비교.
+    * 수치는 환경마다 다르므로 출력만 하고 검증하지 않는다.
+    * */
+    @Test
+    @DisplayName("주문 1건당 비용 비교: createOrder 반복 vs createOrders")
+    void perOrderCost() {
+        List<OrderRequest> requests = randomRequests();
+
+        // JIT 워밍업
+        for (int i = 0; i < 5; i++) {
+            loopCreateOrder(requests);
+            orderService.createOrders(requests);
+        }
+
+        long start = System.nanoTime();
+        loopCreateOrder(requests);
+        long loopNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        orderService.createOrders(requests);
+        long batchNanos = System.nanoTime() - start;
+
+        System.out.println("createOrder  반복 ns/order = " + (double) loopNanos / ORDER_COUNT);
+        System.out.println("createOrders 일괄 ns/order = " + (double) batchNanos / ORDER_COUNT);
+    }
+
+    private List<Order> loopCreateOrder(List<OrderRequest> requests) {
+        List<Order> orders = new ArrayList<>(requests.size());
+        for (OrderRequest request : requests) {
+            orders.add(orderService.createOrder(request.getMemberId(), request.getItemName(), request.getItemPrice()));
+        }
+        return orders;
+    }
+
+    private List<OrderRequest> randomRequests() {
+        Random random = new Random(42);
+        List<OrderRequest> requests = new ArrayList<>(ORDER_COUNT);
+        for (int i = 0; i < ORDER_COUNT; i++) {
+            long memberId = random.nextInt(MEMBER_COUNT) + 1;
+            requests.add(new OrderRequest(memberId, "item" + (i % 100), 1000 + random.nextInt(100_000)));
+        }
+        return requests;
+    }
+}
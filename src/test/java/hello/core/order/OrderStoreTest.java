@@ -0,0 +1,116 @@
+package hello.core.order;
+
+import hello.core.AutoAppConfig;
+import hello.core.discount.RateDiscountPolicy;
+import hello.core.member.Grade;
+import hello.core.member.Member;
+import hello.core.member.MemberRepository;
+import hello.core.member.MemoryMemberRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderStoreTest {
+
+    @Test
+    @DisplayName("저장한 주문을 같은 값의 Order 로 다시 꺼낼 수 있다.")
+    void appendAndGet() {
+        OrderStore store = new OrderStore(2);
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Order order = new Order((long) i, "item" + (i % 3), 10000L * i, 1000L * i);
+            orders.add(order);
+            assertThat(store.append(i % 2 == 0 ? Grade.VIP : Grade.BASIC, order)).isEqualTo(i);
+        }
+        store.append(null, new Order(null, "item0", 5000, 0));
+
+        assertThat(store.size()).isEqualTo(101);
+        assertThat(store.itemCount()).isEqualTo(3);
+        for (int i = 0; i < 100; i++) {
+            assertThat(store.get(i).toString()).isEqualTo(orders.get(i).toString());
+        }
+        assertThat(store.get(100).getMemberId()).isNull();
+        assertThat(store.gradeAt(100)).isNull();
+        assertThat(store.gradeAt(1)).isEqualTo(Grade.BASIC);
+        assertThatThrownBy(() -> store.get(101)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    @DisplayName("등급별, 상품별 할인 합계와 결제 합계를 계산한다.")
+    void aggregates() {
+        OrderStore store = new OrderStore();
+        store.append(Grade.VIP, new Order(1L, "itemA", 10000, 1000));
+        store.append(Grade.VIP, new Order(1L, "itemB", 20000, 2000));
+        store.append(Grade.BASIC, new Order(2L, "itemA", 10000, 0));
+        store.append(null, new Order(3L, "itemA", 10000, 500));
+
+        assertThat(store.totalDiscountByGrade(Grade.VIP)).isEqualTo(3000);
+        assertThat(store.totalDiscountByGrade(Grade.BASIC)).isEqualTo(0);
+        assertThat(store.totalDiscountByGrade()).containsExactly(0, 3000);
+        assertThat(store.totalDiscountByItem("itemA")).isEqualTo(1500);
+        assertThat(store.totalDiscountByItem("itemC")).isEqualTo(0);
+        assertThat(store.totalPayment()).isEqualTo(50000 - 3500);
+    }
+
+    @Test
+    @DisplayName("OrderServiceImpl 이 만든 주문은 주문 당시 등급과 함께 입력 순서대로 저장된다.")
+    void listener() {
+        MemberRepository memberRepository = new MemoryMemberRepository();
+        memberRepository.save(new Member(1L, "memberVIP", Grade.VIP));
+        memberRepository.save(new Member(2L, "memberBASIC", Grade.BASIC));
+        OrderStore store = new OrderStore();
+        OrderServiceImpl orderService = new OrderServiceImpl(memberRepository, new RateDiscountPolicy());
+        orderService.setOrderListeners(List.of(store));
+
+        orderService.createOrder(1L, "itemA", 10000);
+        orderService.createOrders(List.of(
+                new OrderRequest(2L, "itemB", 20000),
+                new OrderRequest(1L, "itemC", 30000),
+                new OrderRequest(2L, "itemD", 40000)));
+
+        assertThat(store.size()).isEqualTo(4);
+        assertThat(store.get(1).getItemName()).isEqualTo("itemB");
+        assertThat(store.get(2).getItemName()).isEqualTo("itemC");
+        assertThat(store.gradeAt(2)).isEqualTo(Grade.VIP);
+        assertThat(store.totalDiscountByGrade(Grade.VIP)).isEqualTo(4000);
+    }
+
+    @Test
+    @DisplayName("order.store.enabled=true 이면 OrderServiceImpl 에 OrderStore 가 연결된다.")
+    void enableByProperty() {
+        AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext();
+        ac.getEnvironment().getPropertySources()
+                .addFirst(new MapPropertySource("test", Map.of("order.store.enabled", "true")));
+        ac.register(AutoAppConfig.class);
+        ac.refresh();
+
+        ac.getBean(MemberRepository.class).save(new Member(1L, "memberVIP", Grade.VIP));
+        ac.getBean(OrderService.class).createOrder(1L, "itemA", 10000);
+
+        assertThat(ac.getBean(OrderStore.class).size()).isEqualTo(1);
+        ac.close();
+    }
+
+    @Test
+    @DisplayName("메모리 사용량 비교: Order 객체 목록 vs 컬럼형 저장소 (출력만)")
+    void footprint() {
+        int count = 1_000_000;
+        OrderStore store = new OrderStore(count);
+        for (int i = 0; i < count; i++) {
+            store.append(Grade.VIP, new Order((long) i, "item" + (i % 100), 10000, 1000));
+        }
+        // Order 객체 1건: 헤더 12~16 + 참조 2개 + long 2개 ≈ 40 byte, Long(memberId) ≈ 16 byte, ArrayList 참조 4~8 byte
+        long objectBytes = (long) count * (40 + 16 + 8);
+        System.out.println("orders = " + count + ", columnar = " + store.columnBytes() / 1024 / 1024 + "MB"
+                + ", objects(estimated) = " + objectBytes / 1024 / 1024 + "MB");
+        assertThat(store.columnBytes()).isLessThan(objectBytes / 2);
+    }
+}
@@ -0,0 +1,43 @@
+package hello.core.singleton;
+
+import hello.core.FunctionalAppConfig;
+import hello.core.discount.DiscountPolicy;
+import hello.core.member.MemberRepository;
+import hello.core.member.MemberServiceImpl;
+import hello.core.order.OrderServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FunctionalAppConfigTest {
+
+    @Test
+    @DisplayName("함수형 등록도 memberService 와 orderService 가 같은 memberRepository 를 사용한다.")
+    void singleton() {
+        GenericApplicationContext ac = FunctionalAppConfig.createContext();
+        MemberServiceImpl memberService = ac.getBean("memberService", MemberServiceImpl.class);
+        OrderServiceImpl orderService = ac.getBean("orderService", OrderServiceImpl.class);
+        MemberRepository memberRepository = ac.getBean("memberRepository", MemberRepository.class);
+
+        assertThat(memberService.getMemberRepository()).isSameAs(memberRepository);
+        assertThat(orderService.getMemberRepository()).isSameAs(memberRepository);
+        assertThat(ac.getBean(MemberRepository.class)).isSameAs(memberRepository);
+        ac.close();
+    }
+
+    @Test
+    @DisplayName("AppConfig 와 같은 이름의 빈 4개만 등록되고, CGLIB 으로 만든 클래스는 없다.")
+    void noProxy() {
+        GenericApplicationContext ac = FunctionalAppConfig.createContext();
+
+        assertThat(ac.getBeanDefinitionNames())
+                .containsExactlyInAnyOrder("memberRepository", "discountPolicy", "memberService", "orderService");
+        for (String name : ac.getBeanDefinitionNames()) {
+            assertThat(ac.getBean(name).getClass().getName()).doesNotContain("$$");
+        }
+        assertThat(ac.getBean("discountPolicy")).isSameAs(ac.getBean(DiscountPolicy.class));
+        ac.close();
+    }
+}
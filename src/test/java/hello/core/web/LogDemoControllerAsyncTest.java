@@ -0,0 +1,175 @@
+package hello.core.web;
+
+import hello.core.logging.RequestIdGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+* 톰캣 워커 스레드를 4개로 제한한 상태에서 16개 요청을 동시에 보낸다.
+*  - log-demo-async : 대기 중에는 워커 스레드를 반납하므로, LogDemoScheduler 에 동시에 걸려 기다리는 요청 수가 워커 스레드 수보다 많아진다.
+*                     시간을 재지 않고 이 수(getMaxWaitingCount)로 확인한다.
+*  - log-demo       : 요청마다 워커 스레드가 1초씩 묶이므로 16 / 4 = 4초 이상 걸린다. 시간을 재는 비교는 실행 환경에 따라 흔들리고
+*                     빌드마다 수 초를 쓰므로 기본으로는 실행하지 않는다. (timing 참고)
+*
+* 출력 캡처는 테스트 클래스 전체가 함께 쓰고, 앞선 테스트의 로그가 AsyncLogWriter 에서 늦게 출력될 수도 있다.
+* 그래서 요청 id 앞에 테스트마다 다른 태그를 붙이고(TaggedRequestIdGenerator), 현재 테스트의 태그가 붙은 로그만 센다.
+* */
+@ExtendWith(OutputCaptureExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "server.tomcat.threads.max=" + LogDemoControllerAsyncTest.WORKER_THREADS)
+class LogDemoControllerAsyncTest {
+
+    static final int WORKER_THREADS = 4;
+    static final int REQUESTS = 16;
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    TaggedRequestIdGenerator requestIds;
+
+    @Autowired
+    LogDemoScheduler scheduler;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    @DisplayName("비동기 엔드포인트는 워커 스레드 수보다 많은 요청을 동시에 처리한다.")
+    void asyncExceedsWorkerPool() {
+        scheduler.resetMaxWaitingCount();
+
+        sendConcurrently("log-demo-async");
+
+        // 워커 스레드를 잡고 기다렸다면 동시에 기다리는 요청은 워커 스레드 수를 넘을 수 없다.
+        assertThat(scheduler.getMaxWaitingCount()).isGreaterThan(WORKER_THREADS);
+        assertThat(scheduler.getWaitingCount()).isEqualTo(0);
+    }
+
+    /*
+    * 동기/비동기 엔드포인트의 처리 시간 비교. 1초 대기를 여러 번 하므로 기본으로는 실행하지 않는다.
+    * ./gradlew test --tests '*LogDemoControllerAsyncTest*' -Dlog-demo.timing=true
+    * */
+    @Test
+    @EnabledIfSystemProperty(named = "log-demo.timing", matches = "true")
+    @DisplayName("동기 엔드포인트는 워커 스레드 수만큼씩만 처리되고, 비동기 엔드포인트는 그보다 빨리 끝난다.")
+    void timing() {
+        long blocking = sendConcurrently("log-demo");
+        long async = sendConcurrently("log-demo-async");
+        System.out.println("log-demo " + REQUESTS + " requests = " + blocking + "ms, log-demo-async = " + async + "ms");
+
+        assertThat(blocking).isGreaterThanOrEqualTo((REQUESTS / WORKER_THREADS) * 1000L);
+        // 이론상 REQUESTS / WORKER_THREADS(4) 배 차이가 난다. 느린 환경을 고려해 절반만 요구한다.
+        assertThat(async).isLessThan(blocking * 2 / (REQUESTS / WORKER_THREADS));
+    }
+
+    @Test
+    @DisplayName("비동기로 이어서 실행된 서비스 로그도 컨트롤러와 같은 [uuid][requestURL] 로 남는다.")
+    void requestScopeCarriesOver(CapturedOutput output) throws Exception {
+        String tag = requestIds.nextTag();
+        sendConcurrently("log-demo-async");
+
+        Map<String, Set<String>> messagesById = awaitMessagesById(output, tag, "log-demo-async", 2);
+        assertThat(messagesById).hasSize(REQUESTS);
+        assertThat(messagesById.values()).allMatch(messages -> messages.size() == 2);
+    }
+
+    @Test
+    @DisplayName("여러 스레드로 나누어 실행된 서비스 로그도 요청마다 같은 [uuid][requestURL] 로 남는다.")
+    void requestScopeCarriesOverFanOut(CapturedOutput output) throws Exception {
+        String tag = requestIds.nextTag();
+        sendConcurrently("log-demo-fanout");
+
+        // controller test + service id = testId1~4
+        Map<String, Set<String>> messagesById = awaitMessagesById(output, tag, "log-demo-fanout", 5);
+        assertThat(messagesById).hasSize(REQUESTS);
+        assertThat(messagesById.values()).allMatch(messages -> messages.size() == 5);
+    }
+
+    // tag 가 붙은 요청 id 별로 남은 로그 메시지를 모은다. 로그는 AsyncLogWriter 가 비동기로 출력하므로 잠시 기다린다.
+    private Map<String, Set<String>> awaitMessagesById(CapturedOutput output, String tag, String path, int messagesPerRequest)
+            throws InterruptedException {
+        Pattern line = Pattern.compile("\\[(" + tag + "\\d+)]\\[http://localhost:" + port + "/" + path
+                + "] (controller test|service id = \\w+)");
+        Map<String, Set<String>> messagesById = new HashMap<>();
+        for (int retry = 0; retry < 20; retry++) {
+            messagesById.clear();
+            Matcher matcher = line.matcher(output.getOut());
+            while (matcher.find()) {
+                messagesById.computeIfAbsent(matcher.group(1), id -> new HashSet<>()).add(matcher.group(2));
+            }
+            if (messagesById.size() == REQUESTS && messagesById.values().stream().allMatch(m -> m.size() == messagesPerRequest)) {
+                break;
+            }
+            Thread.sleep(100);
+        }
+        return messagesById;
+    }
+
+    private long sendConcurrently(String path) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/" + path)).build();
+        long start = System.nanoTime();
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+        }
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertThat(response.join().body()).isEqualTo("OK");
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    @TestConfiguration
+    static class RequestIdConfig {
+
+        @Bean
+        @Primary
+        TaggedRequestIdGenerator taggedRequestIdGenerator() {
+            return new TaggedRequestIdGenerator();
+        }
+    }
+
+    // 요청 id = 현재 태그 + 일련번호. nextTag() 이후의 요청은 새 태그로 구분된다.
+    static class TaggedRequestIdGenerator implements RequestIdGenerator {
+
+        private final AtomicLong tags = new AtomicLong();
+        private final AtomicLong sequence = new AtomicLong();
+        private volatile String tag = "t0x";
+
+        String nextTag() {
+            tag = "t" + tags.incrementAndGet() + "x";
+            return tag;
+        }
+
+        @Override
+        public String nextId() {
+            return tag + sequence.incrementAndGet();
+        }
+    }
+}
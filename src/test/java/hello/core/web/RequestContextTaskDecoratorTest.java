@@ -0,0 +1,84 @@
+package hello.core.web;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestContextTaskDecoratorTest {
+
+    RequestContextTaskDecorator decorator = new RequestContextTaskDecorator();
+
+    @AfterEach
+    void reset() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("다른 스레드에서 실행해도 요청 스레드와 같은 request attribute 가 조회된다.")
+    void propagateToOtherThread() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute("scopedTarget.myLogger", "requestScopedBean");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        AtomicReference<Object> seen = new AtomicReference<>();
+        AtomicReference<RequestAttributes> afterRun = new AtomicReference<>();
+        Runnable task = decorator.decorate(() -> seen.set(
+                RequestContextHolder.currentRequestAttributes().getAttribute("scopedTarget.myLogger", RequestAttributes.SCOPE_REQUEST)));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.submit(task).get();
+        // 작업이 끝나면 작업 스레드의 요청 정보는 지워져야 한다.
+        executor.submit(() -> afterRun.set(RequestContextHolder.getRequestAttributes())).get();
+        executor.shutdown();
+
+        assertThat(seen.get()).isEqualTo("requestScopedBean");
+        assertThat(afterRun.get()).isNull();
+    }
+
+    @Test
+    @DisplayName("요청 스레드의 처리가 끝난 뒤에 실행되어도 request attribute 를 조회할 수 있다.")
+    void propagateAfterRequestCompleted() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute("key", "value");
+        ServletRequestAttributes attributes = new ServletRequestAttributes(request);
+        RequestContextHolder.setRequestAttributes(attributes);
+
+        AtomicReference<Object> seen = new AtomicReference<>();
+        Runnable task = decorator.decorate(() -> seen.set(
+                RequestContextHolder.currentRequestAttributes().getAttribute("key", RequestAttributes.SCOPE_REQUEST)));
+        attributes.requestCompleted();
+        RequestContextHolder.resetRequestAttributes();
+
+        task.run();
+
+        assertThat(seen.get()).isEqualTo("value");
+    }
+
+    @Test
+    @DisplayName("호출한 스레드에서 그대로 실행되면 기존 요청 정보를 복원한다.")
+    void restorePreviousOnCallerThread() {
+        ServletRequestAttributes attributes = new ServletRequestAttributes(new MockHttpServletRequest());
+        RequestContextHolder.setRequestAttributes(attributes);
+
+        decorator.decorate(() -> { }).run();
+
+        assertThat(RequestContextHolder.getRequestAttributes()).isSameAs(attributes);
+    }
+
+    @Test
+    @DisplayName("HTTP 요청 밖에서 넘긴 작업은 그대로 실행된다.")
+    void noRequest() {
+        Runnable task = () -> { };
+        assertThat(decorator.decorate(task)).isSameAs(task);
+    }
+}